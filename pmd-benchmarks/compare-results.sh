@@ -0,0 +1,19 @@
+#!/usr/bin/env bash
+
+# Compares two JMH result files and fails if a benchmark got slower.
+#
+# Usage: pmd-benchmarks/compare-results.sh <baseline.json> <current.json> [threshold in percent]
+#
+# The result files are written by JMH with "-rf json -rff <file>". The benchmarks
+# jar must have been built before, see docs/pages/pmd/devdocs/building.md.
+
+# Exit this script immediately if a command/function exits with a non-zero status.
+set -e
+
+BENCHMARKS_JAR="$(dirname "$0")/target/benchmarks.jar"
+if [ ! -f "${BENCHMARKS_JAR}" ]; then
+    echo "${BENCHMARKS_JAR} not found, build it with: ./mvnw package -pl pmd-benchmarks -am -DskipTests" >&2
+    exit 2
+fi
+
+exec java -cp "${BENCHMARKS_JAR}" net.sourceforge.pmd.benchmarks.CompareResults "$@"
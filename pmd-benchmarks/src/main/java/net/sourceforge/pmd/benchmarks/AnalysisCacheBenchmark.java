@@ -0,0 +1,123 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.PmdAnalysis;
+import net.sourceforge.pmd.RuleSets;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.cache.FileAnalysisCache;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.TextDocument;
+import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.reporting.FileAnalysisListener;
+
+/**
+ * Loads and persists a {@link FileAnalysisCache}. The cache contains
+ * {@code fileCount} files, which are copies of the Java corpus under
+ * different names, with the violations of the quickstart ruleset.
+ *
+ * <p>Loading includes the validity check of the cache, in particular
+ * the fingerprint of the classpath, since that is what PMD does before
+ * each analysis. No auxclasspath is used.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnalysisCacheBenchmark {
+
+    @Param("500")
+    public int fileCount;
+
+    private RuleSets ruleSets;
+    private List<TextFile> files;
+    private File cacheFile;
+    private FileAnalysisCache cache;
+
+    @Setup
+    public void setup() throws Exception {
+        List<TextFile> corpus = Corpus.JAVA.readFiles();
+        Map<FileId, List<RuleViolation>> violations = new HashMap<>();
+        PMDConfiguration config = new PMDConfiguration();
+        config.setIgnoreIncrementalAnalysis(true);
+        try (PmdAnalysis pmd = PmdAnalysis.create(config)) {
+            pmd.addRuleSet(pmd.newRuleSetLoader().warnDeprecated(false).loadFromResource("rulesets/java/quickstart.xml"));
+            ruleSets = new RuleSets(pmd.getRulesets());
+            corpus.forEach(pmd.files()::addFile);
+            for (RuleViolation violation : pmd.performAnalysisAndCollectReport().getViolations()) {
+                violations.computeIfAbsent(violation.getFileId(), f -> new ArrayList<>()).add(violation);
+            }
+        }
+
+        files = new ArrayList<>(fileCount);
+        for (int i = 0; i < fileCount; i++) {
+            TextFile original = corpus.get(i % corpus.size());
+            try (TextDocument document = TextDocument.create(original)) {
+                FileId fileId = FileId.fromPathLikeString("src/File" + i + ".java");
+                files.add(TextFile.forCharSeq(document.getText(), fileId, original.getLanguageVersion()));
+            }
+        }
+
+        cacheFile = Files.createTempFile("pmd-benchmark", ".cache").toFile();
+        Files.delete(cacheFile.toPath());
+        cache = new FileAnalysisCache(cacheFile);
+        cache.checkValidity(ruleSets, null, files);
+        for (int i = 0; i < fileCount; i++) {
+            try (TextDocument document = TextDocument.create(files.get(i))) {
+                cache.isUpToDate(document);
+                FileAnalysisListener listener = cache.startFileAnalysis(document);
+                FileId originalId = corpus.get(i % corpus.size()).getFileId();
+                for (RuleViolation violation : violations.getOrDefault(originalId, Collections.emptyList())) {
+                    listener.onRuleViolation(violation);
+                }
+            }
+        }
+        cache.persist();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(cacheFile.toPath());
+    }
+
+    @Benchmark
+    public FileAnalysisCache load() {
+        FileAnalysisCache loaded = new FileAnalysisCache(cacheFile);
+        loaded.checkValidity(ruleSets, null, files);
+        return loaded;
+    }
+
+    @Benchmark
+    public FileAnalysisCache persist() {
+        cache.persist();
+        return cache;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmarks;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.sourceforge.pmd.internal.util.ClasspathClassLoader;
+import net.sourceforge.pmd.lang.java.symbols.internal.asm.Classpath;
+import net.sourceforge.pmd.lang.java.symbols.internal.asm.IndexedClasspath;
+
+/**
+ * Looks up class files on an auxclasspath of {@code jarCount} generated
+ * jars, with {@code classesPerJar} entries each, through the
+ * {@link ClasspathClassLoader} and through the {@link IndexedClasspath}
+ * built for it. The names looked up mix classes of the jars, classes of
+ * the JDK, and names that are on neither, like the ones the disambiguation
+ * pass probes. One operation looks up every name once.
+ *
+ * <p>{@link #indexedFirstLookup(Blackhole)} includes building the index,
+ * which happens once per analysis.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClasspathLookupBenchmark {
+
+    private static final String[] JDK_CLASSES = {
+        "java/lang/String.class",
+        "java/lang/Object.class",
+        "java/util/List.class",
+        "java/util/Map$Entry.class",
+        "java/io/IOException.class",
+    };
+
+    @Param("50")
+    public int jarCount;
+
+    @Param("200")
+    public int classesPerJar;
+
+    private Path directory;
+    private ClasspathClassLoader classLoader;
+    private Classpath loaderClasspath;
+    private Classpath indexedClasspath;
+    private List<String> names;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("pmd-benchmark-classpath");
+        List<File> jars = new ArrayList<>(jarCount);
+        for (int jar = 0; jar < jarCount; jar++) {
+            Path file = directory.resolve("lib" + jar + ".jar");
+            try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(file))) {
+                for (int cls = 0; cls < classesPerJar; cls++) {
+                    out.putNextEntry(new JarEntry(className(jar, cls)));
+                    out.write(new byte[] {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE});
+                    out.closeEntry();
+                }
+            }
+            jars.add(file.toFile());
+        }
+
+        classLoader = new ClasspathClassLoader(jars, ClasspathLookupBenchmark.class.getClassLoader());
+        loaderClasspath = Classpath.forClassLoader(classLoader);
+        indexedClasspath = IndexedClasspath.forClassLoader(classLoader);
+
+        names = new ArrayList<>();
+        for (int jar = 0; jar < jarCount; jar++) {
+            names.add(className(jar, jar % classesPerJar));
+            names.add("p" + jar + "/C0$Inner.class");
+            names.add("p" + jar + "/Missing.class");
+        }
+        for (String jdkClass : JDK_CLASSES) {
+            names.add(jdkClass);
+            names.add(jdkClass.replace(".class", "$Missing.class"));
+        }
+    }
+
+    private static String className(int jar, int cls) {
+        return "p" + jar + "/C" + cls + ".class";
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        ((Closeable) indexedClasspath).close();
+        classLoader.close();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public void classLoader(Blackhole bh) {
+        lookUpAll(loaderClasspath, bh);
+    }
+
+    @Benchmark
+    public void indexed(Blackhole bh) {
+        lookUpAll(indexedClasspath, bh);
+    }
+
+    @Benchmark
+    public void indexedFirstLookup(Blackhole bh) throws IOException {
+        Classpath classpath = IndexedClasspath.forClassLoader(classLoader);
+        try {
+            lookUpAll(classpath, bh);
+        } finally {
+            ((Closeable) classpath).close();
+        }
+    }
+
+    private void lookUpAll(Classpath classpath, Blackhole bh) {
+        for (String name : names) {
+            bh.consume(classpath.findResource(name));
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmarks;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Compares two result files of JMH, written with {@code -rf json}, and
+ * fails if a benchmark got slower than a threshold. A benchmark only
+ * counts as a regression if the difference is also larger than the sum
+ * of the errors of both scores, so that noise is not reported.
+ *
+ * <p>Usage: {@code CompareResults <baseline.json> <current.json> [threshold in percent]}.
+ * The exit code is 0 if there is no regression, 1 if there is one, and
+ * 2 if the arguments are invalid.
+ */
+public final class CompareResults {
+
+    private static final double DEFAULT_THRESHOLD_PERCENT = 10;
+
+    private CompareResults() {
+        // main class
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: CompareResults <baseline.json> <current.json> [threshold in percent, default "
+                               + DEFAULT_THRESHOLD_PERCENT + "]");
+            System.exit(2);
+        }
+        double threshold = args.length == 3 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+
+        Map<String, Score> baseline = load(Paths.get(args[0]));
+        Map<String, Score> current = load(Paths.get(args[1]));
+        int regressions = compare(baseline, current, threshold, System.out);
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    /**
+     * Prints the comparison of each benchmark, and returns the number
+     * of regressions.
+     */
+    static int compare(Map<String, Score> baseline, Map<String, Score> current, double threshold, PrintStream out) {
+        int regressions = 0;
+        for (Map.Entry<String, Score> entry : baseline.entrySet()) {
+            Score before = entry.getValue();
+            Score after = current.get(entry.getKey());
+            if (after == null) {
+                out.printf(Locale.ROOT, "%8s  %-10s  %s%n", "", "MISSING", entry.getKey());
+                continue;
+            }
+
+            // positive means slower, whatever the mode
+            double slowdown = before.higherIsBetter()
+                              ? (before.value - after.value) / before.value * 100
+                              : (after.value - before.value) / before.value * 100;
+            boolean significant = Math.abs(after.value - before.value) > before.error + after.error;
+            String verdict;
+            if (significant && slowdown > threshold) {
+                verdict = "REGRESSION";
+                regressions++;
+            } else if (significant && slowdown < -threshold) {
+                verdict = "FASTER";
+            } else {
+                verdict = "OK";
+            }
+            out.printf(Locale.ROOT, "%+7.1f%%  %-10s  %s  %.3f -> %.3f %s%n",
+                       slowdown, verdict, entry.getKey(), before.value, after.value, after.unit);
+        }
+        for (String name : current.keySet()) {
+            if (!baseline.containsKey(name)) {
+                out.printf(Locale.ROOT, "%8s  %-10s  %s%n", "", "NEW", name);
+            }
+        }
+        out.printf(Locale.ROOT, "%d regression(s) over %.1f%%%n", regressions, threshold);
+        return regressions;
+    }
+
+    static Map<String, Score> load(Path file) throws IOException {
+        Map<String, Score> scores = new TreeMap<>();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            for (JsonElement element : JsonParser.parseReader(reader).getAsJsonArray()) {
+                JsonObject result = element.getAsJsonObject();
+                JsonObject metric = result.getAsJsonObject("primaryMetric");
+                double error = metric.get("scoreError").getAsDouble(); // NaN with a single iteration
+                Score score = new Score(result.get("mode").getAsString(),
+                                        metric.get("score").getAsDouble(),
+                                        Double.isNaN(error) ? 0 : error,
+                                        metric.get("scoreUnit").getAsString());
+                scores.put(nameOf(result), score);
+            }
+        }
+        return scores;
+    }
+
+    private static String nameOf(JsonObject result) {
+        StringBuilder name = new StringBuilder(result.get("benchmark").getAsString());
+        JsonObject params = result.getAsJsonObject("params");
+        if (params != null) {
+            Map<String, String> sorted = new TreeMap<>();
+            for (Map.Entry<String, JsonElement> param : params.entrySet()) {
+                sorted.put(param.getKey(), param.getValue().getAsString());
+            }
+            name.append(' ').append(sorted);
+        }
+        return name.toString();
+    }
+
+    static final class Score {
+
+        final String mode;
+        final double value;
+        final double error;
+        final String unit;
+
+        Score(String mode, double value, double error, String unit) {
+            this.mode = mode;
+            this.value = value;
+            this.error = error;
+            this.unit = unit;
+        }
+
+        boolean higherIsBetter() {
+            return "thrpt".equals(mode);
+        }
+    }
+}
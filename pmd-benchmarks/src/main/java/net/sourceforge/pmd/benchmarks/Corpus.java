@@ -0,0 +1,124 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.sourceforge.pmd.internal.util.IOUtil;
+import net.sourceforge.pmd.lang.Language;
+import net.sourceforge.pmd.lang.LanguageProcessor;
+import net.sourceforge.pmd.lang.LanguageProcessorRegistry;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.ast.Parser.ParserTask;
+import net.sourceforge.pmd.lang.ast.RootNode;
+import net.sourceforge.pmd.lang.ast.SemanticErrorReporter;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.TextDocument;
+import net.sourceforge.pmd.lang.document.TextFile;
+
+/**
+ * The files used by the benchmarks, for each language. These are test
+ * resources of the language modules, which are on the classpath through
+ * their test-jars. The shade configuration in the pom of this module
+ * must include the same files.
+ */
+public enum Corpus {
+    JAVA("java",
+         "net/sourceforge/pmd/lang/java/ast/GitHubBug650.java",
+         "net/sourceforge/pmd/lang/java/types/IteratorUtilCopy.java",
+         "net/sourceforge/pmd/lang/java/ast/ParserCornerCases17.java",
+         "net/sourceforge/pmd/lang/java/ast/ParserCornerCases18.java"),
+    APEX("apex",
+         "SObjectDataLoader.cls",
+         "fflib_SObjectDomain.cls"),
+    ECMASCRIPT("ecmascript",
+               "net/sourceforge/pmd/lang/ecmascript/ast/testdata/jquery-selector.js",
+               "ant/ecmascript/sorttable.js"),
+    PLSQL("plsql",
+          "net/sourceforge/pmd/lang/plsql/ast/CreateOrganizedTable.pls",
+          "net/sourceforge/pmd/lang/plsql/ast/CreateTable.pls",
+          "net/sourceforge/pmd/lang/plsql/ast/XMLTable.pls"),
+    XML("xml",
+        "net/sourceforge/pmd/lang/apex/rule/security/xml/ApexCRUDViolation.xml",
+        "net/sourceforge/pmd/lang/java/rule/bestpractices/xml/UnusedAssignment.xml");
+
+    private final String languageId;
+    private final List<String> resources;
+
+    Corpus(String languageId, String... resources) {
+        this.languageId = languageId;
+        this.resources = Arrays.asList(resources);
+    }
+
+    public Language getLanguage() {
+        Language language = LanguageRegistry.PMD.getLanguageById(languageId);
+        if (language == null) {
+            throw new IllegalStateException("Language '" + languageId + "' is not on the classpath");
+        }
+        return language;
+    }
+
+    /**
+     * Reads the files of the corpus, in the default version of the language.
+     */
+    public List<TextFile> readFiles() {
+        Language language = getLanguage();
+        List<TextFile> files = new ArrayList<>(resources.size());
+        for (String resource : resources) {
+            files.add(TextFile.forCharSeq(readResource(resource),
+                                          FileId.fromPathLikeString(resource),
+                                          language.getDefaultVersion()));
+        }
+        return files;
+    }
+
+    /**
+     * Reads and opens the files of the corpus. The caller must close the documents.
+     */
+    public List<TextDocument> openDocuments() {
+        List<TextDocument> documents = new ArrayList<>(resources.size());
+        for (TextFile file : readFiles()) {
+            try {
+                documents.add(TextDocument.create(file));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return documents;
+    }
+
+    /**
+     * Parses the documents with the parser of the processor of the language,
+     * which also runs the semantic passes of the language, like PMD does.
+     */
+    public List<RootNode> parse(LanguageProcessorRegistry lpRegistry, List<TextDocument> documents) {
+        @SuppressWarnings("PMD.CloseResource")
+        LanguageProcessor processor = lpRegistry.getProcessor(getLanguage());
+        List<RootNode> roots = new ArrayList<>(documents.size());
+        for (TextDocument document : documents) {
+            ParserTask task = new ParserTask(document, SemanticErrorReporter.noop(), lpRegistry);
+            roots.add(processor.services().getParser().parse(task));
+        }
+        return roots;
+    }
+
+    private static String readResource(String resource) {
+        try (InputStream stream = Corpus.class.getClassLoader().getResourceAsStream(resource)) {
+            if (stream == null) {
+                throw new IllegalStateException("Missing corpus file " + resource
+                                                + ", the test-jar of its module is not on the classpath");
+            }
+            return IOUtil.readToString(stream, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
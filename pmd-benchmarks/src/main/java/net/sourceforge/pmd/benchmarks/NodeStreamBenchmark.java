@@ -0,0 +1,122 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmarks;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.sourceforge.pmd.lang.LanguageProcessorRegistry;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.ast.RootNode;
+import net.sourceforge.pmd.lang.document.TextDocument;
+import net.sourceforge.pmd.lang.java.ast.ASTClassOrInterfaceBody;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodCall;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
+import net.sourceforge.pmd.util.log.MessageReporter;
+
+/**
+ * Runs NodeStream pipelines like the ones of the Java rules on the trees
+ * of the Java corpus: filterIs, filter and map on descendant streams,
+ * take and drop on children streams, and a short-circuiting search.
+ * {@link #handWrittenLoop(Blackhole)} does the same work as
+ * {@link #descendantsFilterMap(Blackhole)} without streams, as a reference.
+ *
+ * <p>Run with {@code -prof gc} to see the allocations of each pipeline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NodeStreamBenchmark {
+
+    private LanguageProcessorRegistry lpRegistry;
+    private List<TextDocument> documents;
+    private List<RootNode> trees;
+
+    @Setup
+    public void setup() {
+        lpRegistry = LanguageProcessorRegistry.create(LanguageRegistry.PMD, Collections.emptyMap(), MessageReporter.quiet());
+        documents = Corpus.JAVA.openDocuments();
+        trees = Corpus.JAVA.parse(lpRegistry, documents);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        for (TextDocument document : documents) {
+            document.close();
+        }
+        lpRegistry.close();
+    }
+
+    @Benchmark
+    public void descendantsFilterMap(Blackhole bh) {
+        for (RootNode tree : trees) {
+            tree.descendants()
+                .crossFindBoundaries()
+                .filterIs(ASTMethodCall.class)
+                .filter(call -> call.getArguments().getNumChildren() > 0)
+                .map(ASTMethodCall::getArguments)
+                .forEach(bh::consume);
+        }
+    }
+
+    @Benchmark
+    public void handWrittenLoop(Blackhole bh) {
+        for (RootNode tree : trees) {
+            visit(tree, bh);
+        }
+    }
+
+    private static void visit(Node node, Blackhole bh) {
+        for (int i = 0; i < node.getNumChildren(); i++) {
+            Node child = node.getChild(i);
+            if (child instanceof ASTMethodCall && ((ASTMethodCall) child).getArguments().getNumChildren() > 0) {
+                bh.consume(((ASTMethodCall) child).getArguments());
+            }
+            visit(child, bh);
+        }
+    }
+
+    @Benchmark
+    public void childrenTakeDrop(Blackhole bh) {
+        for (RootNode tree : trees) {
+            tree.descendants(ASTClassOrInterfaceBody.class)
+                .crossFindBoundaries()
+                .forEach(body -> bh.consume(body.children()
+                                                .drop(1)
+                                                .take(3)
+                                                .filterIs(ASTMethodDeclaration.class)
+                                                .count()));
+        }
+    }
+
+    @Benchmark
+    public void firstMatch(Blackhole bh) {
+        for (RootNode tree : trees) {
+            bh.consume(tree.descendants(ASTMethodDeclaration.class)
+                           .crossFindBoundaries()
+                           .filter(method -> method.getName().startsWith("next"))
+                           .map(ASTMethodDeclaration::getBody)
+                           .first());
+        }
+    }
+}
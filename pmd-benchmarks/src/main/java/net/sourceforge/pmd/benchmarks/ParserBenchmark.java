@@ -0,0 +1,80 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmarks;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.sourceforge.pmd.lang.LanguageProcessor;
+import net.sourceforge.pmd.lang.LanguageProcessorRegistry;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.ast.Parser;
+import net.sourceforge.pmd.lang.ast.Parser.ParserTask;
+import net.sourceforge.pmd.lang.ast.SemanticErrorReporter;
+import net.sourceforge.pmd.lang.document.TextDocument;
+import net.sourceforge.pmd.lang.java.internal.JavaLanguageProcessor;
+import net.sourceforge.pmd.util.log.MessageReporter;
+
+/**
+ * Parses the corpus of a language. One operation parses all the files
+ * of the corpus. The semantic passes of Java are not included, they
+ * are measured by {@code JavaAstProcessorBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+    @Param({"JAVA", "APEX", "ECMASCRIPT", "PLSQL", "XML"})
+    public Corpus corpus;
+
+    private LanguageProcessorRegistry lpRegistry;
+    private Parser parser;
+    private List<TextDocument> documents;
+
+    @Setup
+    public void setup() {
+        lpRegistry = LanguageProcessorRegistry.create(LanguageRegistry.PMD, Collections.emptyMap(), MessageReporter.quiet());
+        @SuppressWarnings("PMD.CloseResource")
+        LanguageProcessor processor = lpRegistry.getProcessor(corpus.getLanguage());
+        parser = processor instanceof JavaLanguageProcessor
+                 ? ((JavaLanguageProcessor) processor).getParserWithoutProcessing()
+                 : processor.services().getParser();
+        documents = corpus.openDocuments();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        for (TextDocument document : documents) {
+            document.close();
+        }
+        lpRegistry.close();
+    }
+
+    @Benchmark
+    public void parse(Blackhole bh) {
+        for (TextDocument document : documents) {
+            bh.consume(parser.parse(new ParserTask(document, SemanticErrorReporter.noop(), lpRegistry)));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmarks;
+
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.PmdAnalysis;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.renderers.Renderer;
+import net.sourceforge.pmd.renderers.RendererFactory;
+import net.sourceforge.pmd.reporting.FileAnalysisListener;
+import net.sourceforge.pmd.reporting.GlobalAnalysisListener;
+
+/**
+ * Renders the violations of the quickstart ruleset on the Java corpus,
+ * through the listener of the renderer, like PMD does. The violations
+ * of the corpus are reported {@code copies} times, to get a report of
+ * a realistic size. The output is discarded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RendererBenchmark {
+
+    @Param({"xml", "text", "html", "csv", "json", "sarif", "binary"})
+    public String format;
+
+    @Param("50")
+    public int copies;
+
+    private List<TextFile> files;
+    private final Map<FileId, List<RuleViolation>> violations = new HashMap<>();
+
+    @Setup
+    public void setup() {
+        files = Corpus.JAVA.readFiles();
+        PMDConfiguration config = new PMDConfiguration();
+        config.setIgnoreIncrementalAnalysis(true);
+        try (PmdAnalysis pmd = PmdAnalysis.create(config)) {
+            pmd.addRuleSet(pmd.newRuleSetLoader().warnDeprecated(false).loadFromResource("rulesets/java/quickstart.xml"));
+            files.forEach(pmd.files()::addFile);
+            for (RuleViolation violation : pmd.performAnalysisAndCollectReport().getViolations()) {
+                violations.computeIfAbsent(violation.getFileId(), f -> new ArrayList<>()).add(violation);
+            }
+        }
+    }
+
+    @Benchmark
+    public long render() throws Exception {
+        Renderer renderer = RendererFactory.createRenderer(format, new Properties());
+        CountingWriter writer = new CountingWriter();
+        renderer.setWriter(writer);
+        try (GlobalAnalysisListener listener = renderer.newListener()) {
+            for (int copy = 0; copy < copies; copy++) {
+                for (TextFile file : files) {
+                    try (FileAnalysisListener fileListener = listener.startFileAnalysis(file)) {
+                        for (RuleViolation violation : violations.getOrDefault(file.getFileId(), Collections.emptyList())) {
+                            fileListener.onRuleViolation(violation);
+                        }
+                    }
+                }
+            }
+        }
+        return writer.count;
+    }
+
+    /** Discards the output, but counts it so it cannot be optimized away. */
+    private static final class CountingWriter extends Writer {
+
+        private long count;
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void write(int c) {
+            count++;
+        }
+
+        @Override
+        public void flush() {
+            // nothing to do
+        }
+
+        @Override
+        public void close() {
+            // nothing to do
+        }
+    }
+}
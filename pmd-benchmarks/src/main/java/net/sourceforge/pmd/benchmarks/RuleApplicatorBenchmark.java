@@ -0,0 +1,98 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmarks;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleSet;
+import net.sourceforge.pmd.RuleSetLoader;
+import net.sourceforge.pmd.RuleSets;
+import net.sourceforge.pmd.lang.LanguageProcessorRegistry;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.ast.RootNode;
+import net.sourceforge.pmd.lang.document.TextDocument;
+import net.sourceforge.pmd.lang.rule.internal.RuleApplicator;
+import net.sourceforge.pmd.lang.rule.internal.TreeIndex;
+import net.sourceforge.pmd.util.log.MessageReporter;
+
+/**
+ * Applies the Java quickstart ruleset on the Java corpus with a
+ * {@link RuleApplicator}. One operation handles all the files of the
+ * corpus.
+ *
+ * <p>The {@link #index()} benchmark only fills the {@link TreeIndex},
+ * and {@link #indexAndApply()} also applies the rules, like PMD does.
+ * The trees are parsed once, so lazily computed data like types is
+ * cached after the first operation. This measures the rules themselves,
+ * see {@code JavaAstProcessorBenchmark} for the semantic passes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RuleApplicatorBenchmark {
+
+    private LanguageProcessorRegistry lpRegistry;
+    private List<TextDocument> documents;
+    private List<RootNode> trees;
+    private Collection<Rule> rules;
+    private RuleApplicator applicator;
+
+    @Setup
+    public void setup() {
+        lpRegistry = LanguageProcessorRegistry.create(LanguageRegistry.PMD, Collections.emptyMap(), MessageReporter.quiet());
+        RuleSet quickstart = new RuleSetLoader().warnDeprecated(false).loadFromResource("rulesets/java/quickstart.xml");
+        RuleSets ruleSets = new RuleSets(quickstart);
+        ruleSets.initializeRules(lpRegistry, MessageReporter.quiet());
+        rules = ruleSets.getAllRules();
+        applicator = RuleApplicator.build(rules);
+        documents = Corpus.JAVA.openDocuments();
+        trees = Corpus.JAVA.parse(lpRegistry, documents);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        for (TextDocument document : documents) {
+            document.close();
+        }
+        lpRegistry.close();
+    }
+
+    @Benchmark
+    public RuleApplicator index() {
+        for (RootNode tree : trees) {
+            applicator.index(tree);
+        }
+        return applicator;
+    }
+
+    @Benchmark
+    public int indexAndApply() {
+        int[] violations = {0};
+        for (RootNode tree : trees) {
+            applicator.index(tree);
+            applicator.apply(rules, violation -> violations[0]++);
+        }
+        return violations[0];
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.sourceforge.pmd.lang.LanguageProcessorRegistry;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.ast.RootNode;
+import net.sourceforge.pmd.lang.document.TextDocument;
+import net.sourceforge.pmd.lang.rule.xpath.XPathVersion;
+import net.sourceforge.pmd.lang.rule.xpath.internal.DeprecatedAttrLogger;
+import net.sourceforge.pmd.lang.rule.xpath.internal.SaxonXPathRuleQuery;
+import net.sourceforge.pmd.util.log.MessageReporter;
+
+/**
+ * Evaluates XPath queries on the Java corpus with {@link SaxonXPathRuleQuery}.
+ * Queries that can use the rule chain are evaluated on each node they
+ * visit, the others on the root of each tree, like the XPath rule does.
+ * One operation evaluates the query on all the files of the corpus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class XPathBenchmark {
+
+    @Param({
+        "//MethodDeclaration[@Name = 'next']",
+        "//MethodCall[pmd-java:matchesSig('java.util.Iterator#hasNext()')]",
+        "//ClassOrInterfaceDeclaration[count(.//MethodDeclaration) > 10]",
+        "//LocalVariableDeclaration[not(../../ForStatement)]//VariableDeclaratorId[@Name = 'it']",
+        "/CompilationUnit//Annotation[@SimpleName = 'Override']"
+    })
+    public String xpath;
+
+    private LanguageProcessorRegistry lpRegistry;
+    private List<TextDocument> documents;
+    private SaxonXPathRuleQuery query;
+    private List<Node> contextNodes;
+
+    @Setup
+    public void setup() {
+        lpRegistry = LanguageProcessorRegistry.create(LanguageRegistry.PMD, Collections.emptyMap(), MessageReporter.quiet());
+        documents = Corpus.JAVA.openDocuments();
+        List<RootNode> trees = Corpus.JAVA.parse(lpRegistry, documents);
+
+        query = new SaxonXPathRuleQuery(xpath,
+                                        XPathVersion.DEFAULT,
+                                        Collections.emptyMap(),
+                                        lpRegistry.getProcessor(Corpus.JAVA.getLanguage())
+                                                  .services().getXPathHandler(),
+                                        DeprecatedAttrLogger.noop());
+
+        List<String> visits = query.getRuleChainVisits();
+        contextNodes = new ArrayList<>();
+        for (RootNode tree : trees) {
+            if (visits.isEmpty()) {
+                contextNodes.add(tree);
+            } else {
+                contextNodes.addAll(tree.descendantsOrSelf()
+                                        .filter(it -> visits.contains(it.getXPathNodeName()))
+                                        .toList());
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        for (TextDocument document : documents) {
+            document.close();
+        }
+        lpRegistry.close();
+    }
+
+    @Benchmark
+    public void evaluate(Blackhole bh) {
+        for (Node node : contextNodes) {
+            bh.consume(query.evaluate(node));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cpd;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.sourceforge.pmd.lang.LanguageVersion;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.TextDocument;
+import net.sourceforge.pmd.lang.java.JavaLanguageModule;
+
+/**
+ * Finds duplicates with the {@link MatchAlgorithm} in a synthetic token
+ * stream. The stream is split into files of random tokens, into which
+ * copies of previous segments are inserted, so that there are duplicates
+ * to find. The generator is seeded, so the stream is the same in each run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MatchAlgorithmBenchmark {
+
+    private static final int TOKENS_PER_FILE = 5_000;
+    private static final int TOKENS_PER_LINE = 8;
+    private static final int VOCABULARY_SIZE = 400;
+    private static final int SEGMENT_LENGTH = 200;
+
+    @Param({"100000", "1000000"})
+    public int tokenCount;
+
+    /** Percentage of the segments that are copies of a previous segment. */
+    @Param("10")
+    public int duplicationPercent;
+
+    @Param("100")
+    public int minimumTileSize;
+
+    private Tokens tokens;
+    private SourceManager sourceManager;
+
+    @Setup
+    public void setup() {
+        LanguageVersion version = JavaLanguageModule.getInstance().getDefaultVersion();
+        Random random = new Random(42);
+        List<String> images = new ArrayList<>(tokenCount);
+        tokens = new Tokens();
+
+        for (int file = 0; images.size() < tokenCount; file++) {
+            FileId fileId = FileId.fromPathLikeString("Synthetic" + file + ".java");
+            try (TextDocument document = TextDocument.readOnlyString("", fileId, version);
+                 TokenFactory factory = Tokens.factoryForFile(document, tokens)) {
+                int end = Math.min(tokenCount, images.size() + TOKENS_PER_FILE);
+                int inFile = 0;
+                while (images.size() < end) {
+                    boolean copy = images.size() > SEGMENT_LENGTH && random.nextInt(100) < duplicationPercent;
+                    int from = copy ? random.nextInt(images.size() - SEGMENT_LENGTH) : 0;
+                    for (int i = 0; i < SEGMENT_LENGTH && images.size() < end; i++, inFile++) {
+                        String image = copy ? images.get(from + i) : "t" + random.nextInt(VOCABULARY_SIZE);
+                        images.add(image);
+                        int line = 1 + inFile / TOKENS_PER_LINE;
+                        int column = 1 + 4 * (inFile % TOKENS_PER_LINE);
+                        factory.recordToken(image, line, column, line, column + 3);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        sourceManager = new SourceManager(Collections.emptyList());
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        sourceManager.close();
+    }
+
+    @Benchmark
+    public List<Match> findMatches() {
+        MatchAlgorithm algorithm = new MatchAlgorithm(tokens, minimumTileSize);
+        return algorithm.findMatches(new CPDNullListener(), sourceManager);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.sourceforge.pmd.benchmarks.Corpus;
+import net.sourceforge.pmd.lang.LanguageProcessorRegistry;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.ast.Parser.ParserTask;
+import net.sourceforge.pmd.lang.ast.SemanticErrorReporter;
+import net.sourceforge.pmd.lang.document.TextDocument;
+import net.sourceforge.pmd.lang.java.JavaLanguageModule;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.java.rule.JavaSemanticFacility;
+import net.sourceforge.pmd.util.log.MessageReporter;
+
+/**
+ * Runs the semantic passes of {@link JavaAstProcessor} on the Java
+ * corpus. One operation processes all the files of the corpus. The
+ * trees are parsed again before each operation, since the passes
+ * mutate them, which is why this uses {@link Level#Invocation}.
+ *
+ * <p>With {@code eagerFacilities=NONE}, the passes that may be
+ * deferred are not run, which is what happens when no rule needs them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JavaAstProcessorBenchmark {
+
+    @Param({"ALL", "NONE"})
+    public String eagerFacilities;
+
+    private LanguageProcessorRegistry lpRegistry;
+    private JavaLanguageProcessor processor;
+    private List<TextDocument> documents;
+    private List<ASTCompilationUnit> trees;
+
+    @Setup
+    public void setup() {
+        lpRegistry = LanguageProcessorRegistry.create(LanguageRegistry.PMD, Collections.emptyMap(), MessageReporter.quiet());
+        processor = (JavaLanguageProcessor) lpRegistry.getProcessor(JavaLanguageModule.getInstance());
+        processor.setEagerFacilities("ALL".equals(eagerFacilities) ? JavaSemanticFacility.ALL
+                                                                   : JavaSemanticFacility.NONE);
+        documents = Corpus.JAVA.openDocuments();
+    }
+
+    @Setup(Level.Invocation)
+    public void parse() {
+        trees = new ArrayList<>(documents.size());
+        for (TextDocument document : documents) {
+            ParserTask task = new ParserTask(document, SemanticErrorReporter.noop(), lpRegistry);
+            trees.add(processor.getParserWithoutProcessing().parse(task));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        for (TextDocument document : documents) {
+            document.close();
+        }
+        lpRegistry.close();
+    }
+
+    @Benchmark
+    public void process(Blackhole bh) {
+        for (ASTCompilationUnit tree : trees) {
+            JavaAstProcessor.process(processor, SemanticErrorReporter.noop(), tree);
+            bh.consume(tree);
+        }
+    }
+}
@@ -7,6 +7,8 @@ package net.sourceforge.pmd.cli.commands.internal;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -21,6 +23,7 @@ import org.slf4j.LoggerFactory;
 import net.sourceforge.pmd.PMDConfiguration;
 import net.sourceforge.pmd.PmdAnalysis;
 import net.sourceforge.pmd.RulePriority;
+import net.sourceforge.pmd.benchmark.JsonTimingReportRenderer;
 import net.sourceforge.pmd.benchmark.TextTimingReportRenderer;
 import net.sourceforge.pmd.benchmark.TimeTracker;
 import net.sourceforge.pmd.benchmark.TimingReport;
@@ -86,6 +89,10 @@ public class PmdCommand extends AbstractAnalysisPmdSubcommand<PMDConfiguration>
 
     private boolean benchmark;
 
+    private Path benchmarkJsonFile;
+
+    private boolean benchmarkResources;
+
     private boolean showSuppressed;
 
     private String suppressMarker;
@@ -108,6 +115,10 @@ public class PmdCommand extends AbstractAnalysisPmdSubcommand<PMDConfiguration>
 
     private boolean noCache;
 
+    private Path baselineFile;
+
+    private Path baselineOutputFile;
+
     private boolean showProgressBar;
 
     @Option(names = { "--rulesets", "-R" },
@@ -140,6 +151,20 @@ public class PmdCommand extends AbstractAnalysisPmdSubcommand<PMDConfiguration>
         this.benchmark = benchmark;
     }
 
+    @Option(names = "--benchmark-json",
+            description = "Path to a file to which the benchmark report is written as JSON, "
+                    + "including the time spent on each file and the distribution of rule timings. Implies '--benchmark'.")
+    public void setBenchmarkJsonFile(final Path benchmarkJsonFile) {
+        this.benchmarkJsonFile = benchmarkJsonFile;
+    }
+
+    @Option(names = "--benchmark-resources",
+            description = "Also measure the CPU time and the memory allocated by each rule and processing stage "
+                    + "in the benchmark report. This slows down the analysis a bit. Implies '--benchmark'.")
+    public void setBenchmarkResources(final boolean benchmarkResources) {
+        this.benchmarkResources = benchmarkResources;
+    }
+
     @Option(names = "--show-suppressed", description = "Report should show suppressed rule violations.")
     public void setShowSuppressed(final boolean showSuppressed) {
         this.showSuppressed = showSuppressed;
@@ -228,6 +253,21 @@ public class PmdCommand extends AbstractAnalysisPmdSubcommand<PMDConfiguration>
         this.cacheLocation = cacheLocation;
     }
 
+    @Option(names = "--baseline",
+            description = "Path to a baseline of known violations, written by a previous run with '--write-baseline'. "
+                    + "Violations of the baseline are not reported. They are recognized by their rule, file and "
+                    + "source code, so they are still recognized when their line changes.")
+    public void setBaselineFile(final Path baselineFile) {
+        this.baselineFile = baselineFile;
+    }
+
+    @Option(names = "--write-baseline",
+            description = "Path to a file to which a baseline of all violations found by this run is written. "
+                    + "The baseline can be given to later runs with '--baseline'.")
+    public void setBaselineOutputFile(final Path baselineOutputFile) {
+        this.baselineOutputFile = baselineOutputFile;
+    }
+
     @Option(names = "--no-cache", description = "Explicitly disable incremental analysis. The '-cache' option is ignored if this switch is present in the command line.")
     public void setNoCache(final boolean noCache) {
         this.noCache = noCache;
@@ -281,6 +321,8 @@ public class PmdCommand extends AbstractAnalysisPmdSubcommand<PMDConfiguration>
         configuration.setFailOnViolation(failOnViolation);
         configuration.setAnalysisCacheLocation(cacheLocation != null ? cacheLocation.toString() : null);
         configuration.setIgnoreIncrementalAnalysis(noCache);
+        configuration.setBaselineFile(baselineFile);
+        configuration.setBaselineOutputFile(baselineOutputFile);
 
         if (languageVersion != null) {
             configuration.setDefaultLanguageVersions(languageVersion);
@@ -307,8 +349,8 @@ public class PmdCommand extends AbstractAnalysisPmdSubcommand<PMDConfiguration>
     @Override
     @NonNull
     protected CliExitCode doExecute(PMDConfiguration configuration) {
-        if (benchmark) {
-            TimeTracker.startGlobalTracking();
+        if (isBenchmark()) {
+            TimeTracker.startGlobalTracking(benchmarkResources);
         }
 
         final MessageReporter pmdReporter = configuration.getReporter();
@@ -365,8 +407,12 @@ public class PmdCommand extends AbstractAnalysisPmdSubcommand<PMDConfiguration>
         reporter.info(StringUtil.quoteMessageFormat(msg));
     }
 
+    private boolean isBenchmark() {
+        return benchmark || benchmarkJsonFile != null || benchmarkResources;
+    }
+
     private void finishBenchmarker(final MessageReporter pmdReporter) {
-        if (benchmark) {
+        if (isBenchmark()) {
             final TimingReport timingReport = TimeTracker.stopGlobalTracking();
 
             // TODO get specified report format from config
@@ -380,6 +426,14 @@ public class PmdCommand extends AbstractAnalysisPmdSubcommand<PMDConfiguration>
             } catch (final IOException e) {
                 pmdReporter.errorEx("Error producing benchmark report", e);
             }
+
+            if (benchmarkJsonFile != null) {
+                try (Writer writer = Files.newBufferedWriter(benchmarkJsonFile, StandardCharsets.UTF_8)) {
+                    new JsonTimingReportRenderer().render(timingReport, writer);
+                } catch (final IOException e) {
+                    pmdReporter.errorEx("Error producing benchmark report", e);
+                }
+            }
         }
     }
 
@@ -0,0 +1,14 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cli.commands.internal;
+
+import picocli.CommandLine.Command;
+
+@Command(name = "report", mixinStandardHelpOptions = true,
+    description = "Tools to process PMD reports",
+    subcommands = { ReportConvertCommand.class })
+public class ReportCommand {
+
+}
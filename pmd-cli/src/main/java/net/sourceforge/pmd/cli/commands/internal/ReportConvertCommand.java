@@ -0,0 +1,81 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cli.commands.internal;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Properties;
+
+import org.slf4j.LoggerFactory;
+
+import net.sourceforge.pmd.cli.internal.CliExitCode;
+import net.sourceforge.pmd.internal.LogMessages;
+import net.sourceforge.pmd.renderers.BinaryRenderer;
+import net.sourceforge.pmd.renderers.BinaryReportReader;
+import net.sourceforge.pmd.renderers.Renderer;
+import net.sourceforge.pmd.renderers.RendererFactory;
+import net.sourceforge.pmd.reporting.GlobalAnalysisListener;
+import net.sourceforge.pmd.util.log.internal.SimpleMessageReporter;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+@Command(name = "convert", showDefaultValues = true,
+    description = "Converts a report in the '" + BinaryRenderer.NAME + "' format to another report format")
+public class ReportConvertCommand extends AbstractPmdSubcommand {
+
+    @Option(names = { "--input", "-i" }, required = true,
+            description = "Path to a report written with the '" + BinaryRenderer.NAME + "' format.")
+    private Path input;
+
+    @Option(names = { "--format", "-f" },
+            description = "Report format.%nValid values: ${COMPLETION-CANDIDATES}%n"
+                    + "Alternatively, you can provide the fully qualified name of a custom Renderer in the classpath.",
+            defaultValue = "text", completionCandidates = SupportedReportFormatsCandidates.class)
+    private String format;
+
+    @Option(names = { "--property", "-P" }, description = "Key-value pair defining a property for the report format.")
+    private Properties properties = new Properties();
+
+    @Option(names = "--show-suppressed", description = "Report should show suppressed rule violations.")
+    private boolean showSuppressed;
+
+    @Option(names = { "--report-file", "-r" },
+            description = "Path to a file to which report output is written. "
+                + "The file is created if it does not exist. "
+                + "If this option is not specified, the report is rendered to standard output.")
+    private Path reportFile;
+
+    @Override
+    protected CliExitCode execute() {
+        final Renderer renderer = RendererFactory.createRenderer(format, properties);
+        renderer.setShowSuppressedViolations(showSuppressed);
+        renderer.setReportFile(reportFile == null ? null : reportFile.toString());
+
+        try (InputStream in = Files.newInputStream(input);
+             GlobalAnalysisListener listener = renderer.newListener()) {
+            BinaryReportReader.replay(in, listener);
+            return CliExitCode.OK;
+        } catch (final Exception e) {
+            final SimpleMessageReporter reporter = new SimpleMessageReporter(LoggerFactory.getLogger(ReportConvertCommand.class));
+            reporter.error(e, LogMessages.errorDetectedMessage(1, "report convert"));
+
+            return CliExitCode.ERROR;
+        }
+    }
+
+    /**
+     * Provides completion candidates for the report format.
+     */
+    private static final class SupportedReportFormatsCandidates implements Iterable<String> {
+
+        @Override
+        public Iterator<String> iterator() {
+            return RendererFactory.supportedRenderers().iterator();
+        }
+    }
+}
@@ -21,11 +21,13 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.LoggerFactory;
 
 import net.sourceforge.pmd.annotation.DeprecatedUntil700;
+import net.sourceforge.pmd.annotation.Experimental;
 import net.sourceforge.pmd.cache.AnalysisCache;
 import net.sourceforge.pmd.cache.FileAnalysisCache;
 import net.sourceforge.pmd.cache.NoopAnalysisCache;
 import net.sourceforge.pmd.internal.util.ClasspathClassLoader;
 import net.sourceforge.pmd.lang.Language;
+import net.sourceforge.pmd.lang.LanguageProcessorPool;
 import net.sourceforge.pmd.lang.LanguageRegistry;
 import net.sourceforge.pmd.renderers.Renderer;
 import net.sourceforge.pmd.renderers.RendererFactory;
@@ -75,6 +77,8 @@ import net.sourceforge.pmd.util.log.internal.SimpleMessageReporter;
  * {@link #getReportProperties()}</li>
  * <li>An indicator of whether to show suppressed Rule violations in Reports.
  * {@link #isShowSuppressedViolations()}</li>
+ * <li>A baseline of known violations, which are not reported. {@link #setBaselineFile(Path)}.
+ * A new baseline can be written with {@link #setBaselineOutputFile(Path)}.</li>
  * </ul>
  *
  * <h3>Language configuration </h3>
@@ -113,10 +117,14 @@ public class PMDConfiguration extends AbstractConfiguration {
     private Properties reportProperties = new Properties();
     private boolean showSuppressedViolations = false;
     private boolean failOnViolation = true;
+    private Path baselineFile;
+    private Path baselineOutputFile;
 
     private AnalysisCache analysisCache = new NoopAnalysisCache();
     private boolean ignoreIncrementalAnalysis;
 
+    private LanguageProcessorPool languageProcessorPool;
+
     public PMDConfiguration() {
         this(DEFAULT_REGISTRY);
     }
@@ -500,6 +508,27 @@ public class PMDConfiguration extends AbstractConfiguration {
         this.analysisCache = cache == null ? new NoopAnalysisCache() : cache;
     }
 
+    /**
+     * Returns the pool of language processors that analyses with this
+     * configuration use, or null if each analysis creates its own processors.
+     */
+    public @Nullable LanguageProcessorPool getLanguageProcessorPool() {
+        return languageProcessorPool;
+    }
+
+    /**
+     * Sets a pool of language processors, that is shared by the analyses
+     * with this configuration. This keeps the caches of the processors
+     * warm between analyses, eg the Java processor does not reload the
+     * symbols of the auxclasspath. The pool is not closed by the analysis.
+     * If null, each analysis creates its own processors.
+     *
+     * @param pool The pool to use
+     */
+    public void setLanguageProcessorPool(@Nullable LanguageProcessorPool pool) {
+        this.languageProcessorPool = pool;
+    }
+
     /**
      * Sets the location of the analysis cache to be used. This will automatically configure
      * and appropriate AnalysisCache implementation.
@@ -576,4 +605,49 @@ public class PMDConfiguration extends AbstractConfiguration {
     public void setReportFile(Path reportFile) {
         this.reportFile = reportFile;
     }
+
+    /**
+     * Get the baseline of known violations, which are not reported.
+     *
+     * @return The baseline file, or null if all violations are reported
+     */
+    @Experimental
+    public Path getBaselineFile() {
+        return baselineFile;
+    }
+
+    /**
+     * Set the baseline of known violations, which are not reported.
+     * The file must have been written by a previous analysis, see
+     * {@link #setBaselineOutputFile(Path)}.
+     *
+     * @param baselineFile the file to set, null to report all violations
+     */
+    @Experimental
+    public void setBaselineFile(Path baselineFile) {
+        this.baselineFile = baselineFile;
+    }
+
+    /**
+     * Get the file to which the baseline of the violations of this
+     * analysis is written.
+     *
+     * @return The baseline output file, or null
+     */
+    @Experimental
+    public Path getBaselineOutputFile() {
+        return baselineOutputFile;
+    }
+
+    /**
+     * Set the file to which the baseline of the violations of this
+     * analysis is written. All violations are written, including those
+     * filtered by the {@linkplain #setBaselineFile(Path) current baseline}.
+     *
+     * @param baselineOutputFile the file to set, null to write no baseline
+     */
+    @Experimental
+    public void setBaselineOutputFile(Path baselineOutputFile) {
+        this.baselineOutputFile = baselineOutputFile;
+    }
 }
@@ -34,6 +34,7 @@ import net.sourceforge.pmd.internal.util.IOUtil;
 import net.sourceforge.pmd.lang.JvmLanguagePropertyBundle;
 import net.sourceforge.pmd.lang.Language;
 import net.sourceforge.pmd.lang.LanguageProcessor.AnalysisTask;
+import net.sourceforge.pmd.lang.LanguageProcessorPool;
 import net.sourceforge.pmd.lang.LanguageProcessorRegistry;
 import net.sourceforge.pmd.lang.LanguageProcessorRegistry.LanguageTerminationException;
 import net.sourceforge.pmd.lang.LanguagePropertyBundle;
@@ -43,6 +44,7 @@ import net.sourceforge.pmd.lang.LanguageVersionDiscoverer;
 import net.sourceforge.pmd.lang.document.FileCollector;
 import net.sourceforge.pmd.lang.document.TextFile;
 import net.sourceforge.pmd.renderers.Renderer;
+import net.sourceforge.pmd.reporting.Baseline;
 import net.sourceforge.pmd.reporting.ConfigurableFileNameRenderer;
 import net.sourceforge.pmd.reporting.FileAnalysisListener;
 import net.sourceforge.pmd.reporting.GlobalAnalysisListener;
@@ -381,10 +383,24 @@ public final class PmdAnalysis implements AutoCloseable {
                                                                             rulesets,
                                                                             configuration.getClassLoader(),
                                                                             textFiles);
-            listener = GlobalAnalysisListener.tee(listOf(createComposedRendererListener(renderers),
-                                                         GlobalAnalysisListener.tee(listeners),
-                                                         GlobalAnalysisListener.tee(extraListeners),
-                                                         cacheListener));
+            // load it first, renderers are started when their listener is created
+            Baseline baseline = configuration.getBaselineFile() == null
+                                ? null
+                                : Baseline.load(configuration.getBaselineFile());
+            GlobalAnalysisListener reportingListener =
+                GlobalAnalysisListener.tee(listOf(createComposedRendererListener(renderers),
+                                                  GlobalAnalysisListener.tee(listeners),
+                                                  GlobalAnalysisListener.tee(extraListeners)));
+            if (baseline != null) {
+                // drop known violations before they reach renderers
+                reportingListener = baseline.filter(reportingListener);
+            }
+            GlobalAnalysisListener baselineWriter = configuration.getBaselineOutputFile() == null
+                                                    ? GlobalAnalysisListener.noop()
+                                                    : Baseline.writer(configuration.getBaselineOutputFile());
+            // the baseline listeners come first, so that they see violations before
+            // a report materializes them, and can fingerprint them with the text in memory
+            listener = GlobalAnalysisListener.tee(listOf(baselineWriter, reportingListener, cacheListener));
             
             // Initialize listeners
             try (ListenerInitializer initializer = listener.initializer()) {
@@ -407,12 +423,7 @@ public final class PmdAnalysis implements AutoCloseable {
 
             encourageToUseIncrementalAnalysis(configuration);
 
-            try (LanguageProcessorRegistry lpRegistry = LanguageProcessorRegistry.create(
-                // only start the applicable languages (and dependencies)
-                new LanguageRegistry(getApplicableLanguages(true)),
-                langProperties,
-                reporter
-            )) {
+            try (LanguageProcessorRegistry lpRegistry = createProcessors()) {
                 // Note the analysis task is shared: all processors see
                 // the same file list, which may contain files for other
                 // languages.
@@ -453,6 +464,16 @@ public final class PmdAnalysis implements AutoCloseable {
     }
 
 
+    private LanguageProcessorRegistry createProcessors() {
+        // only start the applicable languages (and dependencies)
+        LanguageRegistry languages = new LanguageRegistry(getApplicableLanguages(true));
+        LanguageProcessorPool pool = configuration.getLanguageProcessorPool();
+        if (pool != null) {
+            return pool.acquire(languages, langProperties, reporter);
+        }
+        return LanguageProcessorRegistry.create(languages, langProperties, reporter);
+    }
+
     private GlobalAnalysisListener createComposedRendererListener(List<Renderer> renderers) throws Exception {
         if (renderers.isEmpty()) {
             return GlobalAnalysisListener.noop();
@@ -534,6 +555,12 @@ public final class PmdAnalysis implements AutoCloseable {
     }
 
 
+    // the pool closes the classloaders of its processors
+    private boolean isRetainedByPool(ClassLoader classLoader) {
+        LanguageProcessorPool pool = configuration.getLanguageProcessorPool();
+        return pool != null && pool.isRetained(classLoader);
+    }
+
     public MessageReporter getReporter() {
         return reporter;
     }
@@ -554,7 +581,7 @@ public final class PmdAnalysis implements AutoCloseable {
          * Maven + Jacoco provide us with a cloaseable classloader that if closed
          * will throw a ClassNotFoundException.
          */
-        if (configuration.getClassLoader() instanceof ClasspathClassLoader) {
+        if (configuration.getClassLoader() instanceof ClasspathClassLoader && !isRetainedByPool(configuration.getClassLoader())) {
             IOUtil.tryCloseClassLoader(configuration.getClassLoader());
         }
     }
@@ -20,9 +20,11 @@ import net.sourceforge.pmd.annotation.Experimental;
 import net.sourceforge.pmd.annotation.InternalApi;
 import net.sourceforge.pmd.lang.document.FileId;
 import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.lang.rule.internal.DeferredRuleViolation;
 import net.sourceforge.pmd.renderers.AbstractAccumulatingRenderer;
 import net.sourceforge.pmd.reporting.FileAnalysisListener;
 import net.sourceforge.pmd.reporting.GlobalAnalysisListener;
+import net.sourceforge.pmd.reporting.internal.SpillingViolationList;
 import net.sourceforge.pmd.util.BaseResultProducingCloseable;
 
 /**
@@ -46,15 +48,20 @@ import net.sourceforge.pmd.util.BaseResultProducingCloseable;
 public final class Report {
     // todo move to package reporting
 
-    private final List<RuleViolation> violations = synchronizedList(new ArrayList<>());
+    private final List<RuleViolation> violations;
     private final List<SuppressedViolation> suppressedRuleViolations = synchronizedList(new ArrayList<>());
     private final List<ProcessingError> errors = synchronizedList(new ArrayList<>());
     private final List<ConfigurationError> configErrors = synchronizedList(new ArrayList<>());
 
     @DeprecatedUntil700
     @InternalApi
-    public Report() { // NOPMD - UnnecessaryConstructor
+    public Report() {
         // TODO: should be package-private, you have to use a listener to build a report.
+        this(synchronizedList(new ArrayList<>()));
+    }
+
+    private Report(List<RuleViolation> violations) {
+        this.violations = violations;
     }
 
     /**
@@ -188,6 +195,11 @@ public final class Report {
     @Deprecated
     @InternalApi
     public void addRuleViolation(RuleViolation violation) {
+        if (violations instanceof SpillingViolationList) {
+            // sorted when it is iterated
+            violations.add(violation);
+            return;
+        }
         synchronized (violations) {
             // note that this binary search is inefficient as we usually
             // report violations file by file.
@@ -307,13 +319,25 @@ public final class Report {
     public static final class ReportBuilderListener extends BaseResultProducingCloseable<Report> implements FileAnalysisListener {
 
         private final Report report;
+        private final boolean keepSuppressed;
 
         public ReportBuilderListener() {
-            this(new Report());
+            this(new Report(), true);
         }
 
-        ReportBuilderListener(Report report) {
+        ReportBuilderListener(Report report, boolean keepSuppressed) {
             this.report = report;
+            this.keepSuppressed = keepSuppressed;
+        }
+
+        /**
+         * Returns a listener that ignores suppressed violations if
+         * {@code keepSuppressed} is false, instead of formatting them
+         * and adding them to the report.
+         */
+        @InternalApi
+        public static ReportBuilderListener create(boolean keepSuppressed) {
+            return new ReportBuilderListener(new Report(), keepSuppressed);
         }
 
         @Override
@@ -323,12 +347,19 @@ public final class Report {
 
         @Override
         public void onRuleViolation(RuleViolation violation) {
-            report.addRuleViolation(violation);
+            // the report outlives the AST of the file
+            report.addRuleViolation(DeferredRuleViolation.materialize(violation));
         }
 
         @Override
         public void onSuppressedRuleViolation(SuppressedViolation violation) {
-            report.addSuppressedViolation(violation);
+            if (!keepSuppressed) {
+                // they won't be shown, so they are neither formatted nor kept
+                return;
+            }
+            RuleViolation materialized = DeferredRuleViolation.materialize(violation.getRuleViolation());
+            report.addSuppressedViolation(new SuppressedViolation(materialized, violation.getSuppressor(),
+                                                                  violation.getUserMessage()));
         }
 
         @Override
@@ -348,12 +379,32 @@ public final class Report {
      */
     public static final class GlobalReportBuilderListener extends BaseResultProducingCloseable<Report> implements GlobalAnalysisListener {
 
-        private final Report report = new Report();
+        private final Report report;
+        private final boolean keepSuppressed;
+
+        public GlobalReportBuilderListener() {
+            this.report = new Report();
+            this.keepSuppressed = true;
+        }
+
+        /**
+         * Creates a listener whose report stores its violations in the
+         * given list, which keeps only part of them in memory. The
+         * violations of the report can then only be iterated efficiently.
+         * The caller is responsible for closing the list once the report
+         * is not used anymore. If {@code keepSuppressed} is false, the
+         * suppressed violations are not added to the report.
+         */
+        @InternalApi
+        public GlobalReportBuilderListener(SpillingViolationList violations, boolean keepSuppressed) {
+            this.report = new Report(violations);
+            this.keepSuppressed = keepSuppressed;
+        }
 
         @Override
         public FileAnalysisListener startFileAnalysis(TextFile file) {
             // note that the report is shared, but Report is now thread-safe
-            return new ReportBuilderListener(this.report);
+            return new ReportBuilderListener(this.report, keepSuppressed);
         }
 
         @Override
@@ -8,11 +8,8 @@ import static net.sourceforge.pmd.util.CollectionUtil.listOf;
 
 import java.text.MessageFormat;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 
-import org.apache.commons.lang3.StringUtils;
-import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import net.sourceforge.pmd.Report.SuppressedViolation;
@@ -22,10 +19,8 @@ import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.document.FileLocation;
 import net.sourceforge.pmd.lang.document.TextRange2d;
 import net.sourceforge.pmd.lang.rule.AbstractRule;
-import net.sourceforge.pmd.lang.rule.ParametricRuleViolation;
-import net.sourceforge.pmd.properties.PropertyDescriptor;
+import net.sourceforge.pmd.lang.rule.internal.DeferredRuleViolation;
 import net.sourceforge.pmd.reporting.FileAnalysisListener;
-import net.sourceforge.pmd.reporting.ViolationDecorator;
 
 /**
  * The API for rules to report violations or errors during analysis.
@@ -144,9 +139,10 @@ public final class RuleContext {
             location = FileLocation.range(location.getFileId(), TextRange2d.range2d(beginLine, 1, endLine, 1));
         }
 
-        final Map<String, String> extraVariables = ViolationDecorator.apply(handler.getViolationDecorator(), node);
-        final String description = makeMessage(message, formatArgs, extraVariables);
-        final RuleViolation violation = new ParametricRuleViolation(rule, location, description, extraVariables);
+        // the message is only formatted when someone asks for it, which
+        // is never the case for most suppressed violations
+        final RuleViolation violation =
+            new DeferredRuleViolation(rule, location, node, handler.getViolationDecorator(), message, formatArgs);
 
         final SuppressedViolation suppressed = suppressOrNull(node, violation, handler);
 
@@ -176,46 +172,6 @@ public final class RuleContext {
         listener.onRuleViolation(rv);
     }
 
-    private String makeMessage(@NonNull String message, Object[] args, Map<String, String> extraVars) {
-        // Escape PMD specific variable message format, specifically the {
-        // in the ${, so MessageFormat doesn't bitch.
-        final String escapedMessage = StringUtils.replace(message, "${", "$'{'");
-        String formatted = MessageFormat.format(escapedMessage, args);
-        return expandVariables(formatted, extraVars);
-    }
-
-
-    private String expandVariables(String message, Map<String, String> extraVars) {
-
-        if (!message.contains("${")) {
-            return message;
-        }
-
-        StringBuilder buf = new StringBuilder(message);
-        int startIndex = -1;
-        while ((startIndex = buf.indexOf("${", startIndex + 1)) >= 0) {
-            final int endIndex = buf.indexOf("}", startIndex);
-            if (endIndex >= 0) {
-                final String name = buf.substring(startIndex + 2, endIndex);
-                String variableValue = getVariableValue(name, extraVars);
-                if (variableValue != null) {
-                    buf.replace(startIndex, endIndex + 1, variableValue);
-                }
-            }
-        }
-        return buf.toString();
-    }
-
-    private String getVariableValue(String name, Map<String, String> extraVars) {
-        String value = extraVars.get(name);
-        if (value != null) {
-            return value;
-        }
-        final PropertyDescriptor<?> propertyDescriptor = rule.getPropertyDescriptor(name);
-        return propertyDescriptor == null ? null : String.valueOf(rule.getProperty(propertyDescriptor));
-    }
-
-
     /**
      * Create a new RuleContext.
      *
@@ -16,9 +16,11 @@ import net.sourceforge.pmd.annotation.InternalApi;
 import net.sourceforge.pmd.benchmark.TimeTracker;
 import net.sourceforge.pmd.benchmark.TimedOperation;
 import net.sourceforge.pmd.benchmark.TimedOperationCategory;
+import net.sourceforge.pmd.lang.LanguageProcessor;
 import net.sourceforge.pmd.lang.LanguageProcessorRegistry;
 import net.sourceforge.pmd.lang.ast.RootNode;
 import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.lang.rule.AbstractRule;
 import net.sourceforge.pmd.lang.rule.internal.RuleApplicator;
 import net.sourceforge.pmd.reporting.FileAnalysisListener;
 import net.sourceforge.pmd.util.log.MessageReporter;
@@ -70,7 +72,10 @@ public class RuleSets {
             for (Iterator<Rule> iterator = rset.getRules().iterator(); iterator.hasNext();) {
                 Rule rule = iterator.next();
                 try {
-                    rule.initialize(lpReg.getProcessor(rule.getLanguage()));
+                    LanguageProcessor processor = lpReg.getProcessor(rule.getLanguage());
+                    rule.initialize(processor);
+                    // compile and validate the violationSuppressXPath once
+                    AbstractRule.getViolationSuppressXPathQuery(rule, processor.services().getXPathHandler());
                 } catch (Exception e) {
                     reporter.errorEx(
                         "Exception while initializing rule " + rule.getName() + ", the rule will not be run", e);
@@ -15,8 +15,8 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 import net.sourceforge.pmd.Report.SuppressedViolation;
 import net.sourceforge.pmd.lang.ast.AstInfo;
 import net.sourceforge.pmd.lang.ast.Node;
-import net.sourceforge.pmd.lang.rule.xpath.XPathVersion;
-import net.sourceforge.pmd.lang.rule.xpath.internal.DeprecatedAttrLogger;
+import net.sourceforge.pmd.lang.rule.AbstractRule;
+import net.sourceforge.pmd.lang.rule.xpath.impl.XPathHandler;
 import net.sourceforge.pmd.lang.rule.xpath.internal.SaxonXPathRuleQuery;
 
 /**
@@ -62,22 +62,11 @@ public interface ViolationSuppressor {
         public @Nullable SuppressedViolation suppressOrNull(RuleViolation rv, @NonNull Node node) {
             // todo this should not be implemented via a rule property
             //  because the parsed xpath expression should be stored, not a random string
-            //  this needs to be checked to be a valid xpath expression in the ruleset,
-            //  not at the time it is evaluated, and also parsed by the XPath parser only once
-            Rule rule = rv.getRule();
-            Optional<String> xpath = rule.getProperty(Rule.VIOLATION_SUPPRESS_XPATH_DESCRIPTOR);
-            if (!xpath.isPresent()) {
-                return null;
-            }
-            SaxonXPathRuleQuery rq = new SaxonXPathRuleQuery(
-                xpath.get(),
-                XPathVersion.DEFAULT,
-                rule.getPropertiesByPropertyDescriptor(),
-                node.getAstInfo().getLanguageProcessor().services().getXPathHandler(),
-                DeprecatedAttrLogger.createForSuppression(rv.getRule())
-            );
-            if (!rq.evaluate(node).isEmpty()) {
-                return new SuppressedViolation(rv, this, xpath.get());
+            XPathHandler xpathHandler = node.getAstInfo().getLanguageProcessor().services().getXPathHandler();
+            // compiled once per rule, and validated when the rule is initialized
+            SaxonXPathRuleQuery rq = AbstractRule.getViolationSuppressXPathQuery(rv.getRule(), xpathHandler);
+            if (rq != null && !rq.evaluate(node).isEmpty()) {
+                return new SuppressedViolation(rv, this, rq.getXpathExpression());
             }
             return null;
         }
@@ -0,0 +1,48 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark;
+
+/**
+ * Time spent on a single file.
+ *
+ * @see TimeTracker#startFileProcessing(String)
+ */
+public final class FileTiming {
+
+    private final String fileName;
+    private long totalNanos;
+    private long parseNanos;
+
+    /* package */ FileTiming(final String fileName) {
+        this.fileName = fileName;
+    }
+
+    /* package */ void addParseNanos(final long nanos) {
+        parseNanos += nanos;
+    }
+
+    /* package */ void setTotalNanos(final long nanos) {
+        totalNanos = nanos;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Returns the time spent processing the file, including parsing
+     * and applying rules.
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Returns the time spent parsing the file.
+     */
+    public long getParseNanos() {
+        return parseNanos;
+    }
+}
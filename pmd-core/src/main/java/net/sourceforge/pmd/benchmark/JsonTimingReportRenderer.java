@@ -0,0 +1,114 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
+
+import net.sourceforge.pmd.benchmark.TimeTracker.CacheStatistics;
+import net.sourceforge.pmd.benchmark.TimeTracker.TimedResult;
+
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * A JSON renderer for {@link TimingReport}, meant to be processed by other
+ * tools. Besides the totals of each operation, it contains the percentiles
+ * of their durations, and the time spent on each file. All durations are
+ * in nanoseconds.
+ */
+public class JsonTimingReportRenderer implements TimingReportRenderer {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    @Override
+    public void render(final TimingReport report, final Writer writer) throws IOException {
+        // don't close the JsonWriter, that would close the writer
+        final JsonWriter json = new JsonWriter(writer);
+        json.setIndent("  ");
+
+        json.beginObject();
+        json.name("wallClockMillis").value(report.getWallClockMillis());
+        json.name("resourceUsageMeasured").value(report.isResourceUsageMeasured());
+
+        json.name("operations").beginArray();
+        for (final TimedOperationCategory category : TimedOperationCategory.values()) {
+            final TimedResult unlabeled = report.getUnlabeledMeasurements(category);
+            if (unlabeled != null) {
+                renderOperation(json, category, null, unlabeled, report.getUnlabeledHistogram(category),
+                                report.isResourceUsageMeasured());
+            }
+            final Map<String, TimedResult> labeled = new TreeMap<>(report.getLabeledMeasurements(category));
+            final Map<String, LatencyHistogram> histograms = report.getLabeledHistograms(category);
+            for (final Map.Entry<String, TimedResult> entry : labeled.entrySet()) {
+                renderOperation(json, category, entry.getKey(), entry.getValue(), histograms.get(entry.getKey()),
+                                report.isResourceUsageMeasured());
+            }
+        }
+        json.endArray();
+
+        json.name("files").beginArray();
+        for (final FileTiming file : report.getFileTimings()) {
+            json.beginObject();
+            json.name("file").value(file.getFileName());
+            json.name("totalNanos").value(file.getTotalNanos());
+            json.name("parseNanos").value(file.getParseNanos());
+            json.endObject();
+        }
+        json.endArray();
+
+        json.name("caches").beginArray();
+        for (final Map.Entry<String, CacheStatistics> entry : new TreeMap<>(report.getCacheStatistics()).entrySet()) {
+            json.beginObject();
+            json.name("label").value(entry.getKey());
+            json.name("hits").value(entry.getValue().hits.sum());
+            json.name("misses").value(entry.getValue().misses.sum());
+            json.endObject();
+        }
+        json.endArray();
+
+        json.endObject();
+        json.flush();
+    }
+
+    private void renderOperation(final JsonWriter json, final TimedOperationCategory category, final String label,
+                                 final TimedResult result, final LatencyHistogram histogram,
+                                 final boolean resourcesMeasured) throws IOException {
+        json.beginObject();
+        json.name("category").value(category.name());
+        if (label != null) {
+            json.name("label").value(label);
+        }
+        json.name("totalNanos").value(result.totalTimeNanos.get());
+        json.name("selfNanos").value(result.selfTimeNanos.get());
+        json.name("calls").value(result.callCount.get());
+        json.name("counter").value(result.extraDataCounter.get());
+        if (resourcesMeasured) {
+            json.name("totalCpuNanos").value(result.totalCpuNanos.get());
+            json.name("selfCpuNanos").value(result.selfCpuNanos.get());
+            json.name("totalAllocatedBytes").value(result.totalAllocatedBytes.get());
+            json.name("selfAllocatedBytes").value(result.selfAllocatedBytes.get());
+        }
+
+        if (histogram != null) {
+            json.name("latency").beginObject();
+            json.name("count").value(histogram.getCount());
+            for (final double percentile : PERCENTILES) {
+                json.name("p" + formatPercentile(percentile)).value(histogram.getValueAtPercentile(percentile));
+            }
+            json.name("max").value(histogram.getMaxNanos());
+            json.endObject();
+        }
+        json.endObject();
+    }
+
+    private static String formatPercentile(final double percentile) {
+        // 50 -> "50", 99.9 -> "99_9"
+        return percentile == Math.rint(percentile)
+               ? String.valueOf((long) percentile)
+               : String.valueOf(percentile).replace('.', '_');
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark;
+
+/**
+ * A histogram of durations in nanoseconds, with logarithmic buckets.
+ * Each power of two is split into {@value #SUB_BUCKETS} buckets, so that
+ * percentiles are precise to 12.5%, using constant memory whatever the
+ * number of recorded values. Durations over {@code 2^}{@value #MAX_MAGNITUDE}
+ * nanoseconds (about 18 minutes) all fall into the last bucket.
+ *
+ * <p>Histograms are not thread-safe. The {@link TimeTracker} records
+ * into one histogram per thread, and merges them at the end.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_MAGNITUDE = 40;
+    private static final int NUM_BUCKETS = (MAX_MAGNITUDE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + 1;
+
+    private final long[] counts = new long[NUM_BUCKETS];
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+
+    /* package */ void record(final long nanos) {
+        final long value = Math.max(nanos, 0);
+        counts[bucketIndex(value)]++;
+        count++;
+        totalNanos += value;
+        maxNanos = Math.max(maxNanos, value);
+    }
+
+    /* package */ void merge(final LatencyHistogram other) {
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        totalNanos += other.totalNanos;
+        maxNanos = Math.max(maxNanos, other.maxNanos);
+    }
+
+    /**
+     * Returns the number of recorded durations.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the sum of the recorded durations.
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Returns the longest recorded duration, exactly.
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * Returns a duration such that the given percentage of recorded
+     * durations are shorter or equal. This is the upper bound of the
+     * bucket the percentile falls into, so it may overestimate it by
+     * 12.5%, but is never greater than {@link #getMaxNanos()}.
+     *
+     * @param percentile A percentage, between 0 and 100
+     */
+    public long getValueAtPercentile(final double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    private static int bucketIndex(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int magnitude = Math.min(63 - Long.numberOfLeadingZeros(value), MAX_MAGNITUDE);
+        if (magnitude == MAX_MAGNITUDE) {
+            return NUM_BUCKETS - 1;
+        }
+        final int subBucket = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long bucketUpperBound(final int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        } else if (index == NUM_BUCKETS - 1) {
+            return Long.MAX_VALUE;
+        }
+        final int magnitude = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        final int subBucket = index % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + subBucket + 1) << (magnitude - SUB_BUCKET_BITS)) - 1;
+    }
+}
@@ -8,14 +8,18 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.Writer;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.TreeSet;
 
 import org.apache.commons.lang3.StringUtils;
 
+import net.sourceforge.pmd.benchmark.TimeTracker.CacheStatistics;
 import net.sourceforge.pmd.benchmark.TimeTracker.TimedResult;
 
 /**
@@ -26,19 +30,30 @@ public class TextTimingReportRenderer implements TimingReportRenderer {
 
     private static final String TIME_FORMAT = "{0,number,0.0000}";
     private static final String CUSTOM_COUNTER_FORMAT = "{0,number,###,###,###}";
+    private static final String RATIO_FORMAT = "{0,number,0.00%}";
+    private static final String MILLIS_FORMAT = "{0,number,0.000}";
+    private static final String MEGABYTES_FORMAT = "{0,number,0.0}";
+
+    private static final int TOP_N = 10;
 
     private static final int LABEL_COLUMN_WIDTH = 50;
     private static final int TIME_COLUMN_WIDTH = 12;
     private static final int SELF_TIME_COLUMN_WIDTH = 17;
     private static final int CALL_COLUMN_WIDTH = 9;
     private static final int COUNTER_COLUMN_WIDTH = 12;
+    private static final int CPU_COLUMN_WIDTH = 17;
+    private static final int ALLOCATION_COLUMN_WIDTH = 17;
 
     private static final int COLUMNS = LABEL_COLUMN_WIDTH + TIME_COLUMN_WIDTH
             + SELF_TIME_COLUMN_WIDTH + CALL_COLUMN_WIDTH + COUNTER_COLUMN_WIDTH;
 
+    // whether the report being rendered has CPU and allocation columns
+    private boolean showResources;
+
     @Override
     public void render(final TimingReport report, final Writer writer0) throws IOException {
         PrintWriter writer = new PrintWriter(writer0);
+        showResources = report.isResourceUsageMeasured();
         for (final TimedOperationCategory category : TimedOperationCategory.values()) {
             final Map<String, TimedResult> labeledMeasurements = report.getLabeledMeasurements(category);
             if (!labeledMeasurements.isEmpty()) {
@@ -46,6 +61,21 @@ public class TextTimingReportRenderer implements TimingReportRenderer {
             }
         }
 
+        final Map<String, CacheStatistics> cacheStatistics = report.getCacheStatistics();
+        if (!cacheStatistics.isEmpty()) {
+            renderCacheStatistics(cacheStatistics, writer);
+        }
+
+        final List<FileTiming> fileTimings = report.getFileTimings();
+        if (!fileTimings.isEmpty()) {
+            renderSlowestFiles(fileTimings, writer);
+        }
+
+        final Map<String, LatencyHistogram> ruleHistograms = report.getLabeledHistograms(TimedOperationCategory.RULE);
+        if (!ruleHistograms.isEmpty()) {
+            renderSlowestRules(ruleHistograms, writer);
+        }
+
         renderHeader("Summary", writer);
 
         for (final TimedOperationCategory category : TimedOperationCategory.values()) {
@@ -76,6 +106,15 @@ public class TextTimingReportRenderer implements TimingReportRenderer {
         final String selfTime = MessageFormat.format(TIME_FORMAT, timedResult.selfTimeNanos.get() / 1000000000.0);
         writer.write(StringUtils.leftPad(selfTime, SELF_TIME_COLUMN_WIDTH));
 
+        if (showResources) {
+            final String selfCpu = MessageFormat.format(TIME_FORMAT, timedResult.selfCpuNanos.get() / 1000000000.0);
+            writer.write(StringUtils.leftPad(selfCpu, CPU_COLUMN_WIDTH));
+
+            final String selfAllocated = MessageFormat.format(MEGABYTES_FORMAT,
+                                                              timedResult.selfAllocatedBytes.get() / (1024.0 * 1024.0));
+            writer.write(StringUtils.leftPad(selfAllocated, ALLOCATION_COLUMN_WIDTH));
+        }
+
         if (timedResult.callCount.get() > 0) {
             final String callCount = MessageFormat.format(CUSTOM_COUNTER_FORMAT, timedResult.callCount.get());
             writer.write(StringUtils.leftPad(callCount, CALL_COLUMN_WIDTH));
@@ -106,8 +145,101 @@ public class TextTimingReportRenderer implements TimingReportRenderer {
         writer.println();
     }
 
+    private void renderCacheStatistics(final Map<String, CacheStatistics> cacheStatistics,
+            final PrintWriter writer) throws IOException {
+        renderRuler("Caches", writer);
+
+        writer.write(StringUtils.rightPad("Label", LABEL_COLUMN_WIDTH));
+        writer.write(StringUtils.leftPad("Hits", TIME_COLUMN_WIDTH));
+        writer.write(StringUtils.leftPad("Misses", SELF_TIME_COLUMN_WIDTH));
+        writer.write(StringUtils.leftPad("Hit ratio", CALL_COLUMN_WIDTH + COUNTER_COLUMN_WIDTH));
+        writer.println();
+        writer.println();
+
+        for (final Map.Entry<String, CacheStatistics> entry : new TreeMap<>(cacheStatistics).entrySet()) {
+            final CacheStatistics stats = entry.getValue();
+            writer.write(StringUtils.rightPad(entry.getKey(), LABEL_COLUMN_WIDTH));
+            writer.write(StringUtils.leftPad(MessageFormat.format(CUSTOM_COUNTER_FORMAT, stats.hits.sum()), TIME_COLUMN_WIDTH));
+            writer.write(StringUtils.leftPad(MessageFormat.format(CUSTOM_COUNTER_FORMAT, stats.misses.sum()), SELF_TIME_COLUMN_WIDTH));
+            writer.write(StringUtils.leftPad(MessageFormat.format(RATIO_FORMAT, stats.getHitRatio()), CALL_COLUMN_WIDTH + COUNTER_COLUMN_WIDTH));
+            writer.println();
+        }
+        writer.println();
+    }
+
+    private void renderSlowestFiles(final List<FileTiming> fileTimings, final PrintWriter writer) throws IOException {
+        renderRuler("Slowest Files", writer);
+
+        writer.write(StringUtils.rightPad("Label", LABEL_COLUMN_WIDTH));
+        writer.write(StringUtils.leftPad("Time (secs)", TIME_COLUMN_WIDTH));
+        writer.write(StringUtils.leftPad("Parse Time (secs)", SELF_TIME_COLUMN_WIDTH + 1));
+        writer.println();
+        writer.println();
+
+        // file timings are sorted, slowest first
+        for (final FileTiming file : fileTimings.subList(0, Math.min(TOP_N, fileTimings.size()))) {
+            final String fileName = StringUtils.abbreviateMiddle(file.getFileName(), "...", LABEL_COLUMN_WIDTH - 1);
+            writer.write(StringUtils.rightPad(fileName, LABEL_COLUMN_WIDTH));
+            final String time = MessageFormat.format(TIME_FORMAT, file.getTotalNanos() / 1000000000.0);
+            writer.write(StringUtils.leftPad(time, TIME_COLUMN_WIDTH));
+            final String parseTime = MessageFormat.format(TIME_FORMAT, file.getParseNanos() / 1000000000.0);
+            writer.write(StringUtils.leftPad(parseTime, SELF_TIME_COLUMN_WIDTH + 1));
+            writer.println();
+        }
+        writer.println();
+    }
+
+    private void renderSlowestRules(final Map<String, LatencyHistogram> ruleHistograms,
+            final PrintWriter writer) throws IOException {
+        renderRuler("Slowest Rules (time per file)", writer);
+
+        writer.write(StringUtils.rightPad("Label", LABEL_COLUMN_WIDTH));
+        writer.write(StringUtils.leftPad("Median (ms)", TIME_COLUMN_WIDTH));
+        writer.write(StringUtils.leftPad("99th pct (ms)", SELF_TIME_COLUMN_WIDTH));
+        writer.write(StringUtils.leftPad("Max (ms)", CALL_COLUMN_WIDTH + COUNTER_COLUMN_WIDTH));
+        writer.println();
+        writer.println();
+
+        // a rule that is slow on a few files has a high max, but a low median
+        final List<Entry<String, LatencyHistogram>> slowest = new ArrayList<>(ruleHistograms.entrySet());
+        slowest.sort(Comparator.comparingLong((Entry<String, LatencyHistogram> e) -> e.getValue().getMaxNanos())
+                               .reversed());
+        for (final Entry<String, LatencyHistogram> entry : slowest.subList(0, Math.min(TOP_N, slowest.size()))) {
+            final LatencyHistogram histogram = entry.getValue();
+            writer.write(StringUtils.rightPad(entry.getKey(), LABEL_COLUMN_WIDTH));
+            writer.write(StringUtils.leftPad(formatMillis(histogram.getValueAtPercentile(50)), TIME_COLUMN_WIDTH));
+            writer.write(StringUtils.leftPad(formatMillis(histogram.getValueAtPercentile(99)), SELF_TIME_COLUMN_WIDTH));
+            writer.write(StringUtils.leftPad(formatMillis(histogram.getMaxNanos()),
+                                             CALL_COLUMN_WIDTH + COUNTER_COLUMN_WIDTH));
+            writer.println();
+        }
+        writer.println();
+    }
+
+    private static String formatMillis(final long nanos) {
+        return MessageFormat.format(MILLIS_FORMAT, nanos / 1000000.0);
+    }
+
     private void renderHeader(final String displayName, final PrintWriter writer) throws IOException {
-        final StringBuilder sb = new StringBuilder(COLUMNS)
+        renderRuler(displayName, writer);
+
+        // Write table titles
+        writer.write(StringUtils.rightPad("Label", LABEL_COLUMN_WIDTH));
+        writer.write(StringUtils.leftPad("Time (secs)", TIME_COLUMN_WIDTH));
+        writer.write(StringUtils.leftPad("Self Time (secs)", SELF_TIME_COLUMN_WIDTH));
+        if (showResources) {
+            writer.write(StringUtils.leftPad("Self CPU (secs)", CPU_COLUMN_WIDTH));
+            writer.write(StringUtils.leftPad("Self Alloc (MB)", ALLOCATION_COLUMN_WIDTH));
+        }
+        writer.write(StringUtils.leftPad("# Calls", CALL_COLUMN_WIDTH));
+        writer.write(StringUtils.leftPad("Counter", COUNTER_COLUMN_WIDTH));
+        writer.println();
+        writer.println();
+    }
+
+    private void renderRuler(final String displayName, final PrintWriter writer) throws IOException {
+        final int columns = showResources ? COLUMNS + CPU_COLUMN_WIDTH + ALLOCATION_COLUMN_WIDTH : COLUMNS;
+        final StringBuilder sb = new StringBuilder(columns)
                 .append(displayName);
 
         // Make sure we have an even-length string
@@ -119,21 +251,12 @@ public class TextTimingReportRenderer implements TimingReportRenderer {
         sb.insert(0, "<<< ").append(" >>>");
 
         // Create the ruler
-        while (sb.length() < COLUMNS) {
+        while (sb.length() < columns) {
             sb.insert(0, '-').append('-');
         }
 
         writer.write(sb.toString());
         writer.println();
-
-        // Write table titles
-        writer.write(StringUtils.rightPad("Label", LABEL_COLUMN_WIDTH));
-        writer.write(StringUtils.leftPad("Time (secs)", TIME_COLUMN_WIDTH));
-        writer.write(StringUtils.leftPad("Self Time (secs)", SELF_TIME_COLUMN_WIDTH));
-        writer.write(StringUtils.leftPad("# Calls", CALL_COLUMN_WIDTH));
-        writer.write(StringUtils.leftPad("Counter", COUNTER_COLUMN_WIDTH));
-        writer.println();
-        writer.println();
     }
 
 }
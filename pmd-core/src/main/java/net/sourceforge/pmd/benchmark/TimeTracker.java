@@ -4,28 +4,51 @@
 
 package net.sourceforge.pmd.benchmark;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
 
 /**
  * A time tracker class to measure time spent on different sections of PMD analysis.
  * The class is thread-aware, allowing to differentiate CPU and wall clock time.
  *
+ * <p>Besides totals, the distribution of the durations of each operation is
+ * recorded in a {@link LatencyHistogram}, and the time spent on each file is
+ * recorded if it is tracked with {@link #startFileProcessing(String)}. This
+ * data is kept per thread without synchronization, and merged when tracking
+ * stops.
+ *
+ * <p>Optionally, the CPU time and the memory allocated by each operation
+ * can be measured as well, see {@link #startGlobalTracking(boolean)}.
+ *
  * @author Juan Martín Sotuyo Dodero
  */
 public final class TimeTracker {
 
     private static boolean trackTime = false;
+    private static boolean trackResources = false;
     private static long wallClockStartMillis = -1;
     private static final ThreadLocal<Queue<TimerEntry>> TIMER_ENTRIES;
     private static final ConcurrentMap<TimedOperationKey, TimedResult> ACCUMULATED_RESULTS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, CacheStatistics> CACHE_STATISTICS = new ConcurrentHashMap<>();
+    private static final ThreadLocal<ThreadStatistics> THREAD_STATISTICS = new ThreadLocal<>();
+    private static final Queue<ThreadStatistics> ALL_THREAD_STATISTICS = new ConcurrentLinkedQueue<>();
+    // thread statistics of a previous tracking session are discarded
+    private static volatile int trackingSession;
     private static final TimedOperation NOOP_TIMED_OPERATION = new TimedOperation() {
 
         @Override
@@ -52,9 +75,26 @@ public final class TimeTracker {
      * Must be called once PMD starts if tracking is desired, no tracking will be performed otherwise.
      */
     public static void startGlobalTracking() {
+        startGlobalTracking(false);
+    }
+
+    /**
+     * Starts global tracking, like {@link #startGlobalTracking()}. If
+     * {@code measureResources} is true, the CPU time and the bytes
+     * allocated by each operation are also measured with the
+     * {@link ThreadMXBean}, if the JVM supports it. This costs a few
+     * hundred nanoseconds per operation.
+     *
+     * @param measureResources Whether to measure CPU time and allocations
+     */
+    public static void startGlobalTracking(final boolean measureResources) {
         wallClockStartMillis = System.currentTimeMillis();
         trackTime = true;
+        trackResources = measureResources && ThreadResources.enable();
         ACCUMULATED_RESULTS.clear(); // just in case
+        CACHE_STATISTICS.clear();
+        ALL_THREAD_STATISTICS.clear();
+        trackingSession++;
         initThread(); // init main thread
     }
 
@@ -74,9 +114,23 @@ public final class TimeTracker {
         final TimedResult unaccountedResult = ACCUMULATED_RESULTS.get(
                 new TimedOperationKey(TimedOperationCategory.UNACCOUNTED, null));
         unaccountedResult.totalTimeNanos.set(unaccountedResult.selfTimeNanos.get());
+        unaccountedResult.totalCpuNanos.set(unaccountedResult.selfCpuNanos.get());
+        unaccountedResult.totalAllocatedBytes.set(unaccountedResult.selfAllocatedBytes.get());
         unaccountedResult.callCount.set(0);
 
-        return new TimingReport(System.currentTimeMillis() - wallClockStartMillis, ACCUMULATED_RESULTS);
+        // Merge the statistics of all threads
+        final Map<TimedOperationKey, LatencyHistogram> histograms = new HashMap<>();
+        final List<FileTiming> fileTimings = new ArrayList<>();
+        for (final ThreadStatistics statistics : ALL_THREAD_STATISTICS) {
+            for (final Map.Entry<TimedOperationKey, LatencyHistogram> entry : statistics.histograms.entrySet()) {
+                histograms.computeIfAbsent(entry.getKey(), k -> new LatencyHistogram()).merge(entry.getValue());
+            }
+            fileTimings.addAll(statistics.fileTimings);
+        }
+        ALL_THREAD_STATISTICS.clear();
+
+        return new TimingReport(System.currentTimeMillis() - wallClockStartMillis, ACCUMULATED_RESULTS, CACHE_STATISTICS,
+                                histograms, fileTimings, trackResources);
     }
 
     /**
@@ -126,7 +180,26 @@ public final class TimeTracker {
             return NOOP_TIMED_OPERATION;
         }
 
-        TIMER_ENTRIES.get().add(new TimerEntry(category, label));
+        TIMER_ENTRIES.get().add(new TimerEntry(category, label, null));
+        return new TimedOperationImpl();
+    }
+
+    /**
+     * Starts tracking the processing of a file. This is tracked as an
+     * operation of category {@link TimedOperationCategory#FILE_PROCESSING},
+     * and the time spent on the file, and on parsing it, is reported
+     * for the file in {@link TimingReport#getFileTimings()}.
+     *
+     * @param fileName Name of the file, as it is displayed in the report
+     * @return The current timed operation being tracked.
+     */
+    public static TimedOperation startFileProcessing(final String fileName) {
+        if (!trackTime) {
+            return NOOP_TIMED_OPERATION;
+        }
+
+        threadStatistics().currentFile = new FileTiming(fileName);
+        TIMER_ENTRIES.get().add(new TimerEntry(TimedOperationCategory.FILE_PROCESSING, null, fileName));
         return new TimedOperationImpl();
     }
 
@@ -154,8 +227,47 @@ public final class TimeTracker {
         // Update counters and let next element on the stack ignore the time we spent
         final long delta = result.accumulate(timerEntry, extraDataCounter);
         if (!queue.isEmpty()) {
-            queue.peek().inNestedOperationsNanos += delta;
+            final TimerEntry parent = queue.peek();
+            parent.inNestedOperationsNanos += delta;
+            if (timerEntry.measuresResources) {
+                parent.inNestedCpuNanos += timerEntry.cpuNanos;
+                parent.inNestedAllocatedBytes += timerEntry.allocatedBytes;
+            }
+        }
+
+        threadStatistics().record(timerEntry, delta);
+    }
+
+    private static ThreadStatistics threadStatistics() {
+        ThreadStatistics statistics = THREAD_STATISTICS.get();
+        final int session = trackingSession;
+        if (statistics == null || statistics.session != session) {
+            // kept across operations, so that histograms are allocated once per thread
+            statistics = new ThreadStatistics(session);
+            THREAD_STATISTICS.set(statistics);
+            ALL_THREAD_STATISTICS.add(statistics);
+        }
+        return statistics;
+    }
+
+    /**
+     * Records a lookup into a cache. This is a noop if tracking is not
+     * enabled. Hit ratios of all caches are displayed in the timing report.
+     *
+     * @param cacheName Name of the cache, used as a label in the report
+     * @param hit       Whether the lookup found a cached value
+     */
+    public static void recordCacheLookup(final String cacheName, final boolean hit) {
+        if (!trackTime) {
+            return;
+        }
+
+        CacheStatistics stats = CACHE_STATISTICS.get(cacheName);
+        if (stats == null) {
+            CACHE_STATISTICS.putIfAbsent(cacheName, new CacheStatistics());
+            stats = CACHE_STATISTICS.get(cacheName);
         }
+        stats.record(hit);
     }
 
     public static void bench(String label, Runnable runnable) {
@@ -175,11 +287,24 @@ public final class TimeTracker {
      */
     private static class TimerEntry {
         /* package */ final TimedOperationKey operation;
+        /* package */ final String fileName;
+        /* package */ final boolean measuresResources;
+        /* package */ final long startCpuNanos;
+        /* package */ final long startAllocatedBytes;
         /* package */ final long start;
         /* package */ long inNestedOperationsNanos = 0;
+        /* package */ long inNestedCpuNanos = 0;
+        /* package */ long inNestedAllocatedBytes = 0;
+        // set when the operation finishes
+        /* package */ long cpuNanos;
+        /* package */ long allocatedBytes;
 
-        /* package */ TimerEntry(final TimedOperationCategory category, final String label) {
+        /* package */ TimerEntry(final TimedOperationCategory category, final String label, final String fileName) {
             this.operation = new TimedOperationKey(category, label);
+            this.fileName = fileName;
+            this.measuresResources = trackResources;
+            this.startCpuNanos = measuresResources ? ThreadResources.cpuNanos() : 0;
+            this.startAllocatedBytes = measuresResources ? ThreadResources.allocatedBytes() : 0;
             this.start = System.nanoTime();
         }
 
@@ -189,6 +314,40 @@ public final class TimeTracker {
         }
     }
 
+    /**
+     * Statistics recorded by a single thread, merged when tracking stops.
+     */
+    private static final class ThreadStatistics {
+        /* package */ final int session;
+        /* package */ final Map<TimedOperationKey, LatencyHistogram> histograms = new HashMap<>();
+        /* package */ final List<FileTiming> fileTimings = new ArrayList<>();
+        /* package */ FileTiming currentFile;
+
+        /* package */ ThreadStatistics(final int session) {
+            this.session = session;
+        }
+
+        /* package */ void record(final TimerEntry timerEntry, final long delta) {
+            final TimedOperationCategory category = timerEntry.operation.category;
+            if (category == TimedOperationCategory.UNACCOUNTED
+                || category == TimedOperationCategory.FILE_PROCESSING && timerEntry.fileName == null) {
+                // these span a whole thread or the whole analysis, their distribution is meaningless
+                return;
+            }
+            histograms.computeIfAbsent(timerEntry.operation, k -> new LatencyHistogram()).record(delta);
+
+            if (currentFile != null) {
+                if (category == TimedOperationCategory.PARSER) {
+                    currentFile.addParseNanos(delta);
+                } else if (timerEntry.fileName != null) {
+                    currentFile.setTotalNanos(delta);
+                    fileTimings.add(currentFile);
+                    currentFile = null;
+                }
+            }
+        }
+    }
+
     /**
      * Aggregate results measured so far for a given category + label.
      */
@@ -197,6 +356,11 @@ public final class TimeTracker {
         /* package */ AtomicLong selfTimeNanos = new AtomicLong();
         /* package */ AtomicInteger callCount = new AtomicInteger();
         /* package */ AtomicLong extraDataCounter = new AtomicLong();
+        // only measured if resources are tracked
+        /* package */ AtomicLong totalCpuNanos = new AtomicLong();
+        /* package */ AtomicLong selfCpuNanos = new AtomicLong();
+        /* package */ AtomicLong totalAllocatedBytes = new AtomicLong();
+        /* package */ AtomicLong selfAllocatedBytes = new AtomicLong();
 
         /**
          * Adds a new {@link TimerEntry} to the results.
@@ -206,6 +370,15 @@ public final class TimeTracker {
          */
         /* package */ long accumulate(final TimerEntry timerEntry, final long extraData) {
             final long delta = System.nanoTime() - timerEntry.start;
+            if (timerEntry.measuresResources) {
+                timerEntry.cpuNanos = ThreadResources.cpuNanos() - timerEntry.startCpuNanos;
+                timerEntry.allocatedBytes = ThreadResources.allocatedBytes() - timerEntry.startAllocatedBytes;
+
+                totalCpuNanos.getAndAdd(timerEntry.cpuNanos);
+                selfCpuNanos.getAndAdd(timerEntry.cpuNanos - timerEntry.inNestedCpuNanos);
+                totalAllocatedBytes.getAndAdd(timerEntry.allocatedBytes);
+                selfAllocatedBytes.getAndAdd(timerEntry.allocatedBytes - timerEntry.inNestedAllocatedBytes);
+            }
 
             totalTimeNanos.getAndAdd(delta);
             selfTimeNanos.getAndAdd(delta - timerEntry.inNestedOperationsNanos);
@@ -222,6 +395,76 @@ public final class TimeTracker {
         /* package */ void mergeTimes(final TimedResult timedResult) {
             totalTimeNanos.getAndAdd(timedResult.totalTimeNanos.get());
             selfTimeNanos.getAndAdd(timedResult.selfTimeNanos.get());
+            totalCpuNanos.getAndAdd(timedResult.totalCpuNanos.get());
+            selfCpuNanos.getAndAdd(timedResult.selfCpuNanos.get());
+            totalAllocatedBytes.getAndAdd(timedResult.totalAllocatedBytes.get());
+            selfAllocatedBytes.getAndAdd(timedResult.selfAllocatedBytes.get());
+        }
+    }
+
+    /**
+     * Reads the CPU time and allocated bytes of the current thread.
+     */
+    private static final class ThreadResources {
+        private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+        private ThreadResources() {
+            // utility class
+        }
+
+        /**
+         * Enables the measurements if needed. Returns false if the JVM
+         * cannot measure both.
+         */
+        /* package */ static boolean enable() {
+            if (!THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported()
+                || !(THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean)) {
+                return false;
+            }
+            final com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) THREAD_MX_BEAN;
+            if (!bean.isThreadAllocatedMemorySupported()) {
+                return false;
+            }
+            THREAD_MX_BEAN.setThreadCpuTimeEnabled(true);
+            bean.setThreadAllocatedMemoryEnabled(true);
+            return true;
+        }
+
+        /* package */ static long cpuNanos() {
+            return THREAD_MX_BEAN.getCurrentThreadCpuTime();
+        }
+
+        /* package */ static long allocatedBytes() {
+            // getCurrentThreadAllocatedBytes is only available since Java 14
+            return ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+    }
+
+    /**
+     * Hit and miss counters for a cache.
+     */
+    /* package */ static class CacheStatistics {
+        /* package */ final LongAdder hits = new LongAdder();
+        /* package */ final LongAdder misses = new LongAdder();
+
+        /* package */ void record(final boolean hit) {
+            if (hit) {
+                hits.increment();
+            } else {
+                misses.increment();
+            }
+        }
+
+        /* package */ long getLookupCount() {
+            return hits.sum() + misses.sum();
+        }
+
+        /**
+         * Returns the ratio of lookups that were hits, between 0 and 1.
+         */
+        /* package */ double getHitRatio() {
+            long total = getLookupCount();
+            return total == 0 ? 0 : (double) hits.sum() / total;
         }
     }
 
@@ -23,6 +23,12 @@ public enum TimedOperationCategory {
     PARSER,
     /** Subdivided into one label for each stage. */
     LANGUAGE_SPECIFIC_PROCESSING,
+    /**
+     * Stages of the language specific processing that run when a rule
+     * first queries their results, instead of before the rules. Subdivided
+     * into one label for each stage. This time is not counted in the rule.
+     */
+    DEFERRED_LANGUAGE_PROCESSING,
     RULE_AST_INDEXATION,
     REPORTING,
     FILE_PROCESSING,
@@ -4,9 +4,13 @@
 
 package net.sourceforge.pmd.benchmark;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import net.sourceforge.pmd.benchmark.TimeTracker.CacheStatistics;
 import net.sourceforge.pmd.benchmark.TimeTracker.TimedOperationKey;
 import net.sourceforge.pmd.benchmark.TimeTracker.TimedResult;
 
@@ -18,10 +22,21 @@ public class TimingReport {
 
     private final long wallClockMillis;
     private final Map<TimedOperationKey, TimedResult> results;
+    private final Map<String, CacheStatistics> cacheStatistics;
+    private final Map<TimedOperationKey, LatencyHistogram> histograms;
+    private final List<FileTiming> fileTimings;
+    private final boolean resourcesMeasured;
 
-    /* package */ TimingReport(final long wallClockMillis, final Map<TimedOperationKey, TimedResult> accumulatedResults) {
+    /* package */ TimingReport(final long wallClockMillis, final Map<TimedOperationKey, TimedResult> accumulatedResults,
+                               final Map<String, CacheStatistics> cacheStatistics,
+                               final Map<TimedOperationKey, LatencyHistogram> histograms,
+                               final List<FileTiming> fileTimings, final boolean resourcesMeasured) {
         this.wallClockMillis = wallClockMillis;
         results = accumulatedResults;
+        this.cacheStatistics = cacheStatistics;
+        this.histograms = histograms;
+        this.fileTimings = fileTimings;
+        this.resourcesMeasured = resourcesMeasured;
     }
 
     public Map<String, TimedResult> getLabeledMeasurements(final TimedOperationCategory category) {
@@ -48,6 +63,65 @@ public class TimingReport {
         return null;
     }
 
+    /**
+     * Returns the hit/miss counters of all caches that recorded lookups,
+     * indexed by cache name.
+     *
+     * @see TimeTracker#recordCacheLookup(String, boolean)
+     */
+    /* package */ Map<String, CacheStatistics> getCacheStatistics() {
+        return new HashMap<>(cacheStatistics);
+    }
+
+    /**
+     * Returns the distribution of the durations of the operations of the
+     * given category, indexed by label. For rules, each duration is the
+     * time spent applying the rule to one file.
+     */
+    public Map<String, LatencyHistogram> getLabeledHistograms(final TimedOperationCategory category) {
+        final Map<String, LatencyHistogram> ret = new HashMap<>();
+
+        for (final Map.Entry<TimedOperationKey, LatencyHistogram> entry : histograms.entrySet()) {
+            final TimedOperationKey timedOperation = entry.getKey();
+            if (timedOperation.category == category && timedOperation.label != null) {
+                ret.put(timedOperation.label, entry.getValue());
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Returns the distribution of the durations of the unlabeled operations
+     * of the given category, or null if there is none. For
+     * {@link TimedOperationCategory#FILE_PROCESSING}, this is the
+     * distribution of the time spent on each file.
+     */
+    public LatencyHistogram getUnlabeledHistogram(final TimedOperationCategory category) {
+        return histograms.get(new TimedOperationKey(category, null));
+    }
+
+    /**
+     * Returns the time spent on each file, slowest files first.
+     *
+     * @see TimeTracker#startFileProcessing(String)
+     */
+    public List<FileTiming> getFileTimings() {
+        final List<FileTiming> ret = new ArrayList<>(fileTimings);
+        ret.sort(Comparator.comparingLong(FileTiming::getTotalNanos).reversed());
+        return ret;
+    }
+
+    /**
+     * Returns whether the CPU time and the bytes allocated by each operation
+     * were measured. If not, these measurements are all zero.
+     *
+     * @see TimeTracker#startGlobalTracking(boolean)
+     */
+    public boolean isResourceUsageMeasured() {
+        return resourcesMeasured;
+    }
+
     public long getWallClockMillis() {
         return wallClockMillis;
     }
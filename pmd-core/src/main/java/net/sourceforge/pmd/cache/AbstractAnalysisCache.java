@@ -38,6 +38,7 @@ import net.sourceforge.pmd.internal.util.IOUtil;
 import net.sourceforge.pmd.lang.document.FileId;
 import net.sourceforge.pmd.lang.document.TextDocument;
 import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.lang.rule.internal.DeferredRuleViolation;
 import net.sourceforge.pmd.reporting.FileAnalysisListener;
 
 /**
@@ -223,7 +224,8 @@ public abstract class AbstractAnalysisCache implements AnalysisCache {
         return new FileAnalysisListener() {
             @Override
             public void onRuleViolation(RuleViolation violation) {
-                updatedResultsCache.get(fileName).addViolation(violation);
+                // the cache outlives the AST of the file
+                updatedResultsCache.get(fileName).addViolation(DeferredRuleViolation.materialize(violation));
             }
 
             @Override
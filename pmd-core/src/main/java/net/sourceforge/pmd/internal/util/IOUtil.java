@@ -112,26 +112,7 @@ public final class IOUtil {
     public static Writer createWriter(Charset charset, String reportFile) {
         try {
             if (StringUtils.isBlank(reportFile)) {
-                return new OutputStreamWriter(new FilterOutputStream(System.out) {
-                    @Override
-                    public void close() {
-                        // avoid closing stdout, simply flush
-                        try {
-                            out.flush();
-                        } catch (IOException ignored) {
-                            // Nothing left to do
-                        }
-                    }
-                    
-                    @Override
-                    public void write(byte[] b, int off, int len) throws IOException {
-                        /*
-                         * FilterOutputStream iterates over each byte, asking subclasses to provide more efficient implementations
-                         * It therefore negates any such optimizations that the underlying stream actually may implement.
-                         */
-                        out.write(b, off, len);
-                    }
-                }, charset);
+                return new OutputStreamWriter(stdoutStream(), charset);
             }
             Path path = new File(reportFile).toPath().toAbsolutePath();
             Files.createDirectories(path.getParent()); // ensure parent dir exists
@@ -142,6 +123,49 @@ public final class IOUtil {
         }
     }
 
+    /**
+     * Creates an output stream that writes to the given file or to stdout.
+     * The file is created if it does not exist. Closing the stream does
+     * not close stdout.
+     *
+     * @param reportFile the file name (optional)
+     */
+    public static OutputStream createOutputStream(String reportFile) {
+        try {
+            if (StringUtils.isBlank(reportFile)) {
+                return stdoutStream();
+            }
+            Path path = new File(reportFile).toPath().toAbsolutePath();
+            Files.createDirectories(path.getParent()); // ensure parent dir exists
+            return Files.newOutputStream(path);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static OutputStream stdoutStream() {
+        return new FilterOutputStream(System.out) {
+            @Override
+            public void close() {
+                // avoid closing stdout, simply flush
+                try {
+                    out.flush();
+                } catch (IOException ignored) {
+                    // Nothing left to do
+                }
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                /*
+                 * FilterOutputStream iterates over each byte, asking subclasses to provide more efficient implementations
+                 * It therefore negates any such optimizations that the underlying stream actually may implement.
+                 */
+                out.write(b, off, len);
+            }
+        };
+    }
+
     public static void tryCloseClassLoader(ClassLoader classLoader) {
         if (classLoader instanceof Closeable) {
             closeQuietly((Closeable) classLoader);
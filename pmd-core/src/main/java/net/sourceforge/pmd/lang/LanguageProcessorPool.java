@@ -0,0 +1,298 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.ToLongFunction;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.annotation.InternalApi;
+import net.sourceforge.pmd.cache.internal.ClasspathFingerprinter;
+import net.sourceforge.pmd.internal.util.ClasspathClassLoader;
+import net.sourceforge.pmd.internal.util.IOUtil;
+import net.sourceforge.pmd.lang.LanguageProcessorRegistry.LanguageTerminationException;
+import net.sourceforge.pmd.properties.PropertyDescriptor;
+import net.sourceforge.pmd.util.log.MessageReporter;
+
+/**
+ * Keeps {@link LanguageProcessor}s alive across several analyses. By
+ * default, each {@link net.sourceforge.pmd.PmdAnalysis} creates new
+ * processors, and closes them at the end of the analysis. Processors
+ * may cache data that is expensive to compute, eg the Java processor
+ * keeps the symbols it has loaded from the auxclasspath. Embedders that
+ * run successive analyses on the same project (IDE plugins, build
+ * daemons) can share a pool between them with {@link PMDConfiguration#setLanguageProcessorPool(LanguageProcessorPool)}
+ * to reuse those caches.
+ *
+ * <p>A processor is reused if its language properties have the same
+ * values as in the analysis that created it, and, for JVM languages,
+ * if the auxclasspath has the same entries, with the same contents.
+ * Otherwise, it is closed and replaced with a new one. The contents of
+ * an entry are hashed again only if its size or modification time
+ * changed since the previous analysis.
+ *
+ * <p>The pool takes ownership of the {@link ClasspathClassLoader}s used
+ * by its processors, and closes them when the processors are replaced.
+ * The pool must be closed by its owner when it is not needed anymore.
+ * An instance may only be used by one analysis at a time.
+ *
+ * @since 7.0.0
+ */
+@Experimental
+public final class LanguageProcessorPool implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LanguageProcessorPool.class);
+    private static final ClasspathFingerprinter FINGERPRINTER = new ClasspathFingerprinter();
+
+    private final Map<Language, PooledProcessor> pooled = new HashMap<>();
+    private final Map<String, EntryFingerprint> fingerprints = new HashMap<>();
+    private boolean closed;
+
+    /**
+     * Returns a registry with a processor for each language of the given
+     * registry. Processors from a previous analysis are reused if their
+     * configuration has not changed. Closing the returned registry does
+     * not close the processors.
+     *
+     * @see LanguageProcessorRegistry#create(LanguageRegistry, Map, MessageReporter)
+     */
+    public synchronized LanguageProcessorRegistry acquire(LanguageRegistry registry,
+                                                          Map<Language, LanguagePropertyBundle> languageProperties,
+                                                          MessageReporter messageReporter) {
+        if (closed) {
+            throw new IllegalStateException("Pool is closed");
+        }
+        return LanguageProcessorRegistry.create(registry, languageProperties, messageReporter, System.getenv(),
+                                                this::getOrCreate, false);
+    }
+
+    private LanguageProcessor getOrCreate(PmdCapableLanguage language, LanguagePropertyBundle properties) {
+        ProcessorKey key = new ProcessorKey(properties, this::fingerprint);
+        PooledProcessor current = pooled.get(language);
+        if (current != null) {
+            if (current.key.equals(key)) {
+                LOG.debug("Reusing processor for language {}", language.getId());
+                return current.processor;
+            }
+            LOG.debug("Configuration of language {} changed, replacing its processor", language.getId());
+            pooled.remove(language);
+            Exception e = closeProcessor(current);
+            if (e != null) {
+                throw new LanguageTerminationException(e);
+            }
+        }
+        LanguageProcessor processor = language.createProcessor(properties);
+        pooled.put(language, new PooledProcessor(key, processor, key.classLoader));
+        return processor;
+    }
+
+    // hashes the contents of the entry, unless it has not changed since last time
+    private long fingerprint(URL entry) {
+        BasicFileAttributes attrs = attributesOf(entry);
+        EntryFingerprint cached = fingerprints.get(entry.toString());
+        if (attrs != null && cached != null && cached.isUpToDate(attrs)) {
+            return cached.checksum;
+        }
+        long checksum = FINGERPRINTER.fingerprint(entry);
+        if (attrs != null) {
+            fingerprints.put(entry.toString(), new EntryFingerprint(attrs, checksum));
+        } else {
+            fingerprints.remove(entry.toString());
+        }
+        return checksum;
+    }
+
+    private static @Nullable BasicFileAttributes attributesOf(URL entry) {
+        if (!"file".equals(entry.getProtocol())) {
+            return null;
+        }
+        try {
+            Path path = Paths.get(entry.toURI());
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (URISyntaxException | IllegalArgumentException | IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns true if the given classloader is used by one of the processors
+     * of this pool. It is closed by the pool when it is not used anymore.
+     */
+    @InternalApi
+    public synchronized boolean isRetained(ClassLoader classLoader) {
+        for (PooledProcessor p : pooled.values()) {
+            if (p.classLoader == classLoader) { // NOPMD CompareObjectsWithEquals
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // closes the processor, and its classloader if no other processor uses it
+    private @Nullable Exception closeProcessor(PooledProcessor p) {
+        List<AutoCloseable> toClose = new ArrayList<>(2);
+        toClose.add(p.processor);
+        if (p.classLoader instanceof ClasspathClassLoader && !isRetained(p.classLoader)) {
+            toClose.add((ClasspathClassLoader) p.classLoader);
+        }
+        return IOUtil.closeAll(toClose);
+    }
+
+    /**
+     * Closes all the processors of this pool.
+     *
+     * @throws LanguageTerminationException If closing any of the processors threw something
+     */
+    @Override
+    public synchronized void close() throws LanguageTerminationException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        List<PooledProcessor> all = new ArrayList<>(pooled.values());
+        pooled.clear();
+        fingerprints.clear();
+        Exception e = null;
+        for (PooledProcessor p : all) {
+            Exception e2 = closeProcessor(p);
+            if (e == null) {
+                e = e2;
+            } else if (e2 != null) {
+                e.addSuppressed(e2);
+            }
+        }
+        if (e != null) {
+            throw new LanguageTerminationException(e);
+        }
+    }
+
+    private static final class PooledProcessor {
+
+        final ProcessorKey key;
+        final LanguageProcessor processor;
+        final @Nullable ClassLoader classLoader;
+
+        PooledProcessor(ProcessorKey key, LanguageProcessor processor, @Nullable ClassLoader classLoader) {
+            this.key = key;
+            this.processor = processor;
+            this.classLoader = classLoader;
+        }
+    }
+
+    private static final class EntryFingerprint {
+
+        private final long size;
+        private final FileTime lastModified;
+        final long checksum;
+
+        EntryFingerprint(BasicFileAttributes attrs, long checksum) {
+            this.size = attrs.size();
+            this.lastModified = attrs.lastModifiedTime();
+            this.checksum = checksum;
+        }
+
+        boolean isUpToDate(BasicFileAttributes attrs) {
+            return size == attrs.size() && lastModified.equals(attrs.lastModifiedTime());
+        }
+    }
+
+    /**
+     * The configuration of a processor. Two processors with equal keys
+     * would behave the same.
+     */
+    private static final class ProcessorKey {
+
+        private final Map<PropertyDescriptor<?>, Object> properties;
+        // null if the language is not a JVM language
+        private final @Nullable ClassLoader classLoader;
+        // identifies the classpath of the classloader, see classpathId
+        private final @Nullable Object classpathId;
+
+        ProcessorKey(LanguagePropertyBundle bundle, ToLongFunction<URL> fingerprinter) {
+            this.properties = new HashMap<>(bundle.getPropertiesByPropertyDescriptor());
+            if (bundle instanceof JvmLanguagePropertyBundle) {
+                this.classLoader = ((JvmLanguagePropertyBundle) bundle).getAnalysisClassLoader();
+                this.classpathId = classpathId(classLoader, fingerprinter);
+            } else {
+                this.classLoader = null;
+                this.classpathId = null;
+            }
+        }
+
+        private static Object classpathId(ClassLoader classLoader, ToLongFunction<URL> fingerprinter) {
+            if (classLoader instanceof URLClassLoader) {
+                // a new classloader is created for each analysis, so we
+                // compare the entries and their contents instead.
+                URL[] urls = ((URLClassLoader) classLoader).getURLs();
+                List<Long> checksums = new ArrayList<>(urls.length);
+                for (URL url : urls) {
+                    checksums.add(fingerprinter.applyAsLong(url));
+                }
+                return Arrays.asList(
+                    Arrays.asList(urls),
+                    checksums,
+                    new IdentityKey(classLoader.getParent())
+                );
+            }
+            return new IdentityKey(classLoader);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ProcessorKey that = (ProcessorKey) o;
+            return properties.equals(that.properties)
+                && Objects.equals(classpathId, that.classpathId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(properties, classpathId);
+        }
+    }
+
+    private static final class IdentityKey {
+
+        private final @Nullable Object obj;
+
+        IdentityKey(@Nullable Object obj) {
+            this.obj = obj;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof IdentityKey && ((IdentityKey) o).obj == obj; // NOPMD CompareObjectsWithEquals
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(obj);
+        }
+    }
+}
@@ -13,6 +13,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.function.BiFunction;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.slf4j.Logger;
@@ -37,9 +38,16 @@ public final class LanguageProcessorRegistry implements AutoCloseable {
 
     private final Map<PmdCapableLanguage, LanguageProcessor> processors;
     private final LanguageRegistry languages;
+    // false if the processors belong to a LanguageProcessorPool
+    private final boolean ownsProcessors;
 
 
     private LanguageProcessorRegistry(Set<LanguageProcessor> processors) {
+        this(processors, true);
+    }
+
+    private LanguageProcessorRegistry(Set<LanguageProcessor> processors, boolean ownsProcessors) {
+        this.ownsProcessors = ownsProcessors;
         this.processors = Collections.unmodifiableMap(
             CollectionUtil.associateBy(processors, LanguageProcessor::getLanguage)
         );
@@ -79,12 +87,17 @@ public final class LanguageProcessorRegistry implements AutoCloseable {
     }
 
     /**
-     * Close all processors in this registry.
+     * Close all processors in this registry. If the processors were
+     * acquired from a {@link LanguageProcessorPool}, this does nothing,
+     * as they are closed by the pool.
      *
      * @throws LanguageTerminationException If closing any of the processors threw something
      */
     @Override
     public void close() throws LanguageTerminationException {
+        if (!ownsProcessors) {
+            return;
+        }
         Exception e = IOUtil.closeAll(processors.values());
         if (e != null) {
             throw new LanguageTerminationException(e);
@@ -125,6 +138,15 @@ public final class LanguageProcessorRegistry implements AutoCloseable {
                                             Map<Language, LanguagePropertyBundle> languageProperties,
                                             MessageReporter messageReporter,
                                             Map<String, String> env) {
+        return create(registry, languageProperties, messageReporter, env, PmdCapableLanguage::createProcessor, true);
+    }
+
+    static LanguageProcessorRegistry create(LanguageRegistry registry,
+                                            Map<Language, LanguagePropertyBundle> languageProperties,
+                                            MessageReporter messageReporter,
+                                            Map<String, String> env,
+                                            BiFunction<PmdCapableLanguage, LanguagePropertyBundle, LanguageProcessor> processorFactory,
+                                            boolean ownsProcessors) {
         Set<LanguageProcessor> processors = new HashSet<>();
         for (Language language : registry) {
             if (!(language instanceof PmdCapableLanguage)) {
@@ -140,13 +162,13 @@ public final class LanguageProcessorRegistry implements AutoCloseable {
                 //
                 readLanguagePropertiesFromEnv(properties, messageReporter, env);
 
-                processors.add(((PmdCapableLanguage) language).createProcessor(properties));
+                processors.add(processorFactory.apply((PmdCapableLanguage) language, properties));
             } catch (IllegalArgumentException e) {
                 messageReporter.error(e); // todo
             }
         }
 
-        return new LanguageProcessorRegistry(processors);
+        return new LanguageProcessorRegistry(processors, ownsProcessors);
     }
 
     // TODO this should be reused when implementing the CLI
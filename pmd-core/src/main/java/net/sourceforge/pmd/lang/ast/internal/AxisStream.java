@@ -12,6 +12,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
@@ -266,6 +267,64 @@ abstract class AxisStream<T extends Node> extends IteratorBasedNStream<T> {
         }
     }
 
+    /**
+     * Descendants that are instances of a given type. If the tree has
+     * a {@link DescendantIndex}, it is used instead of walking the subtree.
+     * The filter of this stream must reject nodes that are not instances
+     * of the type.
+     */
+    static class TypedDescendantStream<T extends Node> extends FilteredDescendantStream<T> {
+
+        private final Class<? extends Node> type;
+
+        TypedDescendantStream(Node node,
+                              TreeWalker walker,
+                              Class<? extends Node> type,
+                              Filtermap<Node, ? extends T> target) {
+            super(node, walker, target);
+            this.type = type;
+        }
+
+        private @Nullable Iterator<Node> indexedIterator() {
+            return DescendantIndex.descendantsOfType(node, type, walker.isCrossFindBoundaries());
+        }
+
+        @Override
+        protected Iterator<Node> baseIterator() {
+            Iterator<Node> indexed = indexedIterator();
+            return indexed != null ? indexed : super.baseIterator();
+        }
+
+        @Override
+        protected <S extends Node> DescendantNodeStream<S> copyWithWalker(Filtermap<Node, ? extends S> filterMap, TreeWalker walker) {
+            return new TypedDescendantStream<>(node, walker, type, filterMap);
+        }
+
+        @Override
+        protected <O extends Node> @Nullable O firstImpl(Filtermap<? super Node, ? extends O> filter) {
+            Iterator<Node> indexed = indexedIterator();
+            if (indexed == null) {
+                return super.firstImpl(filter);
+            }
+            Iterator<? extends O> iter = filter.filterMap(indexed);
+            return iter.hasNext() ? iter.next() : null;
+        }
+
+        @Override
+        public boolean nonEmpty() {
+            return firstImpl(filter) != null;
+        }
+
+        @Override
+        protected <O> List<O> toListImpl(Filtermap<? super Node, ? extends O> filter) {
+            Iterator<Node> indexed = indexedIterator();
+            if (indexed == null) {
+                return super.toListImpl(filter);
+            }
+            return IteratorUtil.toList(filter.filterMap(indexed));
+        }
+    }
+
     static class DescendantStream extends FilteredDescendantStream<Node> {
 
         DescendantStream(Node node, TreeWalker walker) {
@@ -277,6 +336,11 @@ abstract class AxisStream<T extends Node> extends IteratorBasedNStream<T> {
             return new DescendantStream(node, walker.crossFindBoundaries(cross));
         }
 
+        @Override
+        public <S extends Node> NodeStream<S> filterIs(Class<? extends S> r1Class) {
+            return new TypedDescendantStream<>(node, walker, r1Class, Filtermap.isInstance(r1Class));
+        }
+
 
         @Override
         public boolean nonEmpty() {
@@ -401,15 +465,49 @@ abstract class AxisStream<T extends Node> extends IteratorBasedNStream<T> {
             return TraversalUtils.findChildrenMatching(node, filter, low, len);
         }
 
+        @Override
+        public void forEach(Consumer<? super T> action) {
+            for (int i = low, last = low + len; i < last; i++) {
+                T t = filter.apply(node.getChild(i));
+                if (t != null) {
+                    action.accept(t);
+                }
+            }
+        }
+
+        @Override
+        public @Nullable T get(int n) {
+            AssertionUtil.requireNonNegative("n", n);
+            int idx = TraversalUtils.indexAfterMatches(node, filter, low, len, n);
+            return TraversalUtils.getFirstChildMatching(node, filter, idx, low + len - idx);
+        }
+
+        @Override
+        public boolean any(Predicate<? super T> predicate) {
+            return firstImpl(filter.thenFilter(predicate)) != null;
+        }
+
+        @Override
+        public boolean none(Predicate<? super T> predicate) {
+            return !any(predicate);
+        }
+
+        @Override
+        public boolean all(Predicate<? super T> predicate) {
+            return !any(predicate.negate());
+        }
+
+        /*
+         * take and drop narrow the range of children to the matching
+         * children that would be kept, so that further operations
+         * still loop over the children directly.
+         */
+
         @Override
         public NodeStream<T> take(int maxSize) {
             AssertionUtil.requireNonNegative("maxSize", maxSize);
-            // eager evaluation
-            if (maxSize == 1) {
-                return NodeStream.of(TraversalUtils.getFirstChildMatching(node, filter, low, len));
-            }
-            List<T> matching = TraversalUtils.findChildrenMatching(node, filter, low, len, maxSize);
-            return StreamImpl.fromNonNullList(matching);
+            int end = TraversalUtils.indexAfterMatches(node, filter, low, len, maxSize);
+            return StreamImpl.sliceChildren(node, filter, low, end - low);
         }
 
         @Override
@@ -418,7 +516,8 @@ abstract class AxisStream<T extends Node> extends IteratorBasedNStream<T> {
             if (n == 0) {
                 return this;
             }
-            return StreamImpl.fromNonNullList(toList()).drop(n);
+            int start = TraversalUtils.indexAfterMatches(node, filter, low, len, n);
+            return StreamImpl.sliceChildren(node, filter, start, low + len - start);
         }
 
         @Override
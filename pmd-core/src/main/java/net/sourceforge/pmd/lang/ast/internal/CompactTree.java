@@ -0,0 +1,214 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.ast.internal;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.ast.RootNode;
+import net.sourceforge.pmd.lang.document.TextRegion;
+import net.sourceforge.pmd.util.DataMap;
+import net.sourceforge.pmd.util.DataMap.SimpleDataKey;
+
+/**
+ * A read-only snapshot of the structure of a tree, stored in primitive
+ * arrays. Nodes are identified by their number in document order
+ * (preorder), the root being 0. The descendants of a node are then the
+ * contiguous range of ids between the node and the {@linkplain #subtreeEnd(int) end of its subtree}.
+ *
+ * <p>This lets tree engines (the XPath wrapper tree, the {@link DescendantIndex})
+ * navigate the tree with int arithmetic, and only materialize the objects
+ * they need on demand. The snapshot is built lazily once per tree and
+ * shared by all its users. It does not reflect changes made to the tree
+ * after it was built, so it should only be requested when the tree is
+ * not mutated anymore.
+ */
+public final class CompactTree {
+
+    private static final SimpleDataKey<CompactTree> COMPACT_TREE_KEY = DataMap.simpleDataKey("ast.compact.tree");
+
+    /** Nodes, indexed by their id. */
+    private final Node[] nodes;
+    private final int[] parent;
+    private final int[] firstChild;
+    private final int[] nextSibling;
+    private final int[] subtreeEnd;
+    /** Kind id of each node. Nodes have the same kind if they have the same class. */
+    private final int[] kind;
+    private final Class<?>[] kindClasses;
+    /** Open addressing table of (id + 1), hashed by node identity. */
+    private final int[] idTable;
+
+    /** Text offsets, computed on demand. */
+    private int[] startOffset;
+    private int[] endOffset;
+
+    private CompactTree(Node root) {
+        int size = countNodes(root);
+        this.nodes = new Node[size];
+        this.parent = new int[size];
+        this.firstChild = new int[size];
+        this.nextSibling = new int[size];
+        this.subtreeEnd = new int[size];
+        this.kind = new int[size];
+        this.idTable = new int[Integer.highestOneBit(size) << 2];
+
+        Map<Class<?>, Integer> kindIds = new HashMap<>();
+        int end = number(root, -1, 0, kindIds);
+        assert end == size : "Tree changed while it was numbered";
+
+        this.kindClasses = new Class<?>[kindIds.size()];
+        kindIds.forEach((k, id) -> kindClasses[id] = k);
+    }
+
+    /**
+     * Returns the compact tree of the given root, building it if needed.
+     * The tree must not be mutated after this has been called.
+     */
+    public static CompactTree of(RootNode root) {
+        return root.getUserMap().computeIfAbsent(COMPACT_TREE_KEY, () -> new CompactTree(root));
+    }
+
+    private static int countNodes(Node node) {
+        int count = 1;
+        for (int i = 0, n = node.getNumChildren(); i < n; i++) {
+            count += countNodes(node.getChild(i));
+        }
+        return count;
+    }
+
+    /** Numbers the subtree of the node, returns the next free id. */
+    private int number(Node node, int parentId, int id, Map<Class<?>, Integer> kindIds) {
+        nodes[id] = node;
+        parent[id] = parentId;
+        kind[id] = kindIds.computeIfAbsent(node.getClass(), k -> kindIds.size());
+        putId(node, id);
+
+        int next = id + 1;
+        int prevChild = -1;
+        firstChild[id] = -1;
+        for (int i = 0, n = node.getNumChildren(); i < n; i++) {
+            int childId = next;
+            if (prevChild < 0) {
+                firstChild[id] = childId;
+            } else {
+                nextSibling[prevChild] = childId;
+            }
+            next = number(node.getChild(i), id, childId, kindIds);
+            prevChild = childId;
+        }
+        if (prevChild >= 0) {
+            nextSibling[prevChild] = -1;
+        }
+        if (parentId < 0) {
+            nextSibling[id] = -1;
+        }
+        subtreeEnd[id] = next;
+        return next;
+    }
+
+    private void putId(Node node, int id) {
+        int mask = idTable.length - 1;
+        int slot = System.identityHashCode(node) & mask;
+        while (idTable[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        idTable[slot] = id + 1;
+    }
+
+    /**
+     * Returns the id of the node, or -1 if it was not part of the tree
+     * when this snapshot was built.
+     */
+    public int idOf(Node node) {
+        int mask = idTable.length - 1;
+        int slot = System.identityHashCode(node) & mask;
+        int entry;
+        while ((entry = idTable[slot]) != 0) {
+            if (nodes[entry - 1] == node) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /** Returns the number of nodes in the tree. */
+    public int size() {
+        return nodes.length;
+    }
+
+    /** Returns the node with the given id. */
+    public Node node(int id) {
+        return nodes[id];
+    }
+
+    /** Returns the id of the parent of the node, or -1 for the root. */
+    public int parent(int id) {
+        return parent[id];
+    }
+
+    /** Returns the id of the first child of the node, or -1 if it has none. */
+    public int firstChild(int id) {
+        return firstChild[id];
+    }
+
+    /** Returns the id of the next sibling of the node, or -1 if it is the last child. */
+    public int nextSibling(int id) {
+        return nextSibling[id];
+    }
+
+    /** Returns the id following the last descendant of the node. */
+    public int subtreeEnd(int id) {
+        return subtreeEnd[id];
+    }
+
+    /** Returns the kind id of the node. */
+    public int kind(int id) {
+        return kind[id];
+    }
+
+    /** Returns the number of distinct kinds in the tree. */
+    public int numKinds() {
+        return kindClasses.length;
+    }
+
+    /** Returns the node class corresponding to a kind id. */
+    public Class<?> kindClass(int kind) {
+        return kindClasses[kind];
+    }
+
+    /** Returns the start offset of the text region of the node. */
+    public int startOffset(int id) {
+        computeOffsets();
+        return startOffset[id];
+    }
+
+    /** Returns the end offset (exclusive) of the text region of the node. */
+    public int endOffset(int id) {
+        computeOffsets();
+        return endOffset[id];
+    }
+
+    private void computeOffsets() {
+        if (startOffset == null) {
+            int[] starts = new int[nodes.length];
+            int[] ends = new int[nodes.length];
+            for (int i = 0; i < nodes.length; i++) {
+                TextRegion region = nodes[i].getTextRegion();
+                starts[i] = region.getStartOffset();
+                ends[i] = region.getEndOffset();
+            }
+            this.endOffset = ends;
+            this.startOffset = starts;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CompactTree[" + nodes.length + " nodes]";
+    }
+}
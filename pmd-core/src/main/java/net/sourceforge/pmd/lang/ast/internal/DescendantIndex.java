@@ -0,0 +1,174 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.ast.internal;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.ast.RootNode;
+import net.sourceforge.pmd.util.DataMap;
+import net.sourceforge.pmd.util.DataMap.SimpleDataKey;
+
+/**
+ * Index of a tree that answers {@link Node#descendants(Class)} queries
+ * without walking the subtree. The index is built over the {@link CompactTree}
+ * of the tree, whose ids are in document order, so that the descendants of a
+ * node are the contiguous range of ids between the node and the end of its
+ * subtree. For each queried node type, the index keeps the sorted ids of the
+ * nodes of that type, so a query is a binary search in that array.
+ * Find boundaries are respected by recording, for each node, the id
+ * of its closest ancestor that is a find boundary.
+ *
+ * <p>The index is only used once it has been {@linkplain #enable(RootNode) enabled}
+ * on a tree, which must happen when the tree is not mutated anymore.
+ * It is then built lazily on the first query. Until then, descendant
+ * streams walk the tree.
+ */
+public final class DescendantIndex {
+
+    private static final SimpleDataKey<DescendantIndex> INDEX_KEY = DataMap.simpleDataKey("ast.descendant.index");
+
+    private final RootNode root;
+    private CompactTree tree;
+
+    /** Id of the closest strict ancestor that is a find boundary, or -1. */
+    private int[] boundaryAncestor;
+    /** Ids of the nodes of each queried type, in order. Computed on demand. */
+    private final Map<Class<?>, int[]> byQueriedType = new HashMap<>();
+
+    private DescendantIndex(RootNode root) {
+        this.root = root;
+    }
+
+    /**
+     * Allow descendant streams on the given tree to use an index. The
+     * tree must not be mutated after this has been called.
+     */
+    public static void enable(RootNode root) {
+        root.getUserMap().computeIfAbsent(INDEX_KEY, () -> new DescendantIndex(root));
+    }
+
+    /**
+     * Returns an iterator over the descendants of the node that are
+     * instances of the given type, in document order. Returns null if
+     * no index is available for the tree of the node.
+     */
+    static @Nullable Iterator<Node> descendantsOfType(Node node, Class<?> type, boolean crossFindBoundaries) {
+        DescendantIndex index = forTree(node);
+        return index == null ? null : index.query(node, type, crossFindBoundaries);
+    }
+
+    private static @Nullable DescendantIndex forTree(Node node) {
+        // don't use Node::getRoot, this may be a tree under construction
+        Node top = node;
+        while (top.getParent() != null) {
+            top = top.getParent();
+        }
+        return top instanceof RootNode ? top.getUserMap().get(INDEX_KEY) : null;
+    }
+
+    private @Nullable Iterator<Node> query(Node node, Class<?> type, boolean crossFindBoundaries) {
+        if (tree == null) {
+            build();
+        }
+        int top = tree.idOf(node);
+        if (top < 0) {
+            // not part of the tree when it was indexed
+            return null;
+        }
+        int[] ofType = idsOfType(type);
+        int from = lowerBound(ofType, top + 1);
+        int to = lowerBound(ofType, tree.subtreeEnd(top));
+        return new SliceIterator(ofType, from, to, crossFindBoundaries ? Integer.MAX_VALUE : top);
+    }
+
+    private int[] idsOfType(Class<?> type) {
+        int[] result = byQueriedType.get(type);
+        if (result == null) {
+            boolean[] matchingKinds = new boolean[tree.numKinds()];
+            for (int k = 0; k < matchingKinds.length; k++) {
+                matchingKinds[k] = type.isAssignableFrom(tree.kindClass(k));
+            }
+            int[] ids = new int[tree.size()];
+            int size = 0;
+            for (int id = 0; id < ids.length; id++) {
+                if (matchingKinds[tree.kind(id)]) {
+                    ids[size++] = id;
+                }
+            }
+            result = Arrays.copyOf(ids, size);
+            byQueriedType.put(type, result);
+        }
+        return result;
+    }
+
+    private void build() {
+        CompactTree compact = CompactTree.of(root);
+        int[] boundaries = new int[compact.size()];
+        boundaries[0] = -1;
+        // parents have a smaller id than their children
+        for (int id = 1; id < boundaries.length; id++) {
+            int parent = compact.parent(id);
+            boundaries[id] = compact.node(parent).isFindBoundary() ? parent : boundaries[parent];
+        }
+        this.boundaryAncestor = boundaries;
+        this.tree = compact;
+    }
+
+    /** Returns the index of the first element that is greater or equal to the key. */
+    private static int lowerBound(int[] sorted, int key) {
+        int idx = Arrays.binarySearch(sorted, key);
+        return idx >= 0 ? idx : -idx - 1;
+    }
+
+    /**
+     * Iterates over a slice of node ids. If the top is not {@link Integer#MAX_VALUE},
+     * nodes that have a find boundary between themselves and the top are skipped.
+     */
+    private final class SliceIterator implements Iterator<Node> {
+
+        private final int[] ids;
+        private final int to;
+        private final int top;
+        private int i;
+
+        SliceIterator(int[] ids, int from, int to, int top) {
+            this.ids = ids;
+            this.i = from;
+            this.to = to;
+            this.top = top;
+            skipHidden();
+        }
+
+        private void skipHidden() {
+            // a node is reachable if its closest boundary ancestor
+            // is the top node or one of the ancestors of the top node.
+            while (i < to && boundaryAncestor[ids[i]] > top) {
+                i++;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return i < to;
+        }
+
+        @Override
+        public Node next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Node next = tree.node(ids[i++]);
+            skipHidden();
+            return next;
+        }
+    }
+}
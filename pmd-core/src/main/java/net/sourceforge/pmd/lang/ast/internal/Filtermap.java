@@ -97,6 +97,16 @@ interface Filtermap<I, O> extends Function<@NonNull I, @Nullable O>, Predicate<@
     }
 
 
+    static <I, O> Filtermap<I, O> map(Function<@NonNull ? super I, @Nullable ? extends O> fun) {
+        if (fun instanceof Filtermap) {
+            @SuppressWarnings("unchecked")
+            Filtermap<I, O> filtermap = (Filtermap<I, O>) fun;
+            return filtermap;
+        }
+        return i -> i == null ? null : fun.apply(i);
+    }
+
+
     static <I extends O, O> Filtermap<I, O> filter(Predicate<? super @NonNull I> pred) {
         return i -> i != null && pred.test(i) ? i : null;
     }
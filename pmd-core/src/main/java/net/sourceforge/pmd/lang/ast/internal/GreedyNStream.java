@@ -4,6 +4,7 @@
 
 package net.sourceforge.pmd.lang.ast.internal;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Spliterator;
@@ -30,6 +31,19 @@ abstract class GreedyNStream<T extends Node> extends IteratorBasedNStream<T> {
         return StreamImpl.fromNonNullList(IteratorUtil.toNonNullList(fun.apply(iterator())));
     }
 
+    @Override
+    protected <R extends Node> NodeStream<R> filterMap(Filtermap<? super T, ? extends R> filtermap) {
+        // loop on the list directly, no need to create iterators
+        List<R> result = new ArrayList<>();
+        for (T t : toList()) {
+            R r = filtermap.apply(t);
+            if (r != null) {
+                result.add(r);
+            }
+        }
+        return StreamImpl.fromNonNullList(result);
+    }
+
     @Override
     public T first() {
         return toList().get(0);
@@ -7,6 +7,7 @@ package net.sourceforge.pmd.lang.ast.internal;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Spliterator;
 import java.util.Spliterators;
@@ -62,17 +63,27 @@ abstract class IteratorBasedNStream<T extends Node> implements NodeStream<T> {
 
     @Override
     public <R extends Node> NodeStream<@NonNull R> map(Function<? super T, ? extends @Nullable R> mapper) {
-        return mapIter(iter -> IteratorUtil.mapNotNull(iter, mapper));
+        return filterMap(Filtermap.map(mapper));
     }
 
     @Override
     public NodeStream<T> filter(Predicate<? super @NonNull T> predicate) {
-        return mapIter(it -> IteratorUtil.mapNotNull(it, Filtermap.filter(predicate)));
+        return filterMap(Filtermap.filter(predicate));
     }
 
     @Override
     public <R extends Node> NodeStream<R> filterIs(Class<? extends R> rClass) {
-        return mapIter(it -> IteratorUtil.mapNotNull(it, Filtermap.isInstance(rClass)));
+        return filterMap(Filtermap.isInstance(rClass));
+    }
+
+    /**
+     * Implements {@link #map(Function)}, {@link #filter(Predicate)} and
+     * {@link #filterIs(Class)}. The default returns a stream that fuses
+     * consecutive operations into a single filtermap, so that iterating
+     * a pipeline creates a single iterator on top of this stream's iterator.
+     */
+    protected <R extends Node> NodeStream<R> filterMap(Filtermap<? super T, ? extends R> filtermap) {
+        return new FilterMapped<>(this, filtermap, 0, Integer.MAX_VALUE);
     }
 
     @Override
@@ -257,6 +268,108 @@ abstract class IteratorBasedNStream<T extends Node> implements NodeStream<T> {
     }
 
 
+    /**
+     * A stream that applies a filtermap to the elements of an upstream,
+     * then drops and takes some of the results. Consecutive {@link #filterMap(Filtermap)},
+     * {@link #take(int)} and {@link #drop(int)} calls are fused into a
+     * single instance, whose iterator does all the work in one cursor.
+     */
+    private static final class FilterMapped<I extends Node, O extends Node> extends IteratorBasedNStream<O> {
+
+        private final NodeStream<? extends I> upstream;
+        private final Filtermap<? super I, ? extends O> filtermap;
+        /** Number of results to drop. */
+        private final int skip;
+        /** Max number of results to yield after dropping, {@link Integer#MAX_VALUE} if there is no limit. */
+        private final int limit;
+
+        FilterMapped(NodeStream<? extends I> upstream, Filtermap<? super I, ? extends O> filtermap, int skip, int limit) {
+            this.upstream = upstream;
+            this.filtermap = filtermap;
+            this.skip = skip;
+            this.limit = limit;
+        }
+
+        private boolean isSliced() {
+            return skip != 0 || limit != Integer.MAX_VALUE;
+        }
+
+        @Override
+        protected <R extends Node> NodeStream<R> filterMap(Filtermap<? super O, ? extends R> next) {
+            if (isSliced()) {
+                // filtering after a take/drop is not the same as filtering before
+                return super.filterMap(next);
+            }
+            return new FilterMapped<>(upstream, filtermap.thenApply(next), 0, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public NodeStream<O> take(int maxSize) {
+            AssertionUtil.requireNonNegative("maxSize", maxSize);
+            if (maxSize == 0) {
+                return NodeStream.empty();
+            }
+            return new FilterMapped<>(upstream, filtermap, skip, Math.min(limit, maxSize));
+        }
+
+        @Override
+        public NodeStream<O> drop(int n) {
+            AssertionUtil.requireNonNegative("n", n);
+            if (n == 0) {
+                return this;
+            } else if (limit != Integer.MAX_VALUE && n >= limit) {
+                return NodeStream.empty();
+            }
+            int newSkip = skip + n < 0 ? Integer.MAX_VALUE : skip + n; // saturate
+            int newLimit = limit == Integer.MAX_VALUE ? limit : limit - n;
+            return new FilterMapped<>(upstream, filtermap, newSkip, newLimit);
+        }
+
+        @Override
+        public Iterator<O> iterator() {
+            return new Cursor();
+        }
+
+        private final class Cursor implements Iterator<O> {
+
+            private final Iterator<? extends I> source = upstream.iterator();
+            private int toSkip = skip;
+            private int remaining = limit;
+            private @Nullable O next;
+
+            @Override
+            public boolean hasNext() {
+                if (next != null) {
+                    return true;
+                }
+                while (remaining > 0 && source.hasNext()) {
+                    O o = filtermap.apply(source.next());
+                    if (o == null) {
+                        continue;
+                    } else if (toSkip > 0) {
+                        toSkip--;
+                        continue;
+                    }
+                    next = o;
+                    return true;
+                }
+                return false;
+            }
+
+            @Override
+            public O next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                O result = next;
+                next = null;
+                remaining--;
+                return result;
+            }
+        }
+    }
+
+
     private static class DescendantMapping<T extends Node, S extends Node> extends IteratorBasedNStream<S> implements DescendantNodeStream<S> {
 
         private final Function<? super T, ? extends DescendantNodeStream<? extends S>> fun;
@@ -92,6 +92,12 @@ final class SingletonNodeStream<T extends Node> extends IteratorBasedNStream<T>
         return predicate.test(node) ? this : NodeStream.empty();
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R extends Node> NodeStream<R> filterIs(Class<? extends R> rClass) {
+        return rClass.isInstance(node) ? (NodeStream<R>) this : NodeStream.empty();
+    }
+
     @Override
     public NodeStream<T> drop(int n) {
         AssertionUtil.requireNonNegative("n", n);
@@ -29,7 +29,7 @@ import net.sourceforge.pmd.lang.ast.internal.AxisStream.DescendantOrSelfStream;
 import net.sourceforge.pmd.lang.ast.internal.AxisStream.DescendantStream;
 import net.sourceforge.pmd.lang.ast.internal.AxisStream.FilteredAncestorOrSelfStream;
 import net.sourceforge.pmd.lang.ast.internal.AxisStream.FilteredChildrenStream;
-import net.sourceforge.pmd.lang.ast.internal.AxisStream.FilteredDescendantStream;
+import net.sourceforge.pmd.lang.ast.internal.AxisStream.TypedDescendantStream;
 import net.sourceforge.pmd.lang.ast.internal.GreedyNStream.GreedyKnownNStream;
 import net.sourceforge.pmd.util.IteratorUtil;
 
@@ -114,7 +114,7 @@ public final class StreamImpl {
 
     public static <R extends Node> DescendantNodeStream<R> descendants(@NonNull Node node, Class<? extends R> rClass) {
         return node.getNumChildren() == 0 ? empty()
-                                          : new FilteredDescendantStream<>(node, TreeWalker.DEFAULT, Filtermap.isInstance(rClass));
+                                          : new TypedDescendantStream<>(node, TreeWalker.DEFAULT, rClass, Filtermap.isInstance(rClass));
     }
 
     public static DescendantNodeStream<Node> descendantsOrSelf(@NonNull Node node) {
@@ -216,6 +216,11 @@ public final class StreamImpl {
             return StreamImpl.empty();
         }
 
+        @Override
+        protected <R extends Node> NodeStream<R> filterMap(Filtermap<? super N, ? extends R> filtermap) {
+            return StreamImpl.empty();
+        }
+
         @Override
         protected @NonNull <R extends Node> DescendantNodeStream<R> flatMapDescendants(Function<N, DescendantNodeStream<? extends R>> mapper) {
             return StreamImpl.empty();
@@ -94,6 +94,22 @@ final class TraversalUtils {
     }
 
 
+    /**
+     * Returns the index following the n-th child matching the filter
+     * in the given range, or the end of the range if fewer children
+     * match.
+     */
+    static int indexAfterMatches(final Node node, final Filtermap<? super Node, ?> filter, int from, int len, int n) {
+        int i = from;
+        int remaining = n;
+        for (final int last = from + len; remaining > 0 && i < last; i++) {
+            if (filter.apply(node.getChild(i)) != null) {
+                remaining--;
+            }
+        }
+        return i;
+    }
+
     static Iterator<Node> childrenIterator(Node parent, final int from, final int to) {
         assert parent != null : "parent should not be null";
         assert from >= 0 && from <= parent.getNumChildren() : "'from' should be a valid index";
@@ -55,7 +55,7 @@ abstract class PmdRunnable implements Runnable {
     public void run() throws FileAnalysisException {
         TimeTracker.initThread();
 
-        try (TimedOperation ignored = TimeTracker.startOperation(TimedOperationCategory.FILE_PROCESSING);
+        try (TimedOperation ignored = TimeTracker.startFileProcessing(textFile.getFileId().getOriginalPath());
              FileAnalysisListener listener = task.getListener().startFileAnalysis(textFile)) {
 
             RuleSets ruleSets = getRulesets();
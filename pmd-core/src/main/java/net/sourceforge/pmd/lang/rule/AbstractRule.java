@@ -11,17 +11,25 @@ import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 import net.sourceforge.pmd.Rule;
 import net.sourceforge.pmd.RuleContext;
 import net.sourceforge.pmd.RulePriority;
+import net.sourceforge.pmd.annotation.InternalApi;
 import net.sourceforge.pmd.lang.Language;
 import net.sourceforge.pmd.lang.LanguageVersion;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.ast.RootNode;
+import net.sourceforge.pmd.lang.rule.xpath.PmdXPathException;
+import net.sourceforge.pmd.lang.rule.xpath.XPathVersion;
+import net.sourceforge.pmd.lang.rule.xpath.impl.XPathHandler;
+import net.sourceforge.pmd.lang.rule.xpath.internal.DeprecatedAttrLogger;
+import net.sourceforge.pmd.lang.rule.xpath.internal.SaxonXPathRuleQuery;
 import net.sourceforge.pmd.properties.AbstractPropertySource;
 import net.sourceforge.pmd.properties.PropertyDescriptor;
 
@@ -49,6 +57,10 @@ public abstract class AbstractRule extends AbstractPropertySource implements Rul
     private Set<String> ruleChainVisits = new LinkedHashSet<>();
     private Set<Class<? extends Node>> classRuleChainVisits = new LinkedHashSet<>();
     private RuleTargetSelector myStrategy;
+    // the compiled violationSuppressXPath, and the handler it was compiled with,
+    // reset when any property changes since they are bound to its variables
+    private SaxonXPathRuleQuery suppressXPathQuery;
+    private XPathHandler suppressXPathHandler;
 
     public AbstractRule() {
         definePropertyDescriptor(Rule.VIOLATION_SUPPRESS_REGEX_DESCRIPTOR);
@@ -356,6 +368,72 @@ public abstract class AbstractRule extends AbstractPropertySource implements Rul
         asCtx(data).addViolationWithMessage(node, message, args);
     }
 
+    /**
+     * Returns the compiled expression of the {@linkplain Rule#VIOLATION_SUPPRESS_XPATH_DESCRIPTOR violationSuppressXPath}
+     * property of the given rule, or null if the property is not set. For
+     * instances of this class, and rules that delegate to one, the expression
+     * is compiled once and cached, until a property of the rule or the handler change.
+     *
+     * @param rule         A rule
+     * @param xpathHandler The XPath handler of the language processor
+     *
+     * @throws PmdXPathException If the expression is invalid
+     */
+    @InternalApi
+    public static @Nullable SaxonXPathRuleQuery getViolationSuppressXPathQuery(Rule rule, XPathHandler xpathHandler) {
+        Rule target = rule;
+        while (target instanceof AbstractDelegateRule) {
+            target = ((AbstractDelegateRule) target).getRule();
+        }
+        if (target instanceof AbstractRule) {
+            return ((AbstractRule) target).getViolationSuppressXPathQuery(xpathHandler);
+        }
+        return rule.getProperty(VIOLATION_SUPPRESS_XPATH_DESCRIPTOR)
+                   .map(xpath -> compileSuppressXPath(rule, xpath, xpathHandler))
+                   .orElse(null);
+    }
+
+    private @Nullable SaxonXPathRuleQuery getViolationSuppressXPathQuery(XPathHandler xpathHandler) {
+        Optional<String> xpath = getProperty(VIOLATION_SUPPRESS_XPATH_DESCRIPTOR);
+        if (!xpath.isPresent()) {
+            return null;
+        }
+        SaxonXPathRuleQuery query = suppressXPathQuery;
+        if (query == null
+            || suppressXPathHandler != xpathHandler) { // NOPMD CompareObjectsWithEquals
+            query = compileSuppressXPath(this, xpath.get(), xpathHandler);
+            suppressXPathQuery = query;
+            suppressXPathHandler = xpathHandler;
+        }
+        return query;
+    }
+
+    @Override
+    public void definePropertyDescriptor(PropertyDescriptor<?> propertyDescriptor) {
+        super.definePropertyDescriptor(propertyDescriptor);
+        suppressXPathQuery = null;
+    }
+
+    @Override
+    public <T> void setProperty(PropertyDescriptor<T> propertyDescriptor, T value) {
+        super.setProperty(propertyDescriptor, value);
+        suppressXPathQuery = null;
+    }
+
+    private static SaxonXPathRuleQuery compileSuppressXPath(Rule rule, String xpath, XPathHandler xpathHandler) {
+        try {
+            return new SaxonXPathRuleQuery(
+                xpath,
+                XPathVersion.DEFAULT,
+                rule.getPropertiesByPropertyDescriptor(),
+                xpathHandler,
+                DeprecatedAttrLogger.createForSuppression(rule)
+            );
+        } catch (PmdXPathException e) {
+            throw e.addRuleName(rule.getName());
+        }
+    }
+
     /**
      * Rules are equal if:
      * <ol>
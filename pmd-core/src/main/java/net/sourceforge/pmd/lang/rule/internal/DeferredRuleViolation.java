@@ -0,0 +1,176 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.rule.internal;
+
+import java.text.MessageFormat;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.commons.lang3.StringUtils;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.document.FileLocation;
+import net.sourceforge.pmd.lang.document.TextDocument;
+import net.sourceforge.pmd.lang.rule.ParametricRuleViolation;
+import net.sourceforge.pmd.properties.PropertyDescriptor;
+import net.sourceforge.pmd.reporting.ViolationDecorator;
+
+/**
+ * A violation whose message and additional info are computed the first
+ * time they are requested. Until then, it only holds the rule, the location,
+ * the message template and its arguments. This way violations that are
+ * suppressed, or dropped by a listener, never pay for decoration and
+ * message formatting.
+ *
+ * <p>The node is kept until the message is computed. Listeners that
+ * retain violations beyond the analysis of the file should retain the
+ * result of {@link #materialize(RuleViolation)} instead, so that the AST
+ * can be garbage collected.
+ */
+public final class DeferredRuleViolation implements RuleViolation {
+
+    private final Rule rule;
+    private final FileLocation location;
+
+    // these are cleared when the message is computed
+    private Node node;
+    private ViolationDecorator decorator;
+    private String message;
+    private Object[] formatArgs;
+
+    // written last, guards the additional info
+    private volatile String description;
+    private Map<String, String> additionalInfo;
+
+    public DeferredRuleViolation(Rule rule,
+                                 FileLocation location,
+                                 Node node,
+                                 ViolationDecorator decorator,
+                                 String message,
+                                 Object[] formatArgs) {
+        this.rule = Objects.requireNonNull(rule, "Rule was null");
+        this.location = Objects.requireNonNull(location, "Location was null");
+        this.node = Objects.requireNonNull(node, "Node was null");
+        this.decorator = Objects.requireNonNull(decorator, "Decorator was null");
+        this.message = Objects.requireNonNull(message, "Message was null");
+        this.formatArgs = Objects.requireNonNull(formatArgs, "Format arguments were null, use an empty array");
+    }
+
+    @Override
+    public Rule getRule() {
+        return rule;
+    }
+
+    @Override
+    public FileLocation getLocation() {
+        return location;
+    }
+
+    @Override
+    public String getDescription() {
+        String desc = description;
+        if (desc == null) {
+            desc = computeLazily();
+        }
+        return desc;
+    }
+
+    @Override
+    public Map<String, String> getAdditionalInfo() {
+        if (description == null) {
+            computeLazily();
+        }
+        return additionalInfo;
+    }
+
+    private synchronized String computeLazily() {
+        if (description == null) {
+            Map<String, String> extraVars = ViolationDecorator.apply(decorator, node);
+            String desc = makeMessage(rule, message, formatArgs, extraVars);
+            additionalInfo = extraVars;
+            description = desc;
+
+            node = null;
+            decorator = null;
+            message = null;
+            formatArgs = null;
+        }
+        return description;
+    }
+
+    /**
+     * Returns the document of the node of this violation, or null if its
+     * message was already computed. Listeners may use it to read the source
+     * of the violation, without reading the file again.
+     */
+    public @Nullable TextDocument getTextDocument() {
+        Node n = node;
+        return n == null ? null : n.getTextDocument();
+    }
+
+    /**
+     * Returns a violation that does not refer to the AST: the parameter
+     * if it is not deferred, otherwise a plain violation with the same
+     * rule, location, message and additional info. Listeners that retain
+     * violations beyond the analysis of the file should only retain the
+     * result.
+     */
+    public static RuleViolation materialize(RuleViolation violation) {
+        if (violation instanceof DeferredRuleViolation) {
+            DeferredRuleViolation deferred = (DeferredRuleViolation) violation;
+            return new ParametricRuleViolation(deferred.getRule(), deferred.getLocation(),
+                                               deferred.getDescription(), deferred.getAdditionalInfo());
+        }
+        return violation;
+    }
+
+    @Override
+    public String toString() {
+        return getLocation().startPosToStringWithFile() + ':' + getRule() + ':' + getDescription();
+    }
+
+    private static String makeMessage(Rule rule, @NonNull String message, Object[] args, Map<String, String> extraVars) {
+        // Escape PMD specific variable message format, specifically the {
+        // in the ${, so MessageFormat doesn't bitch.
+        final String escapedMessage = StringUtils.replace(message, "${", "$'{'");
+        String formatted = MessageFormat.format(escapedMessage, args);
+        return expandVariables(rule, formatted, extraVars);
+    }
+
+
+    private static String expandVariables(Rule rule, String message, Map<String, String> extraVars) {
+
+        if (!message.contains("${")) {
+            return message;
+        }
+
+        StringBuilder buf = new StringBuilder(message);
+        int startIndex = -1;
+        while ((startIndex = buf.indexOf("${", startIndex + 1)) >= 0) {
+            final int endIndex = buf.indexOf("}", startIndex);
+            if (endIndex >= 0) {
+                final String name = buf.substring(startIndex + 2, endIndex);
+                String variableValue = getVariableValue(rule, name, extraVars);
+                if (variableValue != null) {
+                    buf.replace(startIndex, endIndex + 1, variableValue);
+                }
+            }
+        }
+        return buf.toString();
+    }
+
+    private static @Nullable String getVariableValue(Rule rule, String name, Map<String, String> extraVars) {
+        String value = extraVars.get(name);
+        if (value != null) {
+            return value;
+        }
+        final PropertyDescriptor<?> propertyDescriptor = rule.getPropertyDescriptor(name);
+        return propertyDescriptor == null ? null : String.valueOf(rule.getProperty(propertyDescriptor));
+    }
+}
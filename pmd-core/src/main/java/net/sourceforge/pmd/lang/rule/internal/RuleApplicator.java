@@ -22,6 +22,7 @@ import net.sourceforge.pmd.internal.SystemProps;
 import net.sourceforge.pmd.lang.LanguageVersion;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.ast.RootNode;
+import net.sourceforge.pmd.lang.ast.internal.DescendantIndex;
 import net.sourceforge.pmd.reporting.FileAnalysisListener;
 import net.sourceforge.pmd.util.AssertionUtil;
 import net.sourceforge.pmd.util.StringUtil;
@@ -30,8 +31,8 @@ import net.sourceforge.pmd.util.StringUtil;
 public class RuleApplicator {
 
     private static final Logger LOG = LoggerFactory.getLogger(RuleApplicator.class);
-    // we reuse the type lattice from run to run, eventually it converges
-    // towards the final topology (all node types have been encountered)
+    // we reuse the index from run to run, the slots of each node class
+    // are computed once, when that class is first encountered.
     // This has excellent performance! Indexing time is insignificant
     // compared to rule application for any non-trivial ruleset. Even
     // when you use a single rule, indexing time is insignificant compared
@@ -49,6 +50,9 @@ public class RuleApplicator {
         idx.reset();
         indexTree(root, idx);
         currentLangVer = root.getLanguageVersion();
+        // the tree is final from now on, descendant queries of the rules
+        // may use an index, which is built on the first such query
+        DescendantIndex.enable(root);
     }
 
     public void apply(Collection<? extends Rule> rules, FileAnalysisListener listener) {
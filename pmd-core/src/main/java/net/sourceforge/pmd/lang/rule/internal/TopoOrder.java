@@ -9,8 +9,8 @@ import java.util.Collections;
 import java.util.List;
 
 /**
- * Represents a partial order on a type {@code <K>}. This is used to
- * generate the internal data structure of {@link LatticeRelation}s.
+ * Represents a partial order on a type {@code <K>}. This is used by
+ * the {@link TreeIndex} to find the queried supertypes of node classes.
  */
 interface TopoOrder<K> {
 
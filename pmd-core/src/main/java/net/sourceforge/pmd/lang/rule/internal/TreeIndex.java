@@ -4,51 +4,115 @@
 
 package net.sourceforge.pmd.lang.rule.internal;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.util.IteratorUtil;
 
 /**
  * Index of an AST, for use by the {@link RuleApplicator}.
+ *
+ * <p>Each class that may be queried with {@link #getByClass(Collection)}
+ * is assigned a slot, which holds the nodes that are instances of that
+ * class in document order. The slots a concrete node class contributes
+ * to are computed once, the first time a node of that class is indexed,
+ * and reused for all the files processed by the same applicator. Indexing
+ * a node is then just a few array appends.
  */
 public class TreeIndex {
 
-    private final LatticeRelation<Class<?>, Node, Iterable<Node>> byClass;
+    private static final int[] NO_SLOTS = {};
+
     private final Set<String> interestingNames;
     private final Map<String, List<Node>> byName;
 
+    /** Slot index of each class that may be queried. */
+    private final Map<Class<?>, Integer> slotsByQueryClass;
+    /** Slots of the queried supertypes of each node class encountered so far. */
+    private final Map<Class<?>, int[]> slotsByNodeClass = new HashMap<>();
+    /** Nodes indexed in each slot, in document order. */
+    private final NodeBuffer[] byClass;
+
 
     public TreeIndex(Set<String> namesToIndex,
                      Set<Class<? extends Node>> classesToIndex) {
-
-        byClass = new LatticeRelation<>(
-            TopoOrder.TYPE_HIERARCHY_ORDERING,
-            classesToIndex,
-            Class::getSimpleName,
-            Collectors.toSet()
-        );
         this.interestingNames = namesToIndex;
-        byName = new HashMap<>();
+        this.byName = new HashMap<>();
+
+        this.slotsByQueryClass = new HashMap<>();
+        this.byClass = new NodeBuffer[classesToIndex.size()];
+        for (Class<? extends Node> klass : classesToIndex) {
+            int slot = slotsByQueryClass.size();
+            slotsByQueryClass.put(klass, slot);
+            byClass[slot] = new NodeBuffer();
+        }
     }
 
+    /**
+     * Index the node. Nodes must be indexed in document order for the
+     * results of queries to be in document order.
+     */
     void indexNode(Node n) {
         if (interestingNames.contains(n.getXPathNodeName())) {
             byName.computeIfAbsent(n.getXPathNodeName(), k -> new ArrayList<>()).add(n);
         }
-        byClass.put(n.getClass(), n);
+        for (int slot : slotsFor(n.getClass())) {
+            byClass[slot].add(n);
+        }
+    }
+
+    private int[] slotsFor(Class<?> nodeClass) {
+        int[] slots = slotsByNodeClass.get(nodeClass);
+        if (slots == null) {
+            slots = computeSlots(nodeClass);
+            slotsByNodeClass.put(nodeClass, slots);
+        }
+        return slots;
+    }
+
+    /** Collects the slots of all the queried supertypes of the class (including itself). */
+    private int[] computeSlots(Class<?> nodeClass) {
+        if (slotsByQueryClass.isEmpty()) {
+            return NO_SLOTS;
+        }
+        Set<Class<?>> seen = new HashSet<>();
+        Deque<Class<?>> toVisit = new ArrayDeque<>();
+        toVisit.add(nodeClass);
+
+        int[] slots = new int[slotsByQueryClass.size()];
+        int numSlots = 0;
+        while (!toVisit.isEmpty()) {
+            Class<?> klass = toVisit.removeFirst();
+            if (!seen.add(klass)) {
+                continue;
+            }
+            Integer slot = slotsByQueryClass.get(klass);
+            if (slot != null) {
+                slots[numSlots++] = slot;
+            }
+            for (Class<?> supertype : TopoOrder.TYPE_HIERARCHY_ORDERING.directSuccessors(klass)) {
+                toVisit.addLast(supertype);
+            }
+        }
+        return numSlots == 0 ? NO_SLOTS : Arrays.copyOf(slots, numSlots);
     }
 
     void reset() {
-        byClass.clearValues();
+        for (NodeBuffer buffer : byClass) {
+            buffer.clear();
+        }
         byName.clear();
     }
 
@@ -57,7 +121,8 @@ public class TreeIndex {
     }
 
     Iterator<Node> getByClass(Class<? extends Node> n) {
-        return byClass.get(n).iterator();
+        Integer slot = slotsByQueryClass.get(n);
+        return slot == null ? Collections.emptyIterator() : byClass[slot].iterator();
     }
 
 
@@ -68,4 +133,49 @@ public class TreeIndex {
     public Iterator<Node> getByClass(Collection<? extends Class<? extends Node>> n) {
         return IteratorUtil.flatMap(n.iterator(), this::getByClass);
     }
+
+    /**
+     * A growable array of nodes. The array is kept between files, only
+     * cleared, so that it is allocated only a few times per applicator.
+     */
+    private static final class NodeBuffer {
+
+        private Node[] nodes = new Node[16];
+        private int size;
+
+        void add(Node n) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+            }
+            nodes[size++] = n;
+        }
+
+        void clear() {
+            // don't retain the previous tree
+            Arrays.fill(nodes, 0, size, null);
+            size = 0;
+        }
+
+        Iterator<Node> iterator() {
+            if (size == 0) {
+                return Collections.emptyIterator();
+            }
+            return new Iterator<Node>() {
+                private int i;
+
+                @Override
+                public boolean hasNext() {
+                    return i < size;
+                }
+
+                @Override
+                public Node next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return nodes[i++];
+                }
+            };
+        }
+    }
 }
@@ -27,6 +27,7 @@ import net.sf.saxon.type.Type;
 class AstAttributeNode extends BaseNodeInfo implements SiblingCountingNode {
 
 
+    private final AstElementNode parent;
     private final Attribute attribute;
     private AtomicSequence value;
     private final SchemaType schemaType;
@@ -34,13 +35,19 @@ class AstAttributeNode extends BaseNodeInfo implements SiblingCountingNode {
 
 
     AstAttributeNode(AstElementNode parent, Attribute attribute, int siblingPosition) {
-        super(Type.ATTRIBUTE, parent.getNamePool(), attribute.getName(), parent);
+        super(Type.ATTRIBUTE, parent.getNamePool(), attribute.getName());
+        this.parent = parent;
         this.attribute = attribute;
         this.schemaType = DomainConversion.buildType(attribute.getType());
         this.siblingPosition = siblingPosition;
         this.treeInfo = parent.getTreeInfo();
     }
 
+    @Override
+    public AstElementNode getParent() {
+        return parent;
+    }
+
     @Override
     List<AstElementNode> getChildren() {
         return Collections.emptyList();
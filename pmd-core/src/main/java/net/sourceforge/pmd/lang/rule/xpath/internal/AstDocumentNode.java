@@ -8,8 +8,6 @@ import java.util.Collections;
 import java.util.List;
 import java.util.function.Predicate;
 
-import org.apache.commons.lang3.mutable.MutableInt;
-
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.ast.RootNode;
 
@@ -25,25 +23,28 @@ import net.sf.saxon.type.Type;
  */
 class AstDocumentNode extends BaseNodeInfo implements AstNodeOwner {
 
-    private final AstElementNode rootElement;
-    private final List<AstElementNode> children;
+    private final RootNode wrappedNode;
 
     AstDocumentNode(AstTreeInfo document,
-                    MutableInt idGenerator,
                     RootNode wrappedNode,
                     Configuration configuration) {
-        super(Type.DOCUMENT, configuration.getNamePool(), "", null);
-        this.rootElement = new AstElementNode(document, idGenerator, this, wrappedNode, configuration);
-        this.children = Collections.singletonList(rootElement);
+        super(Type.DOCUMENT, configuration.getNamePool(), "");
+        this.treeInfo = document;
+        this.wrappedNode = wrappedNode;
+    }
+
+    @Override
+    public BaseNodeInfo getParent() {
+        return null;
     }
 
     @Override
     List<AstElementNode> getChildren() {
-        return children;
+        return Collections.singletonList(getRootElement());
     }
 
     public AstElementNode getRootElement() {
-        return rootElement;
+        return getTreeInfo().wrapper(0);
     }
 
     @Override
@@ -53,7 +54,15 @@ class AstDocumentNode extends BaseNodeInfo implements AstNodeOwner {
 
     @Override
     protected AxisIterator iterateChildren(Predicate<? super NodeInfo> nodeTest) {
-        return filter(nodeTest, iterateList(children));
+        return getTreeInfo().iterateRange(0, 1, nodeTest);
+    }
+
+    @Override
+    protected AxisIterator iterateDescendants(Predicate<? super NodeInfo> nodeTest, boolean includeSelf) {
+        if (includeSelf) {
+            return super.iterateDescendants(nodeTest, true);
+        }
+        return getTreeInfo().iterateRange(0, getTreeInfo().getCompactTree().size(), nodeTest);
     }
 
     @Override
@@ -70,7 +79,7 @@ class AstDocumentNode extends BaseNodeInfo implements AstNodeOwner {
     public Node getUnderlyingNode() {
         // this is a concession to the model, so that the expression "/"
         // may be interpreted as the root node
-        return rootElement.getUnderlyingNode();
+        return wrappedNode;
     }
 
     @Override
@@ -5,6 +5,7 @@
 package net.sourceforge.pmd.lang.rule.xpath.internal;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -12,19 +13,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.function.Predicate;
 
-import org.apache.commons.lang3.mutable.MutableInt;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.ast.RootNode;
+import net.sourceforge.pmd.lang.ast.internal.CompactTree;
 import net.sourceforge.pmd.lang.rule.xpath.Attribute;
-import net.sourceforge.pmd.util.CollectionUtil;
 
-import net.sf.saxon.Configuration;
 import net.sf.saxon.om.NodeInfo;
 import net.sf.saxon.pattern.NameTest;
 import net.sf.saxon.tree.iter.AxisIterator;
-import net.sf.saxon.tree.iter.EmptyIterator;
 import net.sf.saxon.tree.iter.LookaheadIterator;
 import net.sf.saxon.tree.iter.SingleNodeIterator;
 import net.sf.saxon.tree.util.FastStringBuffer;
@@ -40,30 +38,23 @@ import net.sf.saxon.type.Type;
 public final class AstElementNode extends BaseNodeInfo implements SiblingCountingNode, AstNodeOwner {
 
     private final Node wrappedNode;
-    /** The index of the node in the tree according to document order */
+    /** The id of the node in the {@link CompactTree}, ie its index in document order. */
     private final int id;
 
-    private final List<AstElementNode> children;
     private @Nullable Map<String, AstAttributeNode> attributes;
     private @Nullable Map<String, Attribute> lightAttributes;
+    private @Nullable List<AstElementNode> children;
 
 
     AstElementNode(AstTreeInfo document,
-                   MutableInt idGenerator,
-                   BaseNodeInfo parent,
+                   int id,
                    Node wrappedNode,
-                   Configuration configuration) {
-        super(determineType(wrappedNode), configuration.getNamePool(), wrappedNode.getXPathNodeName(), parent);
+                   int fingerprint) {
+        super(determineType(wrappedNode), document.getConfiguration().getNamePool(), fingerprint);
 
         this.treeInfo = document;
         this.wrappedNode = wrappedNode;
-        this.id = idGenerator.getAndIncrement();
-
-        this.children = new ArrayList<>(wrappedNode.getNumChildren());
-
-        for (int i = 0; i < wrappedNode.getNumChildren(); i++) {
-            children.add(new AstElementNode(document, idGenerator, this, wrappedNode.getChild(i), configuration));
-        }
+        this.id = id;
     }
 
     private static int determineType(Node node) {
@@ -108,13 +99,24 @@ public final class AstElementNode extends BaseNodeInfo implements SiblingCountin
         return lightAttributes;
     }
 
+    @Override
+    public BaseNodeInfo getParent() {
+        return getTreeInfo().parentOf(id);
+    }
+
     @Override
     public boolean hasChildNodes() {
-        return !children.isEmpty();
+        return wrappedNode.getNumChildren() > 0;
     }
 
     @Override
     List<AstElementNode> getChildren() {
+        if (children == null) {
+            // the axes iterate the compact tree, this is only built once per wrapper
+            List<AstElementNode> list = new ArrayList<>(wrappedNode.getNumChildren());
+            iterateChildren(null).forEachNode(it -> list.add((AstElementNode) it));
+            children = Collections.unmodifiableList(list);
+        }
         return children;
     }
 
@@ -130,9 +132,7 @@ public final class AstElementNode extends BaseNodeInfo implements SiblingCountin
 
     @Override
     public int getSiblingPosition() {
-        BaseNodeInfo parent = getParent();
-        return !(parent instanceof AstElementNode) ? 0
-                                                   : id - ((AstElementNode) parent).id;
+        return id == 0 ? 0 : wrappedNode.getIndexInParent();
     }
 
     @Override
@@ -157,20 +157,20 @@ public final class AstElementNode extends BaseNodeInfo implements SiblingCountin
 
     @Override
     protected AxisIterator iterateChildren(Predicate<? super NodeInfo> nodeTest) {
-        return filter(nodeTest, iterateList(children));
+        return getTreeInfo().iterateChildren(id, nodeTest);
     }
 
     @Override // this excludes self
     protected AxisIterator iterateSiblings(Predicate<? super NodeInfo> nodeTest, boolean forwards) {
-        if (parent == null) {
-            return EmptyIterator.ofNodes();
-        }
-
-        List<? extends NodeInfo> siblingsList =
-            forwards ? CollectionUtil.drop(parent.getChildren(), wrappedNode.getIndexInParent() + 1)
-                     : CollectionUtil.take(parent.getChildren(), wrappedNode.getIndexInParent());
+        return forwards ? getTreeInfo().iterateFollowingSiblings(id, nodeTest)
+                        : getTreeInfo().iteratePrecedingSiblings(id, nodeTest);
+    }
 
-        return filter(nodeTest, iterateList(siblingsList, forwards));
+    @Override
+    protected AxisIterator iterateDescendants(Predicate<? super NodeInfo> nodeTest, boolean includeSelf) {
+        // descendants are the range of ids up to the end of the subtree
+        int from = includeSelf ? id : id + 1;
+        return getTreeInfo().iterateRange(from, getTreeInfo().getCompactTree().subtreeEnd(id), nodeTest);
     }
 
     @Override
@@ -198,7 +198,8 @@ public final class AstElementNode extends BaseNodeInfo implements SiblingCountin
 
     @Override
     public void generateId(FastStringBuffer buffer) {
-        buffer.append(Integer.toString(id));
+        // 0 is taken by the document node
+        buffer.append(Integer.toString(id + 1));
     }
 
     @Override
@@ -4,40 +4,41 @@
 
 package net.sourceforge.pmd.lang.rule.xpath.internal;
 
-import java.util.ArrayList;
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
-
-import org.apache.commons.lang3.mutable.MutableInt;
+import java.util.Arrays;
+import java.util.function.Predicate;
 
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.ast.RootNode;
+import net.sourceforge.pmd.lang.ast.internal.CompactTree;
 
 import net.sf.saxon.Configuration;
 import net.sf.saxon.om.GenericTreeInfo;
+import net.sf.saxon.om.NamePool;
+import net.sf.saxon.om.NodeInfo;
+import net.sf.saxon.pattern.AnyNodeTest;
+import net.sf.saxon.pattern.NameTest;
+import net.sf.saxon.tree.iter.AxisIterator;
 
 
 /**
  * A wrapper around the root node of an AST, implementing {@link net.sf.saxon.om.TreeInfo}.
+ *
+ * <p>The structure of the tree is read from the {@link CompactTree}
+ * of the AST. Element wrappers are only created when an axis reaches
+ * them, and there is at most one wrapper per node. Axes prefilter nodes
+ * by their fingerprint when the node test is a {@link NameTest}, so that
+ * eg {@code //MethodDeclaration} only creates wrappers for method declarations.
  */
 public final class AstTreeInfo extends GenericTreeInfo {
 
     private DeprecatedAttrLogger logger;
-    private final Map<Node, AstElementNode> wrapperCache = new LinkedHashMap<Node, AstElementNode>() {
-        @Override
-        protected boolean removeEldestEntry(Entry eldest) {
-            /*
-            hit ratio depending on cache size:
-            512: 61%
-            1024: 75%
-            2048: 82%
-            unbounded: 85%
-             */
-            return size() > 1024;
-        }
-    };
+
+    private final CompactTree tree;
+    private final NamePool namePool;
+    /** Element wrappers, indexed by node id. Created on demand. */
+    private final AstElementNode[] elements;
+    /** Fingerprints of the node names, indexed by node id. Computed on demand, -1 if not computed. */
+    private final int[] fingerprints;
 
     /**
      * Builds an AstDocument, with the given node as the root.
@@ -49,52 +50,109 @@ public final class AstTreeInfo extends GenericTreeInfo {
      */
     public AstTreeInfo(RootNode node, Configuration configuration) {
         super(configuration);
-        MutableInt idGenerator = new MutableInt(1); // 0 is taken by the document node
-        setRootNode(new AstDocumentNode(this, idGenerator, node, configuration));
+        this.tree = CompactTree.of(node);
+        this.namePool = configuration.getNamePool();
+        this.elements = new AstElementNode[tree.size()];
+        this.fingerprints = new int[tree.size()];
+        Arrays.fill(fingerprints, -1);
+        setRootNode(new AstDocumentNode(this, node, configuration));
     }
 
     public AstElementNode findWrapperFor(Node node) {
-        AstElementNode element = wrapperCache.get(node);
+        int id = tree.idOf(node);
+        if (id < 0) {
+            throw new IllegalArgumentException("Node is not part of this tree " + node);
+        }
+        AstElementNode element = wrapper(id);
+        assert element.getUnderlyingNode() == node : "Incorrect wrapper " + element + " for " + node;
+        return element;
+    }
+
+    /** Returns the wrapper for the node with the given id, creating it if needed. */
+    AstElementNode wrapper(int id) {
+        AstElementNode element = elements[id];
         if (element == null) {
-            element = findWrapperImpl(node);
-            wrapperCache.put(node, element);
-            assert element.getUnderlyingNode() == node : "Incorrect wrapper " + element + " for " + node;
+            element = new AstElementNode(this, id, tree.node(id), fingerprint(id));
+            elements[id] = element;
         }
         return element;
     }
 
-    // for the RootNode, this returns the document node
-    private AstElementNode findWrapperImpl(Node node) {
-        // find the closest cached ancestor
-        AstElementNode cur = getRootNode().getRootElement();
-        List<Node> ancestors = new ArrayList<>();
-        for (Node ancestor : node.ancestorsOrSelf()) {
-            AstElementNode wrappedAncestor = wrapperCache.get(ancestor);
-            ancestors.add(ancestor);
-            if (wrappedAncestor != null) {
-                cur = wrappedAncestor;
-                break;
-            }
+    /** Returns the parent of the wrapper with the given id. */
+    BaseNodeInfo parentOf(int id) {
+        int parent = tree.parent(id);
+        return parent < 0 ? getRootNode() : wrapper(parent);
+    }
+
+    private int fingerprint(int id) {
+        int fingerprint = fingerprints[id];
+        if (fingerprint < 0) {
+            fingerprint = BaseNodeInfo.allocateFingerprint(namePool, tree.node(id).getXPathNodeName());
+            fingerprints[id] = fingerprint;
         }
+        return fingerprint;
+    }
 
-        // then go down the tree from that ancestor
+    CompactTree getCompactTree() {
+        return tree;
+    }
 
-        // note we skip the first, who is the topmost ancestor
-        for (int i = ancestors.size() - 2; i >= 0; i--) {
-            Node ancestor = ancestors.get(i);
-            int idx = ancestor.getIndexInParent();
-            if (idx >= cur.getChildren().size()) {
-                throw new IllegalArgumentException("Node is not part of this tree " + node);
-            }
+    /** Iterates over the children of the node with the given id. */
+    AxisIterator iterateChildren(int id, Predicate<? super NodeInfo> nodeTest) {
+        return siblingChain(tree.firstChild(id), nodeTest);
+    }
+
+    /** Iterates over the siblings following the node with the given id. */
+    AxisIterator iterateFollowingSiblings(int id, Predicate<? super NodeInfo> nodeTest) {
+        return siblingChain(tree.nextSibling(id), nodeTest);
+    }
 
-            cur = cur.getChildren().get(idx);
-            wrapperCache.put(ancestor, cur);
+    /** Iterates over the siblings preceding the node with the given id, in reverse document order. */
+    AxisIterator iteratePrecedingSiblings(int id, Predicate<? super NodeInfo> nodeTest) {
+        int parent = tree.parent(id);
+        if (parent < 0) {
+            return siblingChain(-1, nodeTest);
         }
-        if (cur.getUnderlyingNode() != node) {
-            // may happen with the root
-            throw new IllegalArgumentException("Node is not part of this tree " + node);
+        int[] preceding = new int[tree.node(id).getIndexInParent()];
+        int i = preceding.length;
+        for (int sibling = tree.firstChild(parent); sibling != id; sibling = tree.nextSibling(sibling)) {
+            preceding[--i] = sibling;
         }
-        return cur;
+        return new IdAxisIterator(nodeTest) {
+            private int next;
+
+            @Override
+            int nextId() {
+                return next < preceding.length ? preceding[next++] : -1;
+            }
+        };
+    }
+
+    /** Iterates over the nodes whose id is in the given range, in document order. */
+    AxisIterator iterateRange(int from, int to, Predicate<? super NodeInfo> nodeTest) {
+        return new IdAxisIterator(nodeTest) {
+            private int next = from;
+
+            @Override
+            int nextId() {
+                return next < to ? next++ : -1;
+            }
+        };
+    }
+
+    private AxisIterator siblingChain(int first, Predicate<? super NodeInfo> nodeTest) {
+        return new IdAxisIterator(nodeTest) {
+            private int next = first;
+
+            @Override
+            int nextId() {
+                int id = next;
+                if (id >= 0) {
+                    next = tree.nextSibling(id);
+                }
+                return id;
+            }
+        };
     }
 
     /**
@@ -115,4 +173,38 @@ public final class AstTreeInfo extends GenericTreeInfo {
     public DeprecatedAttrLogger getLogger() {
         return logger == null ? DeprecatedAttrLogger.noop() : logger;
     }
+
+    /**
+     * Iterates over node ids, and yields the wrappers of those that
+     * match the node test. The wrappers of nodes that have the wrong
+     * name for a name test are never created.
+     */
+    private abstract class IdAxisIterator implements AxisIterator {
+
+        private final Predicate<? super NodeInfo> nodeTest;
+        private final int fingerprint;
+
+        IdAxisIterator(Predicate<? super NodeInfo> nodeTest) {
+            this.nodeTest = nodeTest instanceof AnyNodeTest ? null : nodeTest;
+            this.fingerprint = nodeTest instanceof NameTest ? ((NameTest) nodeTest).getFingerprint() : -1;
+        }
+
+        /** Returns the next candidate id, or -1 if there is none. */
+        abstract int nextId();
+
+        @Override
+        public NodeInfo next() {
+            int id;
+            while ((id = nextId()) >= 0) {
+                if (fingerprint >= 0 && fingerprint(id) != fingerprint) {
+                    continue;
+                }
+                AstElementNode element = wrapper(id);
+                if (nodeTest == null || nodeTest.test(element)) {
+                    return element;
+                }
+            }
+            return null;
+        }
+    }
 }
@@ -27,13 +27,18 @@ abstract class BaseNodeInfo extends AbstractNodeWrapper implements SiblingCounti
     private final NamePool namePool;
     private final int fingerprint;
 
-    protected final BaseNodeInfo parent;
+    BaseNodeInfo(int nodeKind, NamePool namePool, String localName) {
+        this(nodeKind, namePool, allocateFingerprint(namePool, localName));
+    }
 
-    BaseNodeInfo(int nodeKind, NamePool namePool, String localName, BaseNodeInfo parent) {
+    BaseNodeInfo(int nodeKind, NamePool namePool, int fingerprint) {
         this.nodeKind = nodeKind;
         this.namePool = namePool;
-        this.fingerprint = namePool.allocateFingerprint("", localName) & NamePool.FP_MASK;
-        this.parent = parent;
+        this.fingerprint = fingerprint;
+    }
+
+    static int allocateFingerprint(NamePool namePool, String localName) {
+        return namePool.allocateFingerprint("", localName) & NamePool.FP_MASK;
     }
 
     abstract List<AstElementNode> getChildren();
@@ -59,9 +64,7 @@ abstract class BaseNodeInfo extends AbstractNodeWrapper implements SiblingCounti
     }
 
     @Override
-    public final BaseNodeInfo getParent() {
-        return parent;
-    }
+    public abstract BaseNodeInfo getParent();
 
     @Override
     public final int getFingerprint() {
@@ -17,13 +17,16 @@ import net.sourceforge.pmd.benchmark.TimedOperationCategory;
 import net.sourceforge.pmd.lang.document.TextFile;
 import net.sourceforge.pmd.reporting.FileAnalysisListener;
 import net.sourceforge.pmd.reporting.GlobalAnalysisListener;
+import net.sourceforge.pmd.reporting.internal.SpillingViolationList;
 
 /**
  * Abstract base class for {@link Renderer} implementations which only produce
- * output once all source files are processed. Such {@link Renderer}s use
- * working memory proportional to the number of violations found, which can be
- * quite large in some scenarios. Consider using
- * {@link AbstractIncrementingRenderer} which can use significantly less memory.
+ * output once all source files are processed. To bound the working memory
+ * of such {@link Renderer}s, only a fixed number of violations is kept in
+ * memory, the others are spilled to a temporary file. The violations of the
+ * report should therefore be iterated, and not accessed by index. Consider
+ * using {@link AbstractIncrementingRenderer} which does not need a temporary
+ * file.
  *
  * <p>Subclasses should only implement the {@link #end()} method to output the
  * complete {@link #report}.
@@ -32,6 +35,7 @@ import net.sourceforge.pmd.reporting.GlobalAnalysisListener;
  */
 public abstract class AbstractAccumulatingRenderer extends AbstractRenderer {
 
+    private static final int MAX_VIOLATIONS_IN_MEMORY = 10_000;
 
     public AbstractAccumulatingRenderer(String name, String description) {
         super(name, description);
@@ -81,7 +85,8 @@ public abstract class AbstractAccumulatingRenderer extends AbstractRenderer {
         }
 
         return new GlobalAnalysisListener() {
-            final GlobalReportBuilderListener reportBuilder = new GlobalReportBuilderListener();
+            final SpillingViolationList violations = new SpillingViolationList(MAX_VIOLATIONS_IN_MEMORY);
+            final GlobalReportBuilderListener reportBuilder = new GlobalReportBuilderListener(violations, isShowSuppressedViolations());
 
             @Override
             public FileAnalysisListener startFileAnalysis(TextFile file) {
@@ -101,6 +106,8 @@ public abstract class AbstractAccumulatingRenderer extends AbstractRenderer {
                     outputReport(reportBuilder.getResult());
                     end();
                     flush();
+                } finally {
+                    violations.close();
                 }
             }
         };
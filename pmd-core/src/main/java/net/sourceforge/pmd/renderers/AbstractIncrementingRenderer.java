@@ -5,8 +5,8 @@
 package net.sourceforge.pmd.renderers;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 
 import net.sourceforge.pmd.Report;
@@ -29,17 +29,17 @@ public abstract class AbstractIncrementingRenderer extends AbstractRenderer {
     /**
      * Accumulated processing errors.
      */
-    protected List<Report.ProcessingError> errors = new LinkedList<>();
+    protected List<Report.ProcessingError> errors = new ArrayList<>();
 
     /**
      * Accumulated configuration errors.
      */
-    protected List<Report.ConfigurationError> configErrors = new LinkedList<>();
+    protected List<Report.ConfigurationError> configErrors = new ArrayList<>();
 
     /**
      * Accumulated suppressed violations.
      */
-    protected List<Report.SuppressedViolation> suppressed = new LinkedList<>();
+    protected List<Report.SuppressedViolation> suppressed = new ArrayList<>();
 
     public AbstractIncrementingRenderer(String name, String description) {
         super(name, description);
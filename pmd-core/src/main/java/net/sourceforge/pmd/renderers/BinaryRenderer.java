@@ -0,0 +1,110 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.internal.util.IOUtil;
+import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.renderers.internal.binary.BinaryReportEncoder;
+
+/**
+ * Renders a compact binary report. Rule names, file names and messages
+ * are written only once, and locations are varint-encoded. The report is
+ * written incrementally, file by file. It can be read back with a {@link BinaryReportReader},
+ * for instance to convert it to another format.
+ *
+ * <p>The report is written as bytes to the stream opened by {@link #setReportFile(String)}.
+ * A {@linkplain #setWriter(Writer) writer} is only supported if it is
+ * an {@link OutputStreamWriter} with the ISO-8859-1 encoding, which
+ * writes each char in the range 0-255 as the byte of the same value.
+ */
+@Experimental
+public class BinaryRenderer extends AbstractRenderer {
+
+    public static final String NAME = "binary";
+
+    private OutputStream out;
+    private BinaryReportEncoder encoder;
+
+    public BinaryRenderer() {
+        super(NAME, "Compact binary format.");
+    }
+
+    @Override
+    public String defaultFileExtension() {
+        return "pmdb";
+    }
+
+    @Override
+    public void start() throws IOException {
+        encoder = new BinaryReportEncoder(out);
+    }
+
+    @Override
+    public void startFileAnalysis(TextFile dataSource) {
+        // does nothing
+    }
+
+    @Override
+    public void renderFileReport(Report report) throws IOException {
+        encoder.writeReport(report);
+    }
+
+    @Override
+    public void end() throws IOException {
+        encoder.finish();
+    }
+
+    @Override
+    public void setReportFile(String reportFilename) {
+        OutputStream stream = IOUtil.createOutputStream(reportFilename);
+        // nothing is written to the writer, it is only used to flush and close the stream
+        super.setWriter(new OutputStreamWriter(stream, StandardCharsets.ISO_8859_1));
+        this.out = stream;
+    }
+
+    /**
+     * @throws IllegalArgumentException If the writer is not an {@link OutputStreamWriter}
+     *                                  with the ISO-8859-1 encoding, as other writers
+     *                                  would corrupt the report
+     */
+    @Override
+    public void setWriter(Writer writer) {
+        if (!isLatin1(writer)) {
+            throw new IllegalArgumentException("The " + NAME + " format must be written to a file, "
+                                                   + "or to an OutputStreamWriter with the ISO-8859-1 encoding");
+        }
+        super.setWriter(writer);
+        // each char of the writer is a byte of the output
+        this.out = new OutputStream() {
+            @Override
+            public void write(int b) {
+                BinaryRenderer.this.writer.write(b & 0xFF);
+            }
+        };
+    }
+
+    private static boolean isLatin1(Writer writer) {
+        if (!(writer instanceof OutputStreamWriter)) {
+            return false;
+        }
+        String encoding = ((OutputStreamWriter) writer).getEncoding();
+        try {
+            return encoding != null && StandardCharsets.ISO_8859_1.equals(Charset.forName(encoding));
+        } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import java.io.InputStream;
+
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.renderers.internal.binary.BinaryReportDecoder;
+import net.sourceforge.pmd.reporting.GlobalAnalysisListener;
+
+/**
+ * Reads reports written by the {@link BinaryRenderer}. The report is
+ * streamed to a {@link GlobalAnalysisListener}, as if the analysis that
+ * produced it were running again. No {@link net.sourceforge.pmd.Report}
+ * is built. Replaying into the {@linkplain Renderer#newListener() listener of a renderer}
+ * converts the report to the format of that renderer.
+ *
+ * <p>The rules of the violations are stand-ins, that only know the
+ * name, rule set name, language, priority, external info URL and
+ * description of the original rules.
+ */
+@Experimental
+public final class BinaryReportReader {
+
+    private BinaryReportReader() {
+        // utility class
+    }
+
+    /**
+     * Reads a binary report and forwards its events to the listener.
+     * The listener is not closed. The input is read until the end of
+     * the report, but not closed either.
+     *
+     * @param input    Input stream
+     * @param listener Listener receiving the violations and errors
+     *
+     * @throws java.io.IOException If the input is not a valid binary report
+     * @throws Exception           If the listener throws
+     */
+    public static void replay(InputStream input, GlobalAnalysisListener listener) throws Exception {
+        new BinaryReportDecoder(input, LanguageRegistry.PMD).replay(listener);
+    }
+}
@@ -8,12 +8,6 @@ import java.io.IOException;
 import java.io.Writer;
 
 import net.sourceforge.pmd.Report;
-import net.sourceforge.pmd.Report.ConfigurationError;
-import net.sourceforge.pmd.Report.GlobalReportBuilderListener;
-import net.sourceforge.pmd.Report.ProcessingError;
-import net.sourceforge.pmd.Report.ReportBuilderListener;
-import net.sourceforge.pmd.Report.SuppressedViolation;
-import net.sourceforge.pmd.RuleViolation;
 import net.sourceforge.pmd.annotation.Experimental;
 import net.sourceforge.pmd.benchmark.TimeTracker;
 import net.sourceforge.pmd.benchmark.TimedOperation;
@@ -21,10 +15,8 @@ import net.sourceforge.pmd.benchmark.TimedOperationCategory;
 import net.sourceforge.pmd.lang.document.TextFile;
 import net.sourceforge.pmd.properties.PropertyDescriptor;
 import net.sourceforge.pmd.properties.PropertySource;
-import net.sourceforge.pmd.reporting.FileAnalysisListener;
 import net.sourceforge.pmd.reporting.FileNameRenderer;
 import net.sourceforge.pmd.reporting.GlobalAnalysisListener;
-import net.sourceforge.pmd.reporting.ListenerInitializer;
 
 /**
  * This is an interface for rendering a Report. When a Renderer is being
@@ -201,78 +193,6 @@ public interface Renderer extends PropertySource {
             this.start();
         }
 
-        return new GlobalAnalysisListener() {
-
-            // guard for the close routine
-            final Object reportMergeLock = new Object();
-
-            final GlobalReportBuilderListener configErrorReport = new GlobalReportBuilderListener();
-
-            @Override
-            public void onConfigError(ConfigurationError error) {
-                configErrorReport.onConfigError(error);
-            }
-
-            @Override
-            public ListenerInitializer initializer() {
-                return new ListenerInitializer() {
-                    @Override
-                    public void setFileNameRenderer(FileNameRenderer fileNameRenderer) {
-                        Renderer.this.setFileNameRenderer(fileNameRenderer);
-                    }
-                };
-            }
-
-            @Override
-            public FileAnalysisListener startFileAnalysis(TextFile file) {
-                Renderer renderer = Renderer.this;
-
-                renderer.startFileAnalysis(file); // this routine is thread-safe by contract
-                return new FileAnalysisListener() {
-                    final ReportBuilderListener reportBuilder = new ReportBuilderListener();
-
-                    @Override
-                    public void onRuleViolation(RuleViolation violation) {
-                        reportBuilder.onRuleViolation(violation);
-                    }
-
-                    @Override
-                    public void onSuppressedRuleViolation(SuppressedViolation violation) {
-                        reportBuilder.onSuppressedRuleViolation(violation);
-                    }
-
-                    @Override
-                    public void onError(ProcessingError error) {
-                        reportBuilder.onError(error);
-                    }
-
-                    @Override
-                    public void close() throws Exception {
-                        reportBuilder.close();
-                        synchronized (reportMergeLock) {
-                            // TODO renderFileReport should be thread-safe instead
-                            try (TimedOperation ignored = TimeTracker.startOperation(TimedOperationCategory.REPORTING)) {
-                                renderer.renderFileReport(reportBuilder.getResult());
-                            }
-                        }
-                    }
-
-                    @Override
-                    public String toString() {
-                        return "FileRendererListener[" + Renderer.this + "]";
-                    }
-                };
-            }
-
-            @Override
-            public void close() throws Exception {
-                configErrorReport.close();
-                Renderer.this.renderFileReport(configErrorReport.getResult());
-                try (TimedOperation ignored = TimeTracker.startOperation(TimedOperationCategory.REPORTING)) {
-                    end();
-                    flush();
-                }
-            }
-        };
+        return new RendererListener(this);
     }
 }
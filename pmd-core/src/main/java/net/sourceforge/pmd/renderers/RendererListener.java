@@ -0,0 +1,159 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.Report.ConfigurationError;
+import net.sourceforge.pmd.Report.GlobalReportBuilderListener;
+import net.sourceforge.pmd.Report.ProcessingError;
+import net.sourceforge.pmd.Report.ReportBuilderListener;
+import net.sourceforge.pmd.Report.SuppressedViolation;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.benchmark.TimeTracker;
+import net.sourceforge.pmd.benchmark.TimedOperation;
+import net.sourceforge.pmd.benchmark.TimedOperationCategory;
+import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.reporting.FileAnalysisListener;
+import net.sourceforge.pmd.reporting.FileNameRenderer;
+import net.sourceforge.pmd.reporting.GlobalAnalysisListener;
+import net.sourceforge.pmd.reporting.ListenerInitializer;
+
+/**
+ * The default listener of a {@link Renderer}. Violations are batched by
+ * file. When a file is done, its report is handed to a dedicated writer
+ * thread through a bounded queue. Only that thread calls {@link Renderer#renderFileReport(Report)},
+ * so renderers need not be thread-safe, and analysis threads never wait
+ * on each other to render their reports. They only block when the writer
+ * thread falls behind by more than {@value #QUEUE_CAPACITY} files.
+ *
+ * <p>The messages of the violations are formatted by the analysis
+ * thread before the report is queued, so that a queued report does not
+ * keep the AST of its file alive. Suppressed violations are dropped
+ * there if the renderer does not show them.
+ */
+final class RendererListener implements GlobalAnalysisListener {
+
+    private static final int QUEUE_CAPACITY = 256;
+    // marks the end of the queue, never rendered
+    private static final Report END_OF_QUEUE = new Report();
+
+    private final Renderer renderer;
+    private final GlobalReportBuilderListener configErrorReport = new GlobalReportBuilderListener();
+    private final BlockingQueue<Report> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread writerThread;
+    // the first exception thrown by the renderer, written by the writer thread
+    private volatile Throwable failure;
+
+    RendererListener(Renderer renderer) {
+        this.renderer = renderer;
+        this.writerThread = new Thread(this::renderQueuedReports, "PmdRendererThread[" + renderer.getName() + "]");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    private void renderQueuedReports() {
+        TimeTracker.initThread();
+        try {
+            Report report;
+            while ((report = queue.take()) != END_OF_QUEUE) { // NOPMD CompareObjectsWithEquals
+                if (failure != null) {
+                    // keep draining so that producers are not blocked
+                    continue;
+                }
+                try (TimedOperation ignored = TimeTracker.startOperation(TimedOperationCategory.REPORTING)) {
+                    renderer.renderFileReport(report);
+                } catch (Throwable e) { // NOPMD AvoidCatchingThrowable
+                    failure = e;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            TimeTracker.finishThread();
+        }
+    }
+
+    private void enqueue(Report report) throws Exception {
+        rethrowFailure();
+        queue.put(report);
+    }
+
+    private void rethrowFailure() throws Exception {
+        Throwable e = failure;
+        if (e instanceof Exception) {
+            throw (Exception) e;
+        } else if (e instanceof Error) {
+            throw (Error) e;
+        }
+    }
+
+    @Override
+    public void onConfigError(ConfigurationError error) {
+        configErrorReport.onConfigError(error);
+    }
+
+    @Override
+    public ListenerInitializer initializer() {
+        return new ListenerInitializer() {
+            @Override
+            public void setFileNameRenderer(FileNameRenderer fileNameRenderer) {
+                renderer.setFileNameRenderer(fileNameRenderer);
+            }
+        };
+    }
+
+    @Override
+    public FileAnalysisListener startFileAnalysis(TextFile file) {
+        renderer.startFileAnalysis(file); // this routine is thread-safe by contract
+        return new FileAnalysisListener() {
+            final ReportBuilderListener reportBuilder = ReportBuilderListener.create(renderer.isShowSuppressedViolations());
+
+            @Override
+            public void onRuleViolation(RuleViolation violation) {
+                reportBuilder.onRuleViolation(violation);
+            }
+
+            @Override
+            public void onSuppressedRuleViolation(SuppressedViolation violation) {
+                reportBuilder.onSuppressedRuleViolation(violation);
+            }
+
+            @Override
+            public void onError(ProcessingError error) {
+                reportBuilder.onError(error);
+            }
+
+            @Override
+            public void close() throws Exception {
+                reportBuilder.close();
+                enqueue(reportBuilder.getResult());
+            }
+
+            @Override
+            public String toString() {
+                return "FileRendererListener[" + renderer + "]";
+            }
+        };
+    }
+
+    @Override
+    public void close() throws Exception {
+        try {
+            configErrorReport.close();
+            queue.put(configErrorReport.getResult());
+        } finally {
+            queue.put(END_OF_QUEUE);
+            writerThread.join();
+        }
+        rethrowFailure();
+        try (TimedOperation ignored = TimeTracker.startOperation(TimedOperationCategory.REPORTING)) {
+            renderer.end();
+            renderer.flush();
+        }
+    }
+}
@@ -11,23 +11,14 @@ import java.util.Iterator;
 import net.sourceforge.pmd.Report;
 import net.sourceforge.pmd.RuleViolation;
 import net.sourceforge.pmd.internal.util.IOUtil;
-import net.sourceforge.pmd.renderers.internal.sarif.SarifLog;
-import net.sourceforge.pmd.renderers.internal.sarif.SarifLogBuilder;
-
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import net.sourceforge.pmd.renderers.internal.sarif.SarifLogWriter;
 
 public class SarifRenderer extends AbstractIncrementingRenderer {
     public static final String NAME = "sarif";
     private static final String DEFAULT_DESCRIPTION = "Static Analysis Results Interchange Format (SARIF)";
     private static final String DEFAULT_FILE_EXTENSION = "sarif.json";
 
-    private final Gson gson = new GsonBuilder()
-            .disableHtmlEscaping()
-            .setPrettyPrinting()
-            .create();
-
-    private SarifLogBuilder sarifLogBuilder;
+    private SarifLogWriter sarifLogWriter;
 
     public SarifRenderer() {
         super(NAME, DEFAULT_DESCRIPTION);
@@ -40,14 +31,14 @@ public class SarifRenderer extends AbstractIncrementingRenderer {
 
     @Override
     public void start() throws IOException {
-        sarifLogBuilder = SarifLogBuilder.sarifLogBuilder();
+        sarifLogWriter = new SarifLogWriter();
     }
 
     @Override
     public void renderFileViolations(Iterator<RuleViolation> violations) throws IOException {
         while (violations.hasNext()) {
             final RuleViolation violation = violations.next();
-            sarifLogBuilder.add(violation);
+            sarifLogWriter.add(violation);
         }
     }
 
@@ -59,18 +50,19 @@ public class SarifRenderer extends AbstractIncrementingRenderer {
 
     private void addErrors() {
         for (Report.ProcessingError error : this.errors) {
-            sarifLogBuilder.addRunTimeError(error);
+            sarifLogWriter.addRunTimeError(error);
         }
 
         for (Report.ConfigurationError error: this.configErrors) {
-            sarifLogBuilder.addConfigurationError(error);
+            sarifLogWriter.addConfigurationError(error);
         }
     }
 
     private void writeLog() throws IOException {
-        final SarifLog sarifLog = sarifLogBuilder.build();
-        final String json = gson.toJson(sarifLog);
-        writer.write(json);
+        try (SarifLogWriter logWriter = sarifLogWriter) {
+            // results are streamed, the log is never built in memory
+            logWriter.write(writer);
+        }
         writer.println();
     }
 
@@ -24,6 +24,11 @@ import net.sourceforge.pmd.util.StringUtil;
 
 /**
  * Renderer to another HTML format.
+ *
+ * <p>Unlike the other accumulating renderers, this one keeps all the
+ * violations of the report in memory until the end: it builds a tree of
+ * the packages and classes with their violations before writing any page.
+ * Its memory use is therefore not bounded by the spilling of the report.
  */
 public class YAHTMLRenderer extends AbstractAccumulatingRenderer {
 
@@ -0,0 +1,338 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers.internal.binary;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import net.sourceforge.pmd.Report.ConfigurationError;
+import net.sourceforge.pmd.Report.ProcessingError;
+import net.sourceforge.pmd.Report.SuppressedViolation;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RulePriority;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.ViolationSuppressor;
+import net.sourceforge.pmd.lang.Language;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.LanguageVersion;
+import net.sourceforge.pmd.lang.PlainTextLanguage;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.FileLocation;
+import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.lang.document.TextRange2d;
+import net.sourceforge.pmd.lang.rule.AbstractRule;
+import net.sourceforge.pmd.lang.rule.ParametricRuleViolation;
+import net.sourceforge.pmd.reporting.FileAnalysisListener;
+import net.sourceforge.pmd.reporting.GlobalAnalysisListener;
+
+/**
+ * Reads a report in the {@linkplain BinaryReportFormat binary report format},
+ * and replays its events on a {@link GlobalAnalysisListener}. Rules are
+ * replaced by stand-ins that only know the properties that renderers use.
+ */
+public final class BinaryReportDecoder {
+
+    private final InputStream in;
+    private final LanguageRegistry languages;
+
+    private final List<String> strings = new ArrayList<>();
+    private final List<FileId> fileIds = new ArrayList<>();
+    private final List<Rule> rules = new ArrayList<>();
+    private final Map<String, ViolationSuppressor> suppressors = new HashMap<>();
+
+    public BinaryReportDecoder(InputStream in, LanguageRegistry languages) {
+        this.in = new BufferedInputStream(in);
+        this.languages = languages;
+    }
+
+    /**
+     * Reads the whole report, and forwards its events to the listener.
+     * The listener is not closed.
+     *
+     * @throws IOException If the input is not a binary report
+     */
+    public void replay(GlobalAnalysisListener listener) throws Exception {
+        readHeader();
+
+        FileAnalysisListener fileListener = null;
+        FileId currentFile = null;
+        try {
+            while (true) {
+                int tag = readByte();
+                switch (tag) {
+                case BinaryReportFormat.END:
+                    return;
+                case BinaryReportFormat.STRING:
+                    byte[] bytes = new byte[readVarint()];
+                    readFully(bytes);
+                    strings.add(new String(bytes, StandardCharsets.UTF_8));
+                    break;
+                case BinaryReportFormat.FILE_ID:
+                    fileIds.add(readFileId());
+                    break;
+                case BinaryReportFormat.RULE:
+                    rules.add(readRule());
+                    break;
+                case BinaryReportFormat.FILE:
+                    if (fileListener != null) {
+                        fileListener.close();
+                    }
+                    currentFile = fileIds.get(readVarint());
+                    LanguageVersion version = getLanguageVersion(readString());
+                    fileListener = listener.startFileAnalysis(TextFile.forCharSeq("", currentFile, version));
+                    break;
+                case BinaryReportFormat.VIOLATION:
+                    requireFile(fileListener).onRuleViolation(readViolation(currentFile));
+                    break;
+                case BinaryReportFormat.SUPPRESSED:
+                    RuleViolation violation = readViolation(currentFile);
+                    ViolationSuppressor suppressor = getSuppressor(readString());
+                    SuppressedViolation suppressed = new SuppressedViolation(violation, suppressor, readString());
+                    requireFile(fileListener).onSuppressedRuleViolation(suppressed);
+                    break;
+                case BinaryReportFormat.ERROR:
+                    requireFile(fileListener).onError(new ReadProcessingError(currentFile, readString(), readString()));
+                    break;
+                case BinaryReportFormat.CONFIG_ERROR:
+                    listener.onConfigError(new ConfigurationError(rules.get(readVarint()), readString()));
+                    break;
+                default:
+                    throw new IOException("Unknown record tag " + tag);
+                }
+            }
+        } finally {
+            if (fileListener != null) {
+                fileListener.close();
+            }
+        }
+    }
+
+    private void readHeader() throws IOException {
+        byte[] magic = new byte[BinaryReportFormat.MAGIC.length];
+        readFully(magic);
+        if (!Arrays.equals(magic, BinaryReportFormat.MAGIC)) {
+            throw new IOException("Not a binary PMD report");
+        }
+        int version = readVarint();
+        if (version != BinaryReportFormat.FORMAT_VERSION) {
+            throw new IOException("Unsupported binary report format version " + version);
+        }
+    }
+
+    private static FileAnalysisListener requireFile(@Nullable FileAnalysisListener fileListener) throws IOException {
+        if (fileListener == null) {
+            throw new IOException("Record outside of a file");
+        }
+        return fileListener;
+    }
+
+    private RuleViolation readViolation(FileId file) throws IOException {
+        Rule rule = rules.get(readVarint());
+        int beginLine = readVarint();
+        int beginColumn = readVarint();
+        int endLine = readVarint();
+        int endColumn = readVarint();
+        String message = readString();
+        int numInfos = readVarint();
+        Map<String, String> infos = numInfos == 0 ? Collections.emptyMap() : new HashMap<>();
+        for (int i = 0; i < numInfos; i++) {
+            infos.put(readString(), readString());
+        }
+        TextRange2d range = TextRange2d.range2d(beginLine, beginColumn, endLine, endColumn);
+        return new ParametricRuleViolation(rule, FileLocation.range(file, range), message, infos);
+    }
+
+    private FileId readFileId() throws IOException {
+        String originalPath = readString();
+        String absolutePath = readString();
+        String uri = readString();
+        String fileName = readString();
+        int parentRef = readVarint();
+        FileId parent = parentRef == 0 ? null : fileIds.get(parentRef - 1);
+        return new ReadFileId(originalPath, absolutePath, uri, fileName, parent);
+    }
+
+    private Rule readRule() throws IOException {
+        ReadRule rule = new ReadRule();
+        rule.setName(readString());
+        rule.setRuleSetName(readString());
+        Language language = languages.getLanguageById(readString());
+        if (language != null) {
+            rule.setLanguage(language);
+        }
+        rule.setPriority(RulePriority.valueOf(readVarint()));
+        rule.setExternalInfoUrl(readString());
+        rule.setDescription(readString());
+        return rule;
+    }
+
+    private LanguageVersion getLanguageVersion(@Nullable String languageId) {
+        Language language = languages.getLanguageById(languageId);
+        return language == null ? PlainTextLanguage.getInstance().getDefaultVersion()
+                                : language.getDefaultVersion();
+    }
+
+    private ViolationSuppressor getSuppressor(String id) {
+        return suppressors.computeIfAbsent(id, ReadSuppressor::new);
+    }
+
+    private @Nullable String readString() throws IOException {
+        int ref = readVarint();
+        return ref == 0 ? null : strings.get(ref - 1);
+    }
+
+    private int readVarint() throws IOException {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = readByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private int readByte() throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException("Truncated binary report");
+        }
+        return b;
+    }
+
+    private void readFully(byte[] bytes) throws IOException {
+        int read = 0;
+        while (read < bytes.length) {
+            int n = in.read(bytes, read, bytes.length - read);
+            if (n < 0) {
+                throw new EOFException("Truncated binary report");
+            }
+            read += n;
+        }
+    }
+
+    /** Stands for a rule of the analysis that produced the report. */
+    private static final class ReadRule extends AbstractRule {
+
+        @Override
+        public void apply(Node target, RuleContext ctx) {
+            // never applied
+        }
+    }
+
+    private static final class ReadSuppressor implements ViolationSuppressor {
+
+        private final String id;
+
+        ReadSuppressor(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public @Nullable SuppressedViolation suppressOrNull(RuleViolation rv, @NonNull Node node) {
+            return null;
+        }
+    }
+
+    private static final class ReadProcessingError extends ProcessingError {
+
+        private final String msg;
+        private final String detail;
+
+        ReadProcessingError(FileId file, String msg, String detail) {
+            super(new RuntimeException(msg), file);
+            this.msg = msg;
+            this.detail = detail;
+        }
+
+        @Override
+        public String getMsg() {
+            return msg;
+        }
+
+        @Override
+        public String getDetail() {
+            return detail;
+        }
+    }
+
+    private static final class ReadFileId implements FileId {
+
+        private final String originalPath;
+        private final String absolutePath;
+        private final String uri;
+        private final String fileName;
+        private final @Nullable FileId parent;
+
+        ReadFileId(String originalPath, String absolutePath, String uri, String fileName, @Nullable FileId parent) {
+            this.originalPath = originalPath;
+            this.absolutePath = absolutePath;
+            this.uri = uri;
+            this.fileName = fileName;
+            this.parent = parent;
+        }
+
+        @Override
+        public String getFileName() {
+            return fileName;
+        }
+
+        @Override
+        public String getOriginalPath() {
+            return originalPath;
+        }
+
+        @Override
+        public String getAbsolutePath() {
+            return absolutePath;
+        }
+
+        @Override
+        public String getUriString() {
+            return uri;
+        }
+
+        @Override
+        public @Nullable FileId getParentFsPath() {
+            return parent;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof FileId && ((FileId) o).getUriString().equals(getUriString());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(uri);
+        }
+
+        @Override
+        public String toString() {
+            return "!debug only! FileId(" + uri + ")";
+        }
+    }
+}
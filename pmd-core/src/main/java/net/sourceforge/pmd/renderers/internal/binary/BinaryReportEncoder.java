@@ -0,0 +1,254 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers.internal.binary;
+
+import static net.sourceforge.pmd.renderers.internal.binary.BinaryReportFormat.CONFIG_ERROR;
+import static net.sourceforge.pmd.renderers.internal.binary.BinaryReportFormat.END;
+import static net.sourceforge.pmd.renderers.internal.binary.BinaryReportFormat.ERROR;
+import static net.sourceforge.pmd.renderers.internal.binary.BinaryReportFormat.FILE;
+import static net.sourceforge.pmd.renderers.internal.binary.BinaryReportFormat.FILE_ID;
+import static net.sourceforge.pmd.renderers.internal.binary.BinaryReportFormat.RULE;
+import static net.sourceforge.pmd.renderers.internal.binary.BinaryReportFormat.STRING;
+import static net.sourceforge.pmd.renderers.internal.binary.BinaryReportFormat.SUPPRESSED;
+import static net.sourceforge.pmd.renderers.internal.binary.BinaryReportFormat.VIOLATION;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.Report.ConfigurationError;
+import net.sourceforge.pmd.Report.ProcessingError;
+import net.sourceforge.pmd.Report.SuppressedViolation;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.lang.document.FileId;
+
+/**
+ * Writes reports in the {@linkplain BinaryReportFormat binary report format}.
+ * Records are written as the reports come, only the tables of strings,
+ * file ids and rules are kept in memory. This is not thread-safe.
+ */
+public final class BinaryReportEncoder {
+
+    private final OutputStream out;
+
+    private final Map<String, Integer> strings = new HashMap<>();
+    private final Map<FileId, Integer> fileIds = new HashMap<>();
+    private final Map<RuleKey, Integer> rules = new HashMap<>();
+
+    public BinaryReportEncoder(OutputStream out) throws IOException {
+        this.out = new BufferedOutputStream(out);
+        this.out.write(BinaryReportFormat.MAGIC);
+        writeVarint(BinaryReportFormat.FORMAT_VERSION);
+    }
+
+    /**
+     * Writes the content of a report. Violations, suppressed violations
+     * and processing errors are assumed to be in a single file, which
+     * is the case for the per-file reports given to renderers.
+     */
+    public void writeReport(Report report) throws IOException {
+        FileId file = getFile(report);
+        if (file != null) {
+            int fileRef = fileIdRef(file);
+            int languageRef = stringRef(getLanguageId(report));
+            out.write(FILE);
+            writeVarint(fileRef);
+            writeVarint(languageRef);
+
+            for (RuleViolation violation : report.getViolations()) {
+                writeViolation(VIOLATION, violation);
+            }
+            for (SuppressedViolation suppressed : report.getSuppressedViolations()) {
+                int suppressorRef = stringRef(suppressed.getSuppressor().getId());
+                int userMessageRef = stringRef(suppressed.getUserMessage());
+                writeViolation(SUPPRESSED, suppressed.getRuleViolation());
+                writeVarint(suppressorRef);
+                writeVarint(userMessageRef);
+            }
+            for (ProcessingError error : report.getProcessingErrors()) {
+                int msgRef = stringRef(error.getMsg());
+                int detailRef = stringRef(error.getDetail());
+                out.write(ERROR);
+                writeVarint(msgRef);
+                writeVarint(detailRef);
+            }
+        }
+
+        for (ConfigurationError error : report.getConfigurationErrors()) {
+            int ruleRef = ruleRef(error.rule());
+            int issueRef = stringRef(error.issue());
+            out.write(CONFIG_ERROR);
+            writeVarint(ruleRef);
+            writeVarint(issueRef);
+        }
+    }
+
+    /**
+     * Writes the end marker and flushes the output.
+     */
+    public void finish() throws IOException {
+        out.write(END);
+        out.flush();
+    }
+
+    private void writeViolation(int tag, RuleViolation violation) throws IOException {
+        // table entries need to be written before the record that refers to them
+        int ruleRef = ruleRef(violation.getRule());
+        int messageRef = stringRef(violation.getDescription());
+        Map<String, String> infos = violation.getAdditionalInfo();
+        int[] infoRefs = new int[infos.size() * 2];
+        int i = 0;
+        for (Map.Entry<String, String> info : infos.entrySet()) {
+            infoRefs[i++] = stringRef(info.getKey());
+            infoRefs[i++] = stringRef(info.getValue());
+        }
+
+        out.write(tag);
+        writeVarint(ruleRef);
+        writeVarint(violation.getBeginLine());
+        writeVarint(violation.getBeginColumn());
+        writeVarint(violation.getEndLine());
+        writeVarint(violation.getEndColumn());
+        writeVarint(messageRef);
+        writeVarint(infos.size());
+        for (int ref : infoRefs) {
+            writeVarint(ref);
+        }
+    }
+
+    private static @Nullable FileId getFile(Report report) {
+        if (!report.getViolations().isEmpty()) {
+            return report.getViolations().get(0).getFileId();
+        } else if (!report.getSuppressedViolations().isEmpty()) {
+            return report.getSuppressedViolations().get(0).getRuleViolation().getFileId();
+        } else if (!report.getProcessingErrors().isEmpty()) {
+            return report.getProcessingErrors().get(0).getFileId();
+        }
+        return null;
+    }
+
+    private static @Nullable String getLanguageId(Report report) {
+        // the report does not know the language of the file, but its rules do
+        Rule rule = null;
+        if (!report.getViolations().isEmpty()) {
+            rule = report.getViolations().get(0).getRule();
+        } else if (!report.getSuppressedViolations().isEmpty()) {
+            rule = report.getSuppressedViolations().get(0).getRuleViolation().getRule();
+        }
+        return rule == null || rule.getLanguage() == null ? null : rule.getLanguage().getId();
+    }
+
+    private int stringRef(@Nullable String string) throws IOException {
+        if (string == null) {
+            return 0;
+        }
+        Integer index = strings.get(string);
+        if (index == null) {
+            index = strings.size();
+            strings.put(string, index);
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            out.write(STRING);
+            writeVarint(bytes.length);
+            out.write(bytes);
+        }
+        return index + 1;
+    }
+
+    private int fileIdRef(FileId fileId) throws IOException {
+        Integer index = fileIds.get(fileId);
+        if (index == null) {
+            FileId parent = fileId.getParentFsPath();
+            int parentRef = parent == null ? 0 : fileIdRef(parent) + 1;
+            int originalPathRef = stringRef(fileId.getOriginalPath());
+            int absolutePathRef = stringRef(fileId.getAbsolutePath());
+            int uriRef = stringRef(fileId.getUriString());
+            int fileNameRef = stringRef(fileId.getFileName());
+
+            index = fileIds.size();
+            fileIds.put(fileId, index);
+            out.write(FILE_ID);
+            writeVarint(originalPathRef);
+            writeVarint(absolutePathRef);
+            writeVarint(uriRef);
+            writeVarint(fileNameRef);
+            writeVarint(parentRef);
+        }
+        return index;
+    }
+
+    private int ruleRef(Rule rule) throws IOException {
+        // rules are copied for each analysis thread, so don't use identity
+        RuleKey key = new RuleKey(rule);
+        Integer index = rules.get(key);
+        if (index == null) {
+            int nameRef = stringRef(rule.getName());
+            int ruleSetNameRef = stringRef(rule.getRuleSetName());
+            int languageRef = stringRef(rule.getLanguage() == null ? null : rule.getLanguage().getId());
+            int urlRef = stringRef(rule.getExternalInfoUrl());
+            int descriptionRef = stringRef(rule.getDescription());
+
+            index = rules.size();
+            rules.put(key, index);
+            out.write(RULE);
+            writeVarint(nameRef);
+            writeVarint(ruleSetNameRef);
+            writeVarint(languageRef);
+            writeVarint(rule.getPriority().getPriority());
+            writeVarint(urlRef);
+            writeVarint(descriptionRef);
+        }
+        return index;
+    }
+
+    private void writeVarint(int value) throws IOException {
+        // negative values are written as large unsigned ints, and read back as is
+        int v = value;
+        while ((v & ~0x7F) != 0) {
+            out.write((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.write(v);
+    }
+
+    private static final class RuleKey {
+
+        private final String name;
+        private final String ruleSetName;
+        private final int priority;
+
+        RuleKey(Rule rule) {
+            this.name = rule.getName();
+            this.ruleSetName = rule.getRuleSetName();
+            this.priority = rule.getPriority().getPriority();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            RuleKey ruleKey = (RuleKey) o;
+            return priority == ruleKey.priority
+                && Objects.equals(name, ruleKey.name)
+                && Objects.equals(ruleSetName, ruleKey.ruleSetName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, ruleSetName, priority);
+        }
+    }
+}
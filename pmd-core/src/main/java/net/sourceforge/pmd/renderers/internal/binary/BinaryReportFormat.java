@@ -0,0 +1,47 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers.internal.binary;
+
+/**
+ * Constants of the binary report format. A report is a header followed
+ * by a sequence of records, each starting with a one-byte tag. Integers
+ * are unsigned varints (7 bits per byte, low bits first). Strings, file
+ * ids and rules are written once in a table record, then referred to by
+ * their index in that table. A string reference is the index plus one,
+ * zero stands for null.
+ *
+ * <pre>
+ * header       := MAGIC FORMAT_VERSION
+ * STRING       := length utf8-bytes
+ * FILE_ID      := originalPath absolutePath uri fileName parentFileId+1
+ * RULE         := name ruleSetName languageId priority externalInfoUrl description
+ * FILE         := fileId languageId             (starts the records of a file)
+ * VIOLATION    := rule beginLine beginColumn endLine endColumn message
+ *                 numInfos (key value)*
+ * SUPPRESSED   := VIOLATION suppressorId userMessage
+ * ERROR        := message detail               (in the current file)
+ * CONFIG_ERROR := rule issue
+ * END
+ * </pre>
+ */
+final class BinaryReportFormat {
+
+    static final byte[] MAGIC = { 'P', 'M', 'D', 'B' };
+    static final int FORMAT_VERSION = 1;
+
+    static final int END = 0;
+    static final int STRING = 1;
+    static final int FILE_ID = 2;
+    static final int RULE = 3;
+    static final int FILE = 4;
+    static final int VIOLATION = 5;
+    static final int SUPPRESSED = 6;
+    static final int ERROR = 7;
+    static final int CONFIG_ERROR = 8;
+
+    private BinaryReportFormat() {
+        // constants
+    }
+}
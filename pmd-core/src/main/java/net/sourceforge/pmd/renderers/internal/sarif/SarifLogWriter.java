@@ -4,18 +4,28 @@
 
 package net.sourceforge.pmd.renderers.internal.sarif;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 import net.sourceforge.pmd.PMDVersion;
 import net.sourceforge.pmd.Report;
 import net.sourceforge.pmd.RuleViolation;
 import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.ArtifactLocation;
 import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.AssociatedRule;
-import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.Component;
 import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.Exception;
 import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.Invocation;
 import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.Location;
@@ -26,37 +36,66 @@ import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.PropertyBag;
 import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.Region;
 import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.ReportingDescriptor;
 import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.Result;
-import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.Run;
-import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.Tool;
 import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.ToolConfigurationNotification;
 import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.ToolExecutionNotification;
 
-public class SarifLogBuilder {
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Writes a {@link SarifLog} without building it in memory. SARIF lists
+ * the rules before the results that refer to them by index, but the rules
+ * are only known once all violations have been seen. So results are
+ * spilled to a temporary file in a compact binary form as they are added,
+ * and only the rule table is kept in memory. {@link #write(Writer)} then
+ * streams the whole log, reading the results back from the temporary file.
+ *
+ * <p>The output is the same as serializing the log built by the former
+ * SarifLogBuilder with Gson.
+ */
+public class SarifLogWriter implements Closeable {
+
+    private static final String SCHEMA = "https://raw.githubusercontent.com/oasis-tcs/sarif-spec/master/Schemata/sarif-schema-2.1.0.json";
+    private static final String SARIF_VERSION = "2.1.0";
+
+    private final Gson gson = new GsonBuilder()
+            .disableHtmlEscaping()
+            .create();
+
+    // rule descriptors, in order of first appearance, and their index
     private final List<ReportingDescriptor> rules = new ArrayList<>();
-    private final List<Result> results = new ArrayList<>();
+    private final Map<ReportingDescriptor, Integer> ruleIndices = new HashMap<>();
     private final List<ToolConfigurationNotification> toolConfigurationNotifications = new ArrayList<>();
     private final List<ToolExecutionNotification> toolExecutionNotifications = new ArrayList<>();
 
-    public static SarifLogBuilder sarifLogBuilder() {
-        return new SarifLogBuilder();
-    }
+    private Path resultsFile;
+    private DataOutputStream results;
+    private int numResults;
 
-    public SarifLogBuilder add(RuleViolation violation) {
+    public void add(RuleViolation violation) throws IOException {
         final ReportingDescriptor ruleDescriptor = getReportingDescriptor(violation);
-        int ruleIndex = rules.indexOf(ruleDescriptor);
-        if (ruleIndex == -1) {
+        Integer ruleIndex = ruleIndices.get(ruleDescriptor);
+        if (ruleIndex == null) {
+            ruleIndex = rules.size();
             rules.add(ruleDescriptor);
-            ruleIndex = rules.size() - 1;
+            ruleIndices.put(ruleDescriptor, ruleIndex);
         }
 
-        final Location location = getRuleViolationLocation(violation);
-        final Result result = resultFrom(ruleDescriptor, ruleIndex, location);
-        results.add(result);
-
-        return this;
+        if (results == null) {
+            resultsFile = Files.createTempFile("pmd-sarif-results", ".bin");
+            results = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(resultsFile)));
+        }
+        results.writeInt(ruleIndex);
+        results.writeUTF(violation.getFileId().getUriString());
+        results.writeInt(violation.getBeginLine());
+        results.writeInt(violation.getBeginColumn());
+        results.writeInt(violation.getEndLine());
+        results.writeInt(violation.getEndColumn());
+        numResults++;
     }
 
-    public SarifLogBuilder addRunTimeError(Report.ProcessingError error) {
+    public void addRunTimeError(Report.ProcessingError error) {
         ArtifactLocation artifactLocation = ArtifactLocation.builder()
                 .uri(error.getFileId().getUriString())
                 .build();
@@ -85,11 +124,9 @@ public class SarifLogBuilder {
                 .build();
 
         toolExecutionNotifications.add(toolExecutionNotification);
-
-        return this;
     }
 
-    public SarifLogBuilder addConfigurationError(Report.ConfigurationError error) {
+    public void addConfigurationError(Report.ConfigurationError error) {
         AssociatedRule associatedRule = AssociatedRule.builder()
                 .id(error.rule().getName())
                 .build();
@@ -102,27 +139,77 @@ public class SarifLogBuilder {
                 .build();
 
         toolConfigurationNotifications.add(toolConfigurationNotification);
+    }
 
-        return this;
+    /**
+     * Writes the log to the given writer. This must be called once,
+     * after all violations and errors have been added.
+     */
+    public void write(Writer writer) throws IOException {
+        JsonWriter json = new JsonWriter(writer);
+        json.setHtmlSafe(false);
+        json.setIndent("  ");
+
+        json.beginObject();
+        json.name("$schema").value(SCHEMA);
+        json.name("version").value(SARIF_VERSION);
+        json.name("runs").beginArray();
+        json.beginObject(); // run
+
+        json.name("tool").beginObject();
+        json.name("driver").beginObject();
+        json.name("name").value("PMD");
+        json.name("version").value(PMDVersion.VERSION);
+        json.name("informationUri").value("https://docs.pmd-code.org/latest/");
+        json.name("rules").beginArray();
+        for (ReportingDescriptor rule : rules) {
+            gson.toJson(rule, ReportingDescriptor.class, json);
+        }
+        json.endArray();
+        json.endObject(); // driver
+        json.endObject(); // tool
+
+        json.name("results").beginArray();
+        writeResults(json);
+        json.endArray();
+
+        json.name("invocations").beginArray();
+        gson.toJson(getInvocation(), Invocation.class, json);
+        json.endArray();
+
+        json.endObject(); // run
+        json.endArray(); // runs
+        json.endObject();
+        json.flush();
     }
 
-    public SarifLog build() {
-        final Component driver = getDriverComponent().toBuilder().rules(rules).build();
-        final Tool tool = Tool.builder().driver(driver).build();
-        final Invocation invocation = Invocation.builder()
+    private void writeResults(JsonWriter json) throws IOException {
+        if (results == null) {
+            return;
+        }
+        results.close();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(resultsFile)))) {
+            for (int i = 0; i < numResults; i++) {
+                int ruleIndex = in.readInt();
+                String uri = in.readUTF();
+                Region region = Region.builder()
+                    .startLine(in.readInt())
+                    .startColumn(in.readInt())
+                    .endLine(in.readInt())
+                    .endColumn(in.readInt())
+                    .build();
+                Result result = resultFrom(rules.get(ruleIndex), ruleIndex, getLocation(uri, region));
+                gson.toJson(result, Result.class, json);
+            }
+        }
+    }
+
+    private Invocation getInvocation() {
+        return Invocation.builder()
                 .toolExecutionNotifications(toolExecutionNotifications)
                 .toolConfigurationNotifications(toolConfigurationNotifications)
                 .executionSuccessful(isExecutionSuccessful())
                 .build();
-        final Run run = Run.builder()
-                .tool(tool)
-                .results(results)
-                .invocations(Collections.singletonList(invocation))
-                .build();
-
-        List<Run> runs = Collections.singletonList(run);
-
-        return SarifLog.builder().runs(runs).build();
     }
 
     private boolean isExecutionSuccessful() {
@@ -145,18 +232,11 @@ public class SarifLogBuilder {
         return result;
     }
 
-    private Location getRuleViolationLocation(RuleViolation rv) {
+    private Location getLocation(String uri, Region region) {
         ArtifactLocation artifactLocation = ArtifactLocation.builder()
-                .uri(rv.getFileId().getUriString())
+                .uri(uri)
                 .build();
 
-        Region region = Region.builder()
-            .startLine(rv.getBeginLine())
-            .endLine(rv.getEndLine())
-            .startColumn(rv.getBeginColumn())
-            .endColumn(rv.getEndColumn())
-            .build();
-
         PhysicalLocation physicalLocation = PhysicalLocation.builder()
                 .artifactLocation(artifactLocation)
                 .region(region)
@@ -186,11 +266,15 @@ public class SarifLogBuilder {
                 .build();
     }
 
-    private Component getDriverComponent() {
-        return Component.builder()
-                .name("PMD")
-                .version(PMDVersion.VERSION)
-                .informationUri("https://docs.pmd-code.org/latest/")
-                .build();
+    /**
+     * Deletes the temporary file holding the results.
+     */
+    @Override
+    public void close() throws IOException {
+        if (results != null) {
+            results.close();
+            Files.deleteIfExists(resultsFile);
+            results = null;
+        }
     }
 }
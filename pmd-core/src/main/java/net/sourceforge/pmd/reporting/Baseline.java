@@ -0,0 +1,249 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.reporting;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.sourceforge.pmd.Report.ConfigurationError;
+import net.sourceforge.pmd.Report.ProcessingError;
+import net.sourceforge.pmd.Report.SuppressedViolation;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.util.CollectionUtil;
+
+/**
+ * A set of known violations, that should not be reported again. This is
+ * meant for legacy code bases, where only new violations are of interest.
+ * Violations are identified by a fingerprint of their rule, file and
+ * first source line, which does not depend on line numbers. So a known
+ * violation is still recognized if code is added or removed above it.
+ *
+ * <p>A baseline is stored as a sorted table of 64-bit fingerprints. It is
+ * written by the listener returned by {@link #writer(Path)}, and read with
+ * {@link #load(Path)}. {@link #filter(GlobalAnalysisListener)} then drops
+ * known violations in the analysis threads, before they are passed on to
+ * renderers.
+ */
+@Experimental
+public final class Baseline {
+
+    private static final int MAGIC = 0x504D4446; // "PMDF"
+    private static final int FORMAT_VERSION = 1;
+
+    private final long[] fingerprints;
+
+    private Baseline(long[] fingerprints) {
+        this.fingerprints = fingerprints;
+    }
+
+    /**
+     * Reads a baseline written by a {@linkplain #writer(Path) baseline writer}.
+     *
+     * @throws IOException If the file cannot be read, or is not a baseline
+     */
+    public static Baseline load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a PMD baseline: " + file);
+            }
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported baseline format version " + version + ": " + file);
+            }
+            long[] fingerprints = new long[in.readInt()];
+            for (int i = 0; i < fingerprints.length; i++) {
+                fingerprints[i] = in.readLong();
+            }
+            return new Baseline(fingerprints);
+        }
+    }
+
+    /**
+     * Returns the number of violations in this baseline.
+     */
+    public int size() {
+        return fingerprints.length;
+    }
+
+    /**
+     * Returns how many violations of the baseline have the given fingerprint.
+     * Identical lines with the same violation have the same fingerprint.
+     */
+    int count(long fingerprint) {
+        int index = Arrays.binarySearch(fingerprints, fingerprint);
+        if (index < 0) {
+            return 0;
+        }
+        int from = index;
+        while (from > 0 && fingerprints[from - 1] == fingerprint) {
+            from--;
+        }
+        int to = index + 1;
+        while (to < fingerprints.length && fingerprints[to] == fingerprint) {
+            to++;
+        }
+        return to - from;
+    }
+
+    /**
+     * Returns a listener that forwards all events to the given listener,
+     * except the violations that are part of this baseline.
+     *
+     * @param delegate Listener that receives the new violations
+     */
+    public GlobalAnalysisListener filter(GlobalAnalysisListener delegate) {
+        return new BaselineFilter(this, delegate);
+    }
+
+    /**
+     * Returns a listener that collects the fingerprints of all violations,
+     * and writes them as a baseline to the given file when it is closed.
+     *
+     * @param output File to which the baseline is written
+     */
+    public static GlobalAnalysisListener writer(Path output) {
+        return new BaselineWriter(output);
+    }
+
+    /** Captures the file name renderer, fingerprints use display names. */
+    private abstract static class FingerprintingListener implements GlobalAnalysisListener {
+
+        private FileNameRenderer fileNameRenderer = FileId::getOriginalPath;
+
+        ViolationFingerprinter newFingerprinter(TextFile file) {
+            return new ViolationFingerprinter(file, fileNameRenderer);
+        }
+
+        @Override
+        public ListenerInitializer initializer() {
+            return new ListenerInitializer() {
+                @Override
+                public void setFileNameRenderer(FileNameRenderer fileNameRenderer) {
+                    FingerprintingListener.this.fileNameRenderer = fileNameRenderer;
+                }
+            };
+        }
+    }
+
+    private static final class BaselineFilter extends FingerprintingListener {
+
+        private final Baseline baseline;
+        private final GlobalAnalysisListener delegate;
+
+        BaselineFilter(Baseline baseline, GlobalAnalysisListener delegate) {
+            this.baseline = baseline;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public ListenerInitializer initializer() {
+            return ListenerInitializer.tee(CollectionUtil.listOf(super.initializer(), delegate.initializer()));
+        }
+
+        @Override
+        public FileAnalysisListener startFileAnalysis(TextFile file) {
+            FileAnalysisListener fileListener = delegate.startFileAnalysis(file);
+            ViolationFingerprinter fingerprinter = newFingerprinter(file);
+            // number of violations matched so far for each fingerprint
+            Map<Long, Integer> matched = new HashMap<>();
+
+            return new FileAnalysisListener() {
+                @Override
+                public void onRuleViolation(RuleViolation violation) {
+                    long fingerprint = fingerprinter.fingerprint(violation);
+                    int numMatched = matched.getOrDefault(fingerprint, 0);
+                    if (numMatched < baseline.count(fingerprint)) {
+                        matched.put(fingerprint, numMatched + 1);
+                    } else {
+                        fileListener.onRuleViolation(violation);
+                    }
+                }
+
+                @Override
+                public void onSuppressedRuleViolation(SuppressedViolation violation) {
+                    fileListener.onSuppressedRuleViolation(violation);
+                }
+
+                @Override
+                public void onError(ProcessingError error) {
+                    fileListener.onError(error);
+                }
+
+                @Override
+                public void close() throws Exception {
+                    fileListener.close();
+                }
+            };
+        }
+
+        @Override
+        public void onConfigError(ConfigurationError error) {
+            delegate.onConfigError(error);
+        }
+
+        @Override
+        public void close() throws Exception {
+            delegate.close();
+        }
+
+        @Override
+        public String toString() {
+            return "BaselineFilter[" + delegate + "]";
+        }
+    }
+
+    private static final class BaselineWriter extends FingerprintingListener {
+
+        private final Path output;
+        private long[] fingerprints = new long[1024];
+        private int size;
+
+        BaselineWriter(Path output) {
+            this.output = output;
+        }
+
+        @Override
+        public FileAnalysisListener startFileAnalysis(TextFile file) {
+            ViolationFingerprinter fingerprinter = newFingerprinter(file);
+            return violation -> add(fingerprinter.fingerprint(violation));
+        }
+
+        private synchronized void add(long fingerprint) {
+            if (size == fingerprints.length) {
+                fingerprints = Arrays.copyOf(fingerprints, size * 2);
+            }
+            fingerprints[size++] = fingerprint;
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            Arrays.sort(fingerprints, 0, size);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(output)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(size);
+                for (int i = 0; i < size; i++) {
+                    out.writeLong(fingerprints[i]);
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "BaselineWriter[" + output + "]";
+        }
+    }
+}
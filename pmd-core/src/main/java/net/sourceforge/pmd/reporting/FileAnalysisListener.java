@@ -24,6 +24,13 @@ import net.sourceforge.pmd.util.AssertionUtil;
  * <p>Listeners are assumed to be ready to receive events as soon as they
  * are constructed.
  *
+ * <p>The message and additional info of the violations are computed lazily,
+ * the first time they are requested, possibly on another thread. Until then,
+ * a violation references the node it was reported on, and so the AST of the
+ * file. Listeners that keep violations after the file has been analysed
+ * should read what they need from them before {@link #close()}, or should
+ * keep them only for a short time.
+ *
  * @see Report.ReportBuilderListener
  */
 public interface FileAnalysisListener extends AutoCloseable {
@@ -15,6 +15,12 @@ import net.sourceforge.pmd.lang.ast.Node;
 /**
  * Adds additional key/value pairs to a violation in a language-specific manner.
  * The keys are completely free. {@link RuleViolation} defines some of these keys.
+ *
+ * <p>Decoration is deferred until the message or the additional info of the
+ * violation is first requested. This may happen after the analysis of the file,
+ * and on another thread than the one that analysed it, eg on the writer
+ * thread of a renderer. Decorators should therefore only depend on the node,
+ * not on the state of the thread.
  */
 @FunctionalInterface
 public interface ViolationDecorator {
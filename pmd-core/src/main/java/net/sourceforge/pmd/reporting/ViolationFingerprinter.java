@@ -0,0 +1,115 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.reporting;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.lang.document.Chars;
+import net.sourceforge.pmd.lang.document.TextDocument;
+import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.lang.rule.internal.DeferredRuleViolation;
+
+/**
+ * Computes the fingerprints of the violations of one file. A fingerprint
+ * is a 64-bit hash of the rule, the display name of the file, and the
+ * first source line of the violation without its whitespace. Line numbers
+ * are not part of it, so that fingerprints survive code being added or
+ * removed above the violation.
+ *
+ * <p>The line is taken from the document the violation was reported on,
+ * when the violation still references it. Otherwise, eg for violations
+ * of the analysis cache, the file is read, at most once.
+ */
+final class ViolationFingerprinter {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final TextFile file;
+    private final String displayName;
+    private List<Chars> lines;
+    private boolean textUnavailable;
+
+    ViolationFingerprinter(TextFile file, FileNameRenderer fileNameRenderer) {
+        this.file = file;
+        this.displayName = fileNameRenderer.getDisplayName(file).replace('\\', '/');
+    }
+
+    long fingerprint(RuleViolation violation) {
+        Rule rule = violation.getRule();
+        long hash = FNV_OFFSET_BASIS;
+        hash = hash(hash, rule.getLanguage() == null ? "" : rule.getLanguage().getId());
+        hash = hash(hash, rule.getName());
+        hash = hash(hash, displayName);
+
+        Chars line = getBeginLine(violation);
+        if (line == null) {
+            // without the text, the line number is the best we can do
+            return hash(hash, String.valueOf(violation.getBeginLine()));
+        }
+        return hashNonWhitespace(hash, line);
+    }
+
+    private @Nullable Chars getBeginLine(RuleViolation violation) {
+        int line = violation.getBeginLine();
+        if (violation instanceof DeferredRuleViolation) {
+            TextDocument document = ((DeferredRuleViolation) violation).getTextDocument();
+            if (document != null) {
+                try {
+                    return document.sliceOriginalText(document.createLineRange(line, line));
+                } catch (IndexOutOfBoundsException e) {
+                    return null;
+                }
+            }
+        }
+        List<Chars> fileLines = getLines();
+        if (fileLines == null || line < 1 || line > fileLines.size()) {
+            return null;
+        }
+        return fileLines.get(line - 1);
+    }
+
+    private List<Chars> getLines() {
+        if (lines == null && !textUnavailable) {
+            try {
+                List<Chars> fileLines = new ArrayList<>();
+                for (Chars line : file.readContents().getNormalizedText().lines()) {
+                    fileLines.add(line);
+                }
+                lines = fileLines;
+            } catch (IOException | IllegalStateException e) {
+                // some text files can only be read once
+                textUnavailable = true;
+            }
+        }
+        return lines;
+    }
+
+    private static long hash(long hash, CharSequence chars) {
+        long h = hash;
+        for (int i = 0; i < chars.length(); i++) {
+            h = (h ^ chars.charAt(i)) * FNV_PRIME;
+        }
+        // separator, so that "ab" + "c" differs from "a" + "bc"
+        return (h ^ 0xFFFF) * FNV_PRIME;
+    }
+
+    private static long hashNonWhitespace(long hash, Chars chars) {
+        long h = hash;
+        for (int i = 0; i < chars.length(); i++) {
+            char c = chars.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                h = (h ^ c) * FNV_PRIME;
+            }
+        }
+        return h;
+    }
+}
@@ -0,0 +1,411 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.reporting.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.FileLocation;
+import net.sourceforge.pmd.lang.document.TextRange2d;
+import net.sourceforge.pmd.lang.rule.ParametricRuleViolation;
+
+/**
+ * A list of violations that keeps at most a fixed number of violations
+ * in memory. When that threshold is crossed, the violations in memory are
+ * sorted and spilled to a temporary file as one run. Iterating merges the
+ * runs, so that violations are read back one at a time, sorted with
+ * {@link RuleViolation#DEFAULT_COMPARATOR}, ie grouped by file.
+ *
+ * <p>Violations that compare equal are iterated in the order they were
+ * added, as if the list had been sorted in memory.
+ *
+ * <p>Only the rules and file ids are kept in memory, violations are
+ * read back as {@link ParametricRuleViolation}s that refer to them.
+ * Violations are appended with {@link #add(Object)}, the list is not
+ * otherwise modifiable. {@link #get(int)} continues the iteration of the
+ * previous call if the index is not lower, so a loop over the indices is
+ * linear, but random access is not. Adding may be done by several threads:
+ * the thread that fills the buffer sorts and spills it without blocking
+ * the others. Iterating while violations are added is not supported.
+ *
+ * <p>The temporary file is deleted when the list is {@linkplain #close() closed}.
+ */
+public final class SpillingViolationList extends AbstractList<RuleViolation> implements Closeable {
+
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    private final int maxInMemory;
+    // guarded by this
+    private List<RuleViolation> inMemory = new ArrayList<>();
+    private int size;
+    private int numRuns;
+    private int version;
+    // offset, number of violations and sequence number of each run in the spill file
+    private final List<long[]> runs = new ArrayList<>();
+    private Cursor cursor;
+
+    // guarded by spillLock, only one buffer is written at a time
+    private final Object spillLock = new Object();
+    private final List<Rule> rules = new ArrayList<>();
+    private final Map<Rule, Integer> ruleIndices = new IdentityHashMap<>();
+    private final List<FileId> fileIds = new ArrayList<>();
+    private final Map<FileId, Integer> fileIndices = new HashMap<>();
+    private FileChannel spillFile;
+
+    /**
+     * Create a new list.
+     *
+     * @param maxInMemory Number of violations kept in memory before they are spilled
+     */
+    public SpillingViolationList(int maxInMemory) {
+        if (maxInMemory <= 0) {
+            throw new IllegalArgumentException("Threshold must be positive, got " + maxInMemory);
+        }
+        this.maxInMemory = maxInMemory;
+    }
+
+    @Override
+    public boolean add(RuleViolation violation) {
+        List<RuleViolation> full;
+        int runNumber;
+        synchronized (this) {
+            inMemory.add(violation);
+            size++;
+            version++;
+            if (inMemory.size() < maxInMemory) {
+                return true;
+            }
+            // the buffer is sorted and written outside of the lock
+            full = inMemory;
+            inMemory = new ArrayList<>();
+            runNumber = numRuns++;
+        }
+        try {
+            spill(full, runNumber);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized RuleViolation get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        if (cursor == null || cursor.version != version || cursor.nextIndex > index) {
+            cursor = new Cursor(iterator(), version);
+        }
+        while (cursor.nextIndex < index) {
+            cursor.next();
+        }
+        return cursor.next();
+    }
+
+    @Override
+    public synchronized Iterator<RuleViolation> iterator() {
+        // sorting is stable
+        List<RuleViolation> lastRun = new ArrayList<>(inMemory);
+        lastRun.sort(RuleViolation.DEFAULT_COMPARATOR);
+        if (runs.isEmpty()) {
+            return Collections.unmodifiableList(lastRun).iterator();
+        }
+
+        List<Iterator<RuleViolation>> iterators = new ArrayList<>(runs.size() + 1);
+        List<Integer> runNumbers = new ArrayList<>(runs.size() + 1);
+        for (long[] run : runs) {
+            iterators.add(new RunIterator(run[0], (int) run[1]));
+            runNumbers.add((int) run[2]);
+        }
+        iterators.add(lastRun.iterator());
+        runNumbers.add(numRuns);
+        return new MergingIterator(iterators, runNumbers);
+    }
+
+    /**
+     * Deletes the spill file. The list is empty afterwards.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        inMemory.clear();
+        runs.clear();
+        size = 0;
+        version++;
+        cursor = null;
+        synchronized (spillLock) {
+            if (spillFile != null) {
+                spillFile.close();
+                spillFile = null;
+            }
+        }
+    }
+
+    private void spill(List<RuleViolation> violations, int runNumber) throws IOException {
+        violations.sort(RuleViolation.DEFAULT_COMPARATOR);
+
+        long offset;
+        synchronized (spillLock) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                for (RuleViolation violation : violations) {
+                    writeViolation(out, violation);
+                }
+            }
+
+            if (spillFile == null) {
+                Path path = Files.createTempFile("pmd-violations", ".bin");
+                spillFile = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                                             StandardOpenOption.DELETE_ON_CLOSE);
+            }
+            offset = spillFile.size();
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            long position = offset;
+            while (buffer.hasRemaining()) {
+                position += spillFile.write(buffer, position);
+            }
+        }
+
+        synchronized (this) {
+            runs.add(new long[] {offset, violations.size(), runNumber});
+            version++;
+        }
+    }
+
+    private void writeViolation(DataOutputStream out, RuleViolation violation) throws IOException {
+        out.writeInt(ruleIndices.computeIfAbsent(violation.getRule(), r -> {
+            rules.add(r);
+            return rules.size() - 1;
+        }));
+        out.writeInt(fileIndices.computeIfAbsent(violation.getFileId(), f -> {
+            fileIds.add(f);
+            return fileIds.size() - 1;
+        }));
+        out.writeInt(violation.getBeginLine());
+        out.writeInt(violation.getBeginColumn());
+        out.writeInt(violation.getEndLine());
+        out.writeInt(violation.getEndColumn());
+        writeString(out, violation.getDescription());
+        Map<String, String> infos = violation.getAdditionalInfo();
+        out.writeInt(infos.size());
+        for (Map.Entry<String, String> info : infos.entrySet()) {
+            writeString(out, info.getKey());
+            writeString(out, info.getValue());
+        }
+    }
+
+    private RuleViolation readViolation(DataInputStream in) throws IOException {
+        Rule rule = rules.get(in.readInt());
+        FileId fileId = fileIds.get(in.readInt());
+        TextRange2d range = TextRange2d.range2d(in.readInt(), in.readInt(), in.readInt(), in.readInt());
+        String description = readString(in);
+        int numInfos = in.readInt();
+        Map<String, String> infos = numInfos == 0 ? Collections.emptyMap() : new HashMap<>();
+        for (int i = 0; i < numInfos; i++) {
+            infos.put(readString(in), readString(in));
+        }
+        return new ParametricRuleViolation(rule, FileLocation.range(fileId, range), description, infos);
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        // writeUTF is limited to 64k bytes
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Reads the violations of one run. */
+    private final class RunIterator implements Iterator<RuleViolation> {
+
+        private final DataInputStream in;
+        private int remaining;
+
+        RunIterator(long offset, int size) {
+            this.in = new DataInputStream(new ChannelInputStream(spillFile, offset));
+            this.remaining = size;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public RuleViolation next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            remaining--;
+            try {
+                return readViolation(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Merges sorted iterators into one sorted iterator. Ties are broken
+     * by the number of the run, which is the order in which they were
+     * filled, so that the merge is stable.
+     */
+    private static final class MergingIterator implements Iterator<RuleViolation> {
+
+        private final PriorityQueue<Head> heads = new PriorityQueue<>(MergingIterator::compare);
+
+        MergingIterator(List<Iterator<RuleViolation>> iterators, List<Integer> runNumbers) {
+            for (int i = 0; i < iterators.size(); i++) {
+                Iterator<RuleViolation> iterator = iterators.get(i);
+                if (iterator.hasNext()) {
+                    heads.add(new Head(iterator, runNumbers.get(i)));
+                }
+            }
+        }
+
+        private static int compare(Head a, Head b) {
+            int cmp = RuleViolation.DEFAULT_COMPARATOR.compare(a.violation, b.violation);
+            return cmp != 0 ? cmp : Integer.compare(a.runNumber, b.runNumber);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public RuleViolation next() {
+            Head head = heads.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            RuleViolation next = head.violation;
+            if (head.iterator.hasNext()) {
+                head.violation = head.iterator.next();
+                heads.add(head);
+            }
+            return next;
+        }
+    }
+
+    private static final class Head {
+
+        final Iterator<RuleViolation> iterator;
+        final int runNumber;
+        RuleViolation violation;
+
+        Head(Iterator<RuleViolation> iterator, int runNumber) {
+            this.iterator = iterator;
+            this.runNumber = runNumber;
+            this.violation = iterator.next();
+        }
+    }
+
+    /** The iteration of the last call to {@link #get(int)}. */
+    private static final class Cursor {
+
+        final Iterator<RuleViolation> iterator;
+        final int version;
+        int nextIndex;
+
+        Cursor(Iterator<RuleViolation> iterator, int version) {
+            this.iterator = iterator;
+            this.version = version;
+        }
+
+        RuleViolation next() {
+            nextIndex++;
+            return iterator.next();
+        }
+    }
+
+    /**
+     * Reads a channel from a position, with positional reads, so that
+     * several streams can read the same channel at once.
+     */
+    private static final class ChannelInputStream extends InputStream {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        private long position;
+
+        ChannelInputStream(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+            buffer.limit(0);
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+            return buffer.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        private boolean fill() throws IOException {
+            if (buffer.hasRemaining()) {
+                return true;
+            }
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            buffer.flip();
+            if (read < 0) {
+                return false;
+            } else if (read == 0) {
+                throw new EOFException("Truncated spill file");
+            }
+            position += read;
+            return true;
+        }
+    }
+}
@@ -9,6 +9,8 @@ import static net.sourceforge.pmd.properties.NumericConstraints.inRange;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -16,19 +18,25 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import java.util.Collections;
+import java.util.Optional;
 import java.util.regex.Pattern;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 
+import net.sourceforge.pmd.lang.LanguageProcessorRegistry;
 import net.sourceforge.pmd.lang.ast.DummyNode.DummyRootNode;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.TestMessageReporter;
 import net.sourceforge.pmd.lang.rule.AbstractRule;
 import net.sourceforge.pmd.lang.rule.ParametricRuleViolation;
+import net.sourceforge.pmd.lang.rule.xpath.impl.XPathHandler;
+import net.sourceforge.pmd.lang.rule.xpath.internal.SaxonXPathRuleQuery;
 import net.sourceforge.pmd.properties.PropertyDescriptor;
 import net.sourceforge.pmd.properties.PropertyFactory;
 import net.sourceforge.pmd.reporting.FileAnalysisListener;
+import net.sourceforge.pmd.util.log.MessageReporter;
 
 
 class AbstractRuleTest {
@@ -131,6 +139,61 @@ class AbstractRuleTest {
         verify(listener, times(1)).onSuppressedRuleViolation(any());
     }
 
+    @Test
+    void testRuleSuppressXPathIsCompiledOnce() {
+        DummyRootNode n = helper.parse("abc()", FileId.UNKNOWN);
+        XPathHandler xpathHandler = n.getAstInfo().getLanguageProcessor().services().getXPathHandler();
+
+        MyRule r = new MyRule();
+        r.setProperty(Rule.VIOLATION_SUPPRESS_XPATH_DESCRIPTOR, Optional.of("."));
+        SaxonXPathRuleQuery query = AbstractRule.getViolationSuppressXPathQuery(r, xpathHandler);
+
+        FileAnalysisListener listener = mock(FileAnalysisListener.class);
+        RuleContext ctx = RuleContext.create(listener, r);
+        ctx.addViolationWithMessage(n, "message");
+        ctx.addViolationWithMessage(n, "message");
+
+        verify(listener, never()).onRuleViolation(any());
+        verify(listener, times(2)).onSuppressedRuleViolation(any());
+        assertSame(query, AbstractRule.getViolationSuppressXPathQuery(r, xpathHandler));
+
+        r.setProperty(Rule.VIOLATION_SUPPRESS_XPATH_DESCRIPTOR, Optional.of("./foo"));
+        assertNotSame(query, AbstractRule.getViolationSuppressXPathQuery(r, xpathHandler));
+    }
+
+    @Test
+    void testRuleSuppressXPathSeesNewPropertyValues() {
+        DummyRootNode n = helper.parse("abc()", FileId.UNKNOWN);
+        XPathHandler xpathHandler = n.getAstInfo().getLanguageProcessor().services().getXPathHandler();
+
+        MyRule r = new MyRule();
+        r.setProperty(Rule.VIOLATION_SUPPRESS_XPATH_DESCRIPTOR, Optional.of(".[$foo = 'suppressed']"));
+        SaxonXPathRuleQuery query = AbstractRule.getViolationSuppressXPathQuery(r, xpathHandler);
+
+        FileAnalysisListener listener = mock(FileAnalysisListener.class);
+        RuleContext.create(listener, r).addViolationWithMessage(n, "message");
+        verify(listener, times(1)).onRuleViolation(any());
+
+        r.setProperty(MyRule.FOO_PROPERTY, "suppressed");
+        assertNotSame(query, AbstractRule.getViolationSuppressXPathQuery(r, xpathHandler));
+        RuleContext.create(listener, r).addViolationWithMessage(n, "message");
+        verify(listener, times(1)).onSuppressedRuleViolation(any());
+    }
+
+    @Test
+    void testInvalidRuleSuppressXPathIsReportedOnInitialization() {
+        DummyRootNode n = helper.parse("abc()", FileId.UNKNOWN);
+        MyRule r = new MyRule();
+        r.setProperty(Rule.VIOLATION_SUPPRESS_XPATH_DESCRIPTOR, Optional.of("//["));
+
+        RuleSets ruleSets = new RuleSets(RuleSet.forSingleRule(r));
+        MessageReporter reporter = new TestMessageReporter();
+        ruleSets.initializeRules(LanguageProcessorRegistry.singleton(n.getAstInfo().getLanguageProcessor()), reporter);
+
+        assertEquals(1, reporter.numErrors());
+        assertEquals(0, ruleSets.ruleCount());
+    }
+
     @Test
     void testEquals1() {
         MyRule r = new MyRule();
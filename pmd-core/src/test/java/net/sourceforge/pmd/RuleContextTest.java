@@ -6,11 +6,17 @@ package net.sourceforge.pmd;
 
 import static net.sourceforge.pmd.ReportTestUtil.getReport;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 import net.sourceforge.pmd.lang.ast.DummyNode.DummyRootNode;
 import net.sourceforge.pmd.lang.ast.impl.DummyTreeUtil;
+import net.sourceforge.pmd.reporting.FileAnalysisListener;
 
 class RuleContextTest {
 
@@ -36,6 +42,31 @@ class RuleContextTest {
         assertEquals("message with ${ohio}", violation.getDescription());
     }
 
+    @Test
+    void testMessageIsFormattedLazily() {
+        AtomicInteger numFormatted = new AtomicInteger();
+        Object arg = new Object() {
+            @Override
+            public String toString() {
+                numFormatted.incrementAndGet();
+                return "arg";
+            }
+        };
+
+        FileAnalysisListener listener = mock(FileAnalysisListener.class);
+        RuleContext ctx = RuleContext.create(listener, new FooRule());
+        ctx.addViolationWithMessage(DummyTreeUtil.tree(DummyTreeUtil::root), "message {0}", arg);
+
+        ArgumentCaptor<RuleViolation> captor = ArgumentCaptor.forClass(RuleViolation.class);
+        verify(listener).onRuleViolation(captor.capture());
+        assertEquals(0, numFormatted.get());
+
+        RuleViolation violation = captor.getValue();
+        assertEquals("message arg", violation.getDescription());
+        assertEquals("message arg", violation.getDescription());
+        assertEquals(1, numFormatted.get());
+    }
+
     private RuleViolation makeViolation(String unescapedMessage, Object... args) throws Exception {
         Report report = getReport(new FooRule(), (r, ctx) -> {
             DummyRootNode node = DummyTreeUtil.tree(DummyTreeUtil::root);
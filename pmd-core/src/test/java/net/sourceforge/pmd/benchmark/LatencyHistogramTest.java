@@ -0,0 +1,67 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testPercentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000_000, histogram.getMaxNanos());
+        assertEquals(500_500_000, histogram.getTotalNanos());
+        assertWithinPrecision(500_000, histogram.getValueAtPercentile(50));
+        assertWithinPrecision(990_000, histogram.getValueAtPercentile(99));
+        assertEquals(1000_000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(0);
+        histogram.record(3);
+        histogram.record(7);
+
+        assertEquals(0, histogram.getValueAtPercentile(10));
+        assertEquals(3, histogram.getValueAtPercentile(50));
+        assertEquals(7, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void testMerge() {
+        LatencyHistogram first = new LatencyHistogram();
+        first.record(10);
+        LatencyHistogram second = new LatencyHistogram();
+        second.record(1L << 45); // over the largest bucket
+        second.record(20);
+
+        first.merge(second);
+
+        assertEquals(3, first.getCount());
+        assertEquals(1L << 45, first.getMaxNanos());
+        assertEquals(1L << 45, first.getValueAtPercentile(100));
+        assertWithinPrecision(20, first.getValueAtPercentile(60));
+    }
+
+    @Test
+    void testEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+
+    private static void assertWithinPrecision(long expected, long actual) {
+        assertTrue(actual >= expected && actual <= expected * 1.125,
+                   "Expected " + expected + " within 12.5%, got " + actual);
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.pmd.benchmark.TimeTracker.TimedResult;
+
+class TimeTrackerTest {
+
+    private static final int OUTER_BYTES = 1 << 20;
+    private static final int INNER_BYTES = 4 << 20;
+
+    // keeps the allocations from being optimized away
+    private Object sink;
+
+    @AfterEach
+    void stopTracking() {
+        TimeTracker.stopGlobalTracking();
+    }
+
+    @Test
+    void testNestedResourcesAreSubtractedFromParent() {
+        TimeTracker.startGlobalTracking(true);
+        try (TimedOperation ignored = TimeTracker.startOperation(TimedOperationCategory.RULE, "outer")) {
+            sink = new byte[OUTER_BYTES];
+            try (TimedOperation ignored2 = TimeTracker.startOperation(TimedOperationCategory.RULE, "inner")) {
+                sink = new byte[INNER_BYTES];
+            }
+        }
+        TimingReport report = TimeTracker.stopGlobalTracking();
+        assumeTrue(report.isResourceUsageMeasured(), "The JVM cannot measure CPU time and allocations");
+
+        TimedResult outer = report.getLabeledMeasurements(TimedOperationCategory.RULE).get("outer");
+        TimedResult inner = report.getLabeledMeasurements(TimedOperationCategory.RULE).get("inner");
+
+        // the inner operation has no nested operation
+        assertEquals(inner.totalCpuNanos.get(), inner.selfCpuNanos.get());
+        assertEquals(inner.totalAllocatedBytes.get(), inner.selfAllocatedBytes.get());
+        assertTrue(inner.totalAllocatedBytes.get() >= INNER_BYTES);
+
+        // the outer operation does not count it in its self values
+        assertEquals(outer.totalCpuNanos.get() - inner.totalCpuNanos.get(), outer.selfCpuNanos.get());
+        assertEquals(outer.totalAllocatedBytes.get() - inner.totalAllocatedBytes.get(), outer.selfAllocatedBytes.get());
+        assertTrue(outer.totalAllocatedBytes.get() >= OUTER_BYTES + INNER_BYTES);
+        assertTrue(outer.selfAllocatedBytes.get() >= OUTER_BYTES);
+        assertTrue(outer.selfAllocatedBytes.get() < INNER_BYTES);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.sourceforge.pmd.util.log.MessageReporter;
+
+class LanguageProcessorPoolTest {
+
+    private final Language dummy = DummyLanguageModule.getInstance();
+    private final LanguageRegistry registry = LanguageRegistry.singleton(dummy);
+
+    @TempDir
+    private Path tempDir;
+
+    private LanguageProcessor acquire(LanguageProcessorPool pool, LanguagePropertyBundle bundle) {
+        Map<Language, LanguagePropertyBundle> props = Collections.singletonMap(dummy, bundle);
+        try (LanguageProcessorRegistry lpRegistry = pool.acquire(registry, props, MessageReporter.quiet())) {
+            return lpRegistry.getProcessor(dummy);
+        }
+    }
+
+    @Test
+    void testProcessorIsReused() {
+        try (LanguageProcessorPool pool = new LanguageProcessorPool()) {
+            LanguageProcessor first = acquire(pool, dummy.newPropertyBundle());
+            // a different bundle with the same values
+            assertSame(first, acquire(pool, dummy.newPropertyBundle()));
+        }
+    }
+
+    @Test
+    void testProcessorIsReplacedWhenPropertiesChange() {
+        try (LanguageProcessorPool pool = new LanguageProcessorPool()) {
+            LanguageProcessor first = acquire(pool, dummy.newPropertyBundle());
+
+            LanguagePropertyBundle changed = dummy.newPropertyBundle();
+            changed.setProperty(LanguagePropertyBundle.SUPPRESS_MARKER, "NOLINT");
+            LanguageProcessor second = acquire(pool, changed);
+            assertNotSame(first, second);
+            assertSame(second, acquire(pool, changed));
+        }
+    }
+
+    @Test
+    void testJvmProcessorIsReusedForSameClasspath() throws IOException {
+        Path jar = writeJar("first");
+        try (LanguageProcessorPool pool = new LanguageProcessorPool()) {
+            LanguageProcessor first = acquire(pool, jvmBundle(jar));
+            // a new classloader on the same jar
+            assertSame(first, acquire(pool, jvmBundle(jar)));
+        }
+    }
+
+    @Test
+    void testJvmProcessorIsReplacedWhenClasspathChanges() throws IOException {
+        Path jar = writeJar("first");
+        try (LanguageProcessorPool pool = new LanguageProcessorPool()) {
+            LanguageProcessor first = acquire(pool, jvmBundle(jar));
+
+            writeJar("the contents changed");
+            LanguageProcessor second = acquire(pool, jvmBundle(jar));
+            assertNotSame(first, second);
+            assertSame(second, acquire(pool, jvmBundle(jar)));
+
+            LanguageProcessor third = acquire(pool, jvmBundle(jar, writeJar("other.jar", "first")));
+            assertNotSame(second, third);
+        }
+    }
+
+    private LanguagePropertyBundle jvmBundle(Path... jars) {
+        JvmLanguagePropertyBundle bundle = new JvmLanguagePropertyBundle(dummy);
+        StringBuilder classpath = new StringBuilder();
+        for (Path jar : jars) {
+            if (classpath.length() > 0) {
+                classpath.append(File.pathSeparatorChar);
+            }
+            classpath.append(jar);
+        }
+        bundle.setProperty(JvmLanguagePropertyBundle.AUX_CLASSPATH, classpath.toString());
+        return bundle;
+    }
+
+    private Path writeJar(String contents) throws IOException {
+        return writeJar("lib.jar", contents);
+    }
+
+    private Path writeJar(String name, String contents) throws IOException {
+        Path jar = tempDir.resolve(name);
+        try (OutputStream out = Files.newOutputStream(jar);
+             JarOutputStream jarOut = new JarOutputStream(out)) {
+            jarOut.putNextEntry(new ZipEntry("file.txt"));
+            jarOut.write(contents.getBytes(StandardCharsets.UTF_8));
+        }
+        return jar;
+    }
+
+    @Test
+    void testClosedPoolCannotBeUsed() {
+        LanguageProcessorPool pool = new LanguageProcessorPool();
+        acquire(pool, dummy.newPropertyBundle());
+        pool.close();
+        assertThrows(IllegalStateException.class, () -> acquire(pool, dummy.newPropertyBundle()));
+    }
+}
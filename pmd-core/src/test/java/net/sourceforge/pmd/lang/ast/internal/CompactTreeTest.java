@@ -0,0 +1,83 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.ast.internal;
+
+import static net.sourceforge.pmd.lang.ast.impl.DummyTreeUtil.node;
+import static net.sourceforge.pmd.lang.ast.impl.DummyTreeUtil.nodeB;
+import static net.sourceforge.pmd.lang.ast.impl.DummyTreeUtil.root;
+import static net.sourceforge.pmd.lang.ast.impl.DummyTreeUtil.tree;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.pmd.lang.ast.DummyNode;
+import net.sourceforge.pmd.lang.ast.DummyNode.DummyNodeTypeB;
+import net.sourceforge.pmd.lang.ast.DummyNode.DummyRootNode;
+
+class CompactTreeTest {
+
+    private final DummyRootNode tree = tree(
+        () -> root(
+            node(
+                nodeB(), // 00
+                node()   // 01
+            ),
+            nodeB(
+                node()   // 10
+            )
+        )
+    );
+
+    @Test
+    void testIdsAreInDocumentOrder() {
+        CompactTree compact = CompactTree.of(tree);
+        List<DummyNode> nodes = tree.descendantsOrSelf().toList();
+
+        assertEquals(nodes.size(), compact.size());
+        for (int id = 0; id < nodes.size(); id++) {
+            assertSame(nodes.get(id), compact.node(id));
+            assertEquals(id, compact.idOf(nodes.get(id)));
+        }
+        assertEquals(-1, compact.idOf(node()));
+    }
+
+    @Test
+    void testStructure() {
+        CompactTree compact = CompactTree.of(tree);
+        // ids: "" 0, "0" 1, "00" 2, "01" 3, "1" 4, "10" 5
+
+        assertEquals(-1, compact.parent(0));
+        assertEquals(0, compact.parent(4));
+        assertEquals(1, compact.parent(3));
+
+        assertEquals(1, compact.firstChild(0));
+        assertEquals(4, compact.nextSibling(1));
+        assertEquals(-1, compact.nextSibling(4));
+        assertEquals(-1, compact.firstChild(3));
+
+        assertEquals(6, compact.subtreeEnd(0));
+        assertEquals(4, compact.subtreeEnd(1));
+        assertEquals(3, compact.subtreeEnd(2));
+    }
+
+    @Test
+    void testKinds() {
+        CompactTree compact = CompactTree.of(tree);
+
+        assertEquals(3, compact.numKinds());
+        assertEquals(compact.kind(2), compact.kind(4));
+        assertEquals(compact.kind(1), compact.kind(3));
+        assertEquals(DummyNodeTypeB.class, compact.kindClass(compact.kind(2)));
+        assertEquals(DummyRootNode.class, compact.kindClass(compact.kind(0)));
+    }
+
+    @Test
+    void testSnapshotIsShared() {
+        assertSame(CompactTree.of(tree), CompactTree.of(tree));
+    }
+}
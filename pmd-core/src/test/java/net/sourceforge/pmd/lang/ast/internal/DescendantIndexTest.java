@@ -0,0 +1,96 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.ast.internal;
+
+import static net.sourceforge.pmd.lang.ast.impl.DummyTreeUtil.node;
+import static net.sourceforge.pmd.lang.ast.impl.DummyTreeUtil.nodeB;
+import static net.sourceforge.pmd.lang.ast.impl.DummyTreeUtil.pathsOf;
+import static net.sourceforge.pmd.lang.ast.impl.DummyTreeUtil.root;
+import static net.sourceforge.pmd.lang.ast.impl.DummyTreeUtil.tree;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.pmd.lang.ast.DummyNode;
+import net.sourceforge.pmd.lang.ast.DummyNode.DummyNodeTypeB;
+import net.sourceforge.pmd.lang.ast.DummyNode.DummyRootNode;
+
+class DescendantIndexTest {
+
+    private final DummyRootNode tree = tree(
+        () -> root(
+            nodeB(
+                node(),
+                boundary(
+                    nodeB(),
+                    node(
+                        nodeB()
+                    )
+                ),
+                nodeB()
+            ),
+            boundary(
+                boundary(
+                    nodeB()
+                )
+            ),
+            node()
+        )
+    );
+
+    private static DummyNode boundary(DummyNode... children) {
+        DummyNode node = new DummyNode(true);
+        node.publicSetChildren(children);
+        return node;
+    }
+
+    @Test
+    void testIndexedQueriesMatchTreeWalk() {
+        List<DummyNode> allNodes = tree.descendantsOrSelf().crossFindBoundaries().toList();
+        List<List<String>> expected = new ArrayList<>();
+        for (DummyNode n : allNodes) {
+            expected.add(pathsOf(n.descendants(DummyNodeTypeB.class)));
+            expected.add(pathsOf(n.descendants(DummyNodeTypeB.class).crossFindBoundaries()));
+            expected.add(pathsOf(n.descendants(DummyNode.class)));
+            expected.add(pathsOf(n.descendants().filterIs(DummyNodeTypeB.class)));
+        }
+
+        DescendantIndex.enable(tree);
+
+        List<List<String>> actual = new ArrayList<>();
+        for (DummyNode n : allNodes) {
+            actual.add(pathsOf(n.descendants(DummyNodeTypeB.class)));
+            actual.add(pathsOf(n.descendants(DummyNodeTypeB.class).crossFindBoundaries()));
+            actual.add(pathsOf(n.descendants(DummyNode.class)));
+            actual.add(pathsOf(n.descendants().filterIs(DummyNodeTypeB.class)));
+        }
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void testTerminalOperations() {
+        DescendantIndex.enable(tree);
+
+        assertEquals("0", tree.descendants(DummyNodeTypeB.class).first().getImage());
+        assertEquals("02", tree.descendants(DummyNodeTypeB.class).last().getImage());
+        assertEquals(2, tree.descendants(DummyNodeTypeB.class).count());
+        assertEquals(5, tree.descendants(DummyNodeTypeB.class).crossFindBoundaries().count());
+        assertEquals("0110", tree.getChild(0).getChild(1).descendants(DummyNodeTypeB.class).get(1).getImage());
+        assertNull(tree.getChild(2).descendants(DummyNode.class).first());
+    }
+
+    @Test
+    void testNotUsedWithoutRoot() {
+        // this tree has no root node, it's not indexed
+        DummyNode detached = node(nodeB(), node(nodeB()));
+
+        assertNull(DescendantIndex.descendantsOfType(detached, DummyNodeTypeB.class, false));
+        assertEquals(2, detached.descendants(DummyNodeTypeB.class).count());
+    }
+}
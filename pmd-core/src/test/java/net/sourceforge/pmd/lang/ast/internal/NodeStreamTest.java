@@ -404,6 +404,47 @@ class NodeStreamTest {
         assertThat(pathsOf(nodes), contains("013"));
     }
 
+    @Test
+    void testFilteredChildrenTakeDrop() {
+        DummyNode node = followPath(tree1, "01");
+        NodeStream<DummyNode> children = node.children(DummyNode.class).filter(it -> !"011".equals(it.getImage()));
+
+        assertThat(pathsOf(children.take(2)), contains("010", "012"));
+        assertThat(pathsOf(children.drop(1)), contains("012", "013"));
+        assertThat(pathsOf(children.drop(1).take(1)), contains("012"));
+        assertThat(pathsOf(children.take(2).drop(1)), contains("012"));
+        assertTrue(children.drop(3).isEmpty());
+        assertEquals("013", children.get(2).getImage());
+        assertNull(children.get(3));
+    }
+
+    @Test
+    void testFusedPipelineTakeDrop() {
+        NodeStream<Node> stream = tree1.descendants().filterIs(DummyNode.class).map(Node::getParent);
+        assertThat(pathsOf(stream), contains("", "0", "0", "01", "01", "011", "01", "01", ""));
+
+        assertThat(pathsOf(stream.drop(2).take(3)), contains("0", "01", "01"));
+        assertThat(pathsOf(stream.take(3).drop(2)), contains("0"));
+        assertThat(pathsOf(stream.drop(1).drop(1).take(5).take(2)), contains("0", "01"));
+        // filtering after take is not the same as filtering before
+        assertThat(pathsOf(stream.take(3).filter(it -> it.getNumChildren() == 2)), contains("", "0", "0"));
+        assertThat(pathsOf(stream.filter(it -> it.getNumChildren() == 4).take(1)), contains("01"));
+        assertTrue(stream.take(2).drop(2).isEmpty());
+    }
+
+    @Test
+    void testFusedPipelineTerminalOps() {
+        NodeStream<DummyNode> stream = tree1.descendants().filterIs(DummyNode.class).filter(it -> it.getImage().startsWith("01"));
+
+        assertEquals(6, stream.count());
+        assertTrue(stream.any(it -> it.getNumChildren() == 1));
+        assertTrue(stream.none(it -> it.getImage().isEmpty()));
+        assertTrue(stream.all(it -> it.getImage().length() >= 2));
+        assertEquals("01", stream.first().getImage());
+        assertEquals("013", stream.last().getImage());
+    }
+
+
 
     private static <T extends Node> NodeStream<T> hook(Runnable hook, NodeStream<T> stream) {
         return stream.filter(t -> {
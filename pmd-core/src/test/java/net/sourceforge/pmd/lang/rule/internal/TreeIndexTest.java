@@ -0,0 +1,101 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.rule.internal;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static net.sourceforge.pmd.lang.ast.impl.DummyTreeUtil.node;
+import static net.sourceforge.pmd.lang.ast.impl.DummyTreeUtil.nodeB;
+import static net.sourceforge.pmd.lang.ast.impl.DummyTreeUtil.root;
+import static net.sourceforge.pmd.lang.ast.impl.DummyTreeUtil.tree;
+import static net.sourceforge.pmd.util.CollectionUtil.listOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.pmd.lang.ast.DummyNode;
+import net.sourceforge.pmd.lang.ast.DummyNode.DummyNodeTypeB;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.ast.RootNode;
+import net.sourceforge.pmd.util.IteratorUtil;
+
+class TreeIndexTest {
+
+    private final DummyNode tree = tree(
+        () -> root(
+            node(
+                nodeB(), // 00
+                node()   // 01
+            ),
+            nodeB(
+                node()   // 10
+            )
+        )
+    );
+
+    @Test
+    void testIndexBySupertypeInDocumentOrder() {
+        TreeIndex idx = newIndex(DummyNode.class, DummyNodeTypeB.class, RootNode.class);
+
+        assertEquals(listOf("", "0", "00", "01", "1", "10"), pathsOf(idx, DummyNode.class));
+        assertEquals(listOf("00", "1"), pathsOf(idx, DummyNodeTypeB.class));
+        assertEquals(listOf(""), pathsOf(idx, RootNode.class));
+    }
+
+    @Test
+    void testNotQueriedClassIsEmpty() {
+        TreeIndex idx = newIndex(DummyNodeTypeB.class);
+
+        assertEquals(listOf("00", "1"), pathsOf(idx, DummyNodeTypeB.class));
+        assertEquals(emptyList(), pathsOf(idx, DummyNode.class));
+    }
+
+    @Test
+    void testResetBetweenTrees() {
+        TreeIndex idx = newIndex(DummyNodeTypeB.class);
+
+        idx.reset();
+        assertEquals(emptyList(), pathsOf(idx, DummyNodeTypeB.class));
+
+        indexTree(tree.getChild(1), idx);
+        assertEquals(listOf("1"), pathsOf(idx, DummyNodeTypeB.class));
+    }
+
+    @Test
+    void testSeveralClassesAreConcatenated() {
+        TreeIndex idx = newIndex(RootNode.class, DummyNodeTypeB.class);
+
+        List<String> paths = IteratorUtil.toList(IteratorUtil.map(
+            idx.getByClass(listOf(DummyNodeTypeB.class, RootNode.class)),
+            Node::getImage
+        ));
+        assertEquals(listOf("00", "1", ""), paths);
+    }
+
+    @SafeVarargs
+    private final TreeIndex newIndex(Class<? extends Node>... classes) {
+        TreeIndex idx = new TreeIndex(emptySet(), new HashSet<>(Arrays.asList(classes)));
+        indexTree(tree, idx);
+        return idx;
+    }
+
+    private static void indexTree(Node node, TreeIndex idx) {
+        idx.indexNode(node);
+        for (Node child : node.children()) {
+            indexTree(child, idx);
+        }
+    }
+
+    private static List<String> pathsOf(TreeIndex idx, Class<? extends Node> klass) {
+        Collection<Class<? extends Node>> classes = singleton(klass);
+        return IteratorUtil.toList(IteratorUtil.map(idx.getByClass(classes), Node::getImage));
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.sourceforge.pmd.FooRule;
+import net.sourceforge.pmd.Report.ConfigurationError;
+import net.sourceforge.pmd.Report.ProcessingError;
+import net.sourceforge.pmd.Report.SuppressedViolation;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RulePriority;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.ViolationSuppressor;
+import net.sourceforge.pmd.lang.DummyLanguageModule;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.FileLocation;
+import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.lang.document.TextRange2d;
+import net.sourceforge.pmd.lang.rule.ParametricRuleViolation;
+import net.sourceforge.pmd.reporting.FileAnalysisListener;
+import net.sourceforge.pmd.reporting.GlobalAnalysisListener;
+
+class BinaryRendererTest {
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void testConvertedReportIsTheSame() throws Exception {
+        Path binaryReport = tempDir.resolve("report.pmdb");
+        Renderer binaryRenderer = new BinaryRenderer();
+        binaryRenderer.setReportFile(binaryReport.toString());
+        replayAnalysis(binaryRenderer);
+
+        StringWriter direct = new StringWriter();
+        replayAnalysis(newTextRenderer(direct));
+
+        StringWriter converted = new StringWriter();
+        try (InputStream in = Files.newInputStream(binaryReport);
+             GlobalAnalysisListener listener = newTextRenderer(converted).newListener()) {
+            BinaryReportReader.replay(in, listener);
+        }
+
+        assertEquals(direct.toString(), converted.toString());
+    }
+
+    @Test
+    void testLatin1WriterIsSupported() throws Exception {
+        Path binaryReport = tempDir.resolve("report.pmdb");
+        Renderer fileRenderer = new BinaryRenderer();
+        fileRenderer.setReportFile(binaryReport.toString());
+        replayAnalysis(fileRenderer);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Renderer writerRenderer = new BinaryRenderer();
+        writerRenderer.setWriter(new OutputStreamWriter(bytes, StandardCharsets.ISO_8859_1));
+        replayAnalysis(writerRenderer);
+
+        assertArrayEquals(Files.readAllBytes(binaryReport), bytes.toByteArray());
+    }
+
+    @Test
+    void testOtherWritersAreRejected() {
+        Renderer renderer = new BinaryRenderer();
+        assertThrows(IllegalArgumentException.class, () -> renderer.setWriter(new StringWriter()));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        assertThrows(IllegalArgumentException.class,
+            () -> renderer.setWriter(new OutputStreamWriter(bytes, StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testInvalidInput() {
+        InputStream in = new ByteArrayInputStream("<pmd/>".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IOException.class, () -> BinaryReportReader.replay(in, GlobalAnalysisListener.noop()));
+    }
+
+    private static Renderer newTextRenderer(StringWriter writer) {
+        Renderer renderer = new TextRenderer();
+        renderer.setShowSuppressedViolations(true);
+        renderer.setWriter(writer);
+        return renderer;
+    }
+
+    private static void replayAnalysis(Renderer renderer) throws Exception {
+        Rule foo = newRule("Foo", RulePriority.LOW);
+        Rule boo = newRule("Boo", RulePriority.HIGH);
+
+        try (GlobalAnalysisListener listener = renderer.newListener()) {
+            analyzeFile(listener, "first.dummy", fal -> {
+                fal.onRuleViolation(newViolation(foo, "first.dummy", 1, "a message with ünicode"));
+                fal.onRuleViolation(newViolation(boo, "first.dummy", 3, "a message"));
+                RuleViolation suppressed = newViolation(foo, "first.dummy", 5, "a message");
+                ViolationSuppressor suppressor = ViolationSuppressor.NOPMD_COMMENT_SUPPRESSOR;
+                fal.onSuppressedRuleViolation(new SuppressedViolation(suppressed, suppressor, "why not"));
+            });
+            analyzeFile(listener, "second.dummy", fal -> {
+                fal.onRuleViolation(newViolation(foo, "second.dummy", 2, "a message"));
+                FileId fileId = FileId.fromPathLikeString("second.dummy");
+                fal.onError(new ProcessingError(new IllegalStateException("oops"), fileId));
+            });
+            listener.onConfigError(new ConfigurationError(boo, "misconfigured"));
+        }
+    }
+
+    private static void analyzeFile(GlobalAnalysisListener listener, String fileName,
+                                    Consumer<FileAnalysisListener> effects) throws Exception {
+        FileId fileId = FileId.fromPathLikeString(fileName);
+        TextFile file = TextFile.forCharSeq("dummyText", fileId, DummyLanguageModule.getInstance().getDefaultVersion());
+        try (FileAnalysisListener fal = listener.startFileAnalysis(file)) {
+            effects.accept(fal);
+        }
+    }
+
+    private static Rule newRule(String name, RulePriority priority) {
+        Rule rule = new FooRule();
+        rule.setName(name);
+        rule.setPriority(priority);
+        rule.setExternalInfoUrl("https://example.org/" + name);
+        return rule;
+    }
+
+    private static RuleViolation newViolation(Rule rule, String fileName, int line, String message) {
+        FileId fileId = FileId.fromPathLikeString(fileName);
+        FileLocation location = FileLocation.range(fileId, TextRange2d.range2d(line, 1, line, 10));
+        return new ParametricRuleViolation(rule, location, message,
+                                           Collections.singletonMap(RuleViolation.CLASS_NAME, "Foo"));
+    }
+}
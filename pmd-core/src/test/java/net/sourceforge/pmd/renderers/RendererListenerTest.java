@@ -0,0 +1,179 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.pmd.FooRule;
+import net.sourceforge.pmd.Report.SuppressedViolation;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.ViolationSuppressor;
+import net.sourceforge.pmd.lang.DummyLanguageModule;
+import net.sourceforge.pmd.lang.LanguageVersion;
+import net.sourceforge.pmd.lang.ast.impl.DummyTreeUtil;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.FileLocation;
+import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.lang.document.TextRange2d;
+import net.sourceforge.pmd.lang.rule.ParametricRuleViolation;
+import net.sourceforge.pmd.lang.rule.internal.DeferredRuleViolation;
+import net.sourceforge.pmd.reporting.FileAnalysisListener;
+import net.sourceforge.pmd.reporting.GlobalAnalysisListener;
+import net.sourceforge.pmd.reporting.ViolationDecorator;
+
+class RendererListenerTest {
+
+    @Test
+    void testReportsAreRenderedOnOneThread() throws Exception {
+        RecordingRenderer renderer = new RecordingRenderer();
+        renderer.setWriter(new StringWriter());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (GlobalAnalysisListener listener = renderer.newListener()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                String fileName = "file" + i + ".dummy";
+                futures.add(executor.submit(() -> analyzeFile(listener, fileName)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(100, renderer.numViolations);
+        assertEquals(1, renderer.renderingThreads.size());
+        assertTrue(renderer.ended);
+    }
+
+    @Test
+    void testRendererExceptionIsRethrownOnClose() throws Exception {
+        RecordingRenderer renderer = new RecordingRenderer();
+        renderer.setWriter(new StringWriter());
+        IOException failure = new IOException("failure");
+        renderer.failure = failure;
+
+        GlobalAnalysisListener listener = renderer.newListener();
+        analyzeFile(listener, "file.dummy");
+
+        IOException thrown = assertThrows(IOException.class, listener::close);
+        assertSame(failure, thrown);
+        assertFalse(renderer.ended);
+    }
+
+    @Test
+    void testViolationsAreFormattedBeforeTheyAreQueued() throws Exception {
+        RecordingRenderer renderer = new RecordingRenderer();
+        renderer.setWriter(new StringWriter());
+        renderer.setShowSuppressedViolations(false);
+        FormattingRecorder reported = new FormattingRecorder();
+        FormattingRecorder suppressed = new FormattingRecorder();
+
+        try (GlobalAnalysisListener listener = renderer.newListener()) {
+            TextFile file = TextFile.forCharSeq("dummyText", FileId.fromPathLikeString("file.dummy"),
+                                                DummyLanguageModule.getInstance().getDefaultVersion());
+            try (FileAnalysisListener fal = listener.startFileAnalysis(file)) {
+                fal.onRuleViolation(deferredViolation(file.getFileId(), reported));
+                fal.onSuppressedRuleViolation(new SuppressedViolation(deferredViolation(file.getFileId(), suppressed),
+                                                                      ViolationSuppressor.NOPMD_COMMENT_SUPPRESSOR,
+                                                                      ""));
+            }
+        }
+
+        assertEquals(Collections.singletonList("message arg"), renderer.descriptions);
+        assertEquals(Collections.singleton(Thread.currentThread()), reported.threads);
+        assertFalse(renderer.violationClasses.contains(DeferredRuleViolation.class));
+        assertTrue(suppressed.threads.isEmpty());
+    }
+
+    private static RuleViolation deferredViolation(FileId fileId, Object arg) {
+        FileLocation location = FileLocation.range(fileId, TextRange2d.range2d(1, 1, 1, 2));
+        return new DeferredRuleViolation(new FooRule(), location, DummyTreeUtil.tree(DummyTreeUtil::root),
+                                         ViolationDecorator.noop(), "message {0}", new Object[] {arg});
+    }
+
+    /** Records the threads on which a message argument is formatted. */
+    private static final class FormattingRecorder {
+
+        final Set<Thread> threads = Collections.synchronizedSet(new HashSet<>());
+
+        @Override
+        public String toString() {
+            threads.add(Thread.currentThread());
+            return "arg";
+        }
+    }
+
+    private static Void analyzeFile(GlobalAnalysisListener listener, String fileName) throws Exception {
+        LanguageVersion version = DummyLanguageModule.getInstance().getDefaultVersion();
+        FileId fileId = FileId.fromPathLikeString(fileName);
+        TextFile file = TextFile.forCharSeq("dummyText", fileId, version);
+        try (FileAnalysisListener fal = listener.startFileAnalysis(file)) {
+            FileLocation location = FileLocation.range(fileId, TextRange2d.range2d(1, 1, 1, 2));
+            fal.onRuleViolation(new ParametricRuleViolation(new FooRule(), location, "blah"));
+        }
+        return null;
+    }
+
+    private static class RecordingRenderer extends AbstractIncrementingRenderer {
+
+        // written by the rendering thread, read after the listener is closed
+        final Set<Thread> renderingThreads = Collections.synchronizedSet(new HashSet<>());
+        final List<String> descriptions = new ArrayList<>();
+        final Set<Class<?>> violationClasses = new HashSet<>();
+        int numViolations;
+        boolean ended;
+        IOException failure;
+
+        RecordingRenderer() {
+            super("recording", "Test renderer");
+        }
+
+        @Override
+        public String defaultFileExtension() {
+            return "txt";
+        }
+
+        @Override
+        public void renderFileViolations(Iterator<RuleViolation> violations) throws IOException {
+            renderingThreads.add(Thread.currentThread());
+            if (failure != null) {
+                throw failure;
+            }
+            while (violations.hasNext()) {
+                RuleViolation violation = violations.next();
+                violationClasses.add(violation.getClass());
+                descriptions.add(violation.getDescription());
+                numViolations++;
+            }
+        }
+
+        @Override
+        public void end() {
+            ended = true;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.reporting;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.sourceforge.pmd.FooRule;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.Report.GlobalReportBuilderListener;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.lang.DummyLanguageModule;
+import net.sourceforge.pmd.lang.LanguageProcessor;
+import net.sourceforge.pmd.lang.LanguageProcessorRegistry;
+import net.sourceforge.pmd.lang.ast.DummyNode.DummyRootNode;
+import net.sourceforge.pmd.lang.ast.Parser.ParserTask;
+import net.sourceforge.pmd.lang.ast.SemanticErrorReporter;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.FileLocation;
+import net.sourceforge.pmd.lang.document.TextDocument;
+import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.lang.document.TextRange2d;
+import net.sourceforge.pmd.lang.rule.ParametricRuleViolation;
+import net.sourceforge.pmd.lang.rule.internal.DeferredRuleViolation;
+
+class BaselineTest {
+
+    private static final FileId FILE = FileId.fromPathLikeString("Foo.dummy");
+
+    private final Rule rule = new FooRule();
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void testKnownViolationsAreFilteredAfterLineShift() throws Exception {
+        Path baselineFile = tempDir.resolve("baseline.bin");
+        try (GlobalAnalysisListener writer = Baseline.writer(baselineFile)) {
+            analyze(writer, "class Foo {\n  foo();\n  foo();\n  bar();\n}", 2, 3, 4);
+        }
+
+        Baseline baseline = Baseline.load(baselineFile);
+        assertEquals(3, baseline.size());
+
+        GlobalReportBuilderListener reportBuilder = new GlobalReportBuilderListener();
+        try (GlobalAnalysisListener filter = baseline.filter(reportBuilder)) {
+            // two lines were inserted, one was reindented, and there is a third foo
+            analyze(filter, "// header\n\nclass Foo {\n  foo();\n    foo();\n  foo();\n  bar();\n}", 4, 5, 6, 7);
+        }
+
+        List<RuleViolation> violations = reportBuilder.getResult().getViolations();
+        assertEquals(1, violations.size());
+        assertEquals(6, violations.get(0).getBeginLine());
+    }
+
+    @Test
+    void testChangedLineIsReported() throws Exception {
+        Path baselineFile = tempDir.resolve("baseline.bin");
+        try (GlobalAnalysisListener writer = Baseline.writer(baselineFile)) {
+            analyze(writer, "foo();", 1);
+        }
+
+        GlobalReportBuilderListener reportBuilder = new GlobalReportBuilderListener();
+        try (GlobalAnalysisListener filter = Baseline.load(baselineFile).filter(reportBuilder)) {
+            analyze(filter, "foo(1);", 1);
+        }
+
+        Report report = reportBuilder.getResult();
+        assertEquals(1, report.getViolations().size());
+    }
+
+    @Test
+    void testOnlyTheFirstLineIsFingerprinted() throws Exception {
+        Path baselineFile = tempDir.resolve("baseline.bin");
+        try (GlobalAnalysisListener writer = Baseline.writer(baselineFile)) {
+            analyzeRange(writer, "foo(\n  1);", 1, 2);
+        }
+
+        GlobalReportBuilderListener reportBuilder = new GlobalReportBuilderListener();
+        try (GlobalAnalysisListener filter = Baseline.load(baselineFile).filter(reportBuilder)) {
+            analyzeRange(filter, "foo(\n  2,\n  3);", 1, 3);
+        }
+
+        assertEquals(0, reportBuilder.getResult().getViolations().size());
+    }
+
+    @Test
+    void testTextOfTheAnalysisIsReused() throws Exception {
+        // the reader can only be read once, for the analysis
+        TextFile file = TextFile.forReader(new StringReader("foo();"), FILE, DummyLanguageModule.getInstance().getDefaultVersion());
+        Path baselineFile = tempDir.resolve("baseline.bin");
+        try (GlobalAnalysisListener writer = Baseline.writer(baselineFile);
+             FileAnalysisListener fileListener = writer.startFileAnalysis(file);
+             TextDocument document = TextDocument.create(file);
+             LanguageProcessor processor = DummyLanguageModule.getInstance().createProcessor(DummyLanguageModule.getInstance().newPropertyBundle())) {
+            ParserTask task = new ParserTask(document, SemanticErrorReporter.noop(), LanguageProcessorRegistry.singleton(processor));
+            FileLocation location = FileLocation.range(FILE, TextRange2d.range2d(1, 1, 1, 2));
+            fileListener.onRuleViolation(new DeferredRuleViolation(rule, location, new DummyRootNode().withTaskInfo(task),
+                                                                   ViolationDecorator.noop(), "a violation", new Object[0]));
+        }
+
+        // the fingerprint was computed from the text, not from the line number
+        GlobalReportBuilderListener reportBuilder = new GlobalReportBuilderListener();
+        try (GlobalAnalysisListener filter = Baseline.load(baselineFile).filter(reportBuilder)) {
+            analyze(filter, "foo();", 1);
+        }
+        assertEquals(0, reportBuilder.getResult().getViolations().size());
+    }
+
+    @Test
+    void testInvalidBaseline() throws IOException {
+        Path baselineFile = tempDir.resolve("baseline.bin");
+        Files.write(baselineFile, "not a baseline".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IOException.class, () -> Baseline.load(baselineFile));
+    }
+
+    private void analyzeRange(GlobalAnalysisListener listener, String text, int beginLine, int endLine) throws Exception {
+        TextFile file = TextFile.forCharSeq(text, FILE, DummyLanguageModule.getInstance().getDefaultVersion());
+        try (FileAnalysisListener fileListener = listener.startFileAnalysis(file)) {
+            FileLocation location = FileLocation.range(FILE, TextRange2d.range2d(beginLine, 1, endLine, 2));
+            fileListener.onRuleViolation(new ParametricRuleViolation(rule, location, "a violation"));
+        }
+    }
+
+    private void analyze(GlobalAnalysisListener listener, String text, int... violationLines) throws Exception {
+        TextFile file = TextFile.forCharSeq(text, FILE, DummyLanguageModule.getInstance().getDefaultVersion());
+        try (FileAnalysisListener fileListener = listener.startFileAnalysis(file)) {
+            for (int line : violationLines) {
+                FileLocation location = FileLocation.range(FILE, TextRange2d.range2d(line, 1, line, 2));
+                fileListener.onRuleViolation(new ParametricRuleViolation(rule, location, "a violation"));
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.reporting.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.pmd.FooRule;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.FileLocation;
+import net.sourceforge.pmd.lang.document.TextRange2d;
+import net.sourceforge.pmd.lang.rule.ParametricRuleViolation;
+
+class SpillingViolationListTest {
+
+    @Test
+    void testViolationsAreSortedAcrossRuns() throws IOException {
+        Rule rule = new FooRule();
+        List<RuleViolation> expected = new ArrayList<>();
+        for (int file = 0; file < 5; file++) {
+            FileId fileId = FileId.fromPathLikeString("file" + file + ".dummy");
+            for (int line = 1; line <= 7; line++) {
+                FileLocation location = FileLocation.range(fileId, TextRange2d.range2d(line, 1, line, 5));
+                expected.add(new ParametricRuleViolation(rule, location, "message " + line,
+                                                         Collections.singletonMap(RuleViolation.METHOD_NAME, "foo")));
+            }
+        }
+        List<RuleViolation> shuffled = new ArrayList<>(expected);
+        Collections.shuffle(shuffled, new Random(42));
+
+        try (SpillingViolationList list = new SpillingViolationList(4)) {
+            list.addAll(shuffled);
+            assertEquals(expected.size(), list.size());
+
+            // iterate twice, the spill file must be readable again
+            for (int i = 0; i < 2; i++) {
+                List<RuleViolation> actual = new ArrayList<>(list);
+                assertEquals(expected.size(), actual.size());
+                for (int j = 0; j < expected.size(); j++) {
+                    assertSameViolation(expected.get(j), actual.get(j));
+                }
+            }
+            assertSameViolation(expected.get(10), list.get(10));
+        }
+    }
+
+    @Test
+    void testEqualViolationsKeepTheirOrder() throws IOException {
+        Rule rule = new FooRule();
+        FileLocation location = FileLocation.range(FileId.UNKNOWN, TextRange2d.range2d(1, 1, 1, 5));
+        try (SpillingViolationList list = new SpillingViolationList(3)) {
+            for (int i = 0; i < 10; i++) {
+                list.add(new ParametricRuleViolation(rule, location, "message",
+                                                     Collections.singletonMap(RuleViolation.METHOD_NAME, "m" + i)));
+            }
+            for (int i = 0; i < 10; i++) {
+                assertEquals("m" + i, list.get(i).getAdditionalInfo().get(RuleViolation.METHOD_NAME));
+            }
+        }
+    }
+
+    @Test
+    void testCloseEmptiesTheList() throws IOException {
+        SpillingViolationList list = new SpillingViolationList(1);
+        FileLocation location = FileLocation.range(FileId.UNKNOWN, TextRange2d.range2d(1, 1, 1, 1));
+        list.add(new ParametricRuleViolation(new FooRule(), location, "message"));
+        list.close();
+        assertTrue(list.isEmpty());
+    }
+
+    private static void assertSameViolation(RuleViolation expected, RuleViolation actual) {
+        assertSame(expected.getRule(), actual.getRule());
+        assertEquals(expected.getFileId(), actual.getFileId());
+        assertEquals(expected.getBeginLine(), actual.getBeginLine());
+        assertEquals(expected.getBeginColumn(), actual.getBeginColumn());
+        assertEquals(expected.getEndLine(), actual.getEndLine());
+        assertEquals(expected.getEndColumn(), actual.getEndColumn());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getAdditionalInfo(), actual.getAdditionalInfo());
+    }
+}
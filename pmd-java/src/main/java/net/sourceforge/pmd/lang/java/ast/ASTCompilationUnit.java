@@ -54,6 +54,8 @@ public final class ASTCompilationUnit extends AbstractJavaNode implements JavaNo
     private LazyTypeResolver lazyTypeResolver;
     private List<JavaComment> comments;
     private AstInfo<ASTCompilationUnit> astInfo;
+    final LazyPass usageResolution = new LazyPass();
+    final LazyPass overrideResolution = new LazyPass();
 
     ASTCompilationUnit(int id) {
         super(id);
@@ -75,6 +77,11 @@ public final class ASTCompilationUnit extends AbstractJavaNode implements JavaNo
 
     void setComments(List<JavaComment> comments) {
         this.comments = comments;
+        for (JavaComment comment : comments) {
+            if (comment instanceof JavadocComment) {
+                ((JavadocComment) comment).setRoot(this);
+            }
+        }
     }
 
 
@@ -62,7 +62,7 @@ public final class ASTMethodDeclaration extends AbstractMethodOrConstructorDecla
      * Returns true if this method is overridden.
      */
     public boolean isOverridden() {
-        return overriddenMethod != null;
+        return getOverriddenMethod() != null;
     }
 
     /**
@@ -75,6 +75,7 @@ public final class ASTMethodDeclaration extends AbstractMethodOrConstructorDecla
      * {@link TypeSystem#UNRESOLVED_METHOD}.
      */
     public JMethodSig getOverriddenMethod() {
+        getRoot().overrideResolution.ensureRun();
         return overriddenMethod;
     }
 
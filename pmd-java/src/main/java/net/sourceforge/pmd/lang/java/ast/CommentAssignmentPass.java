@@ -7,59 +7,123 @@ package net.sourceforge.pmd.lang.java.ast;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import net.sourceforge.pmd.lang.ast.GenericToken;
-import net.sourceforge.pmd.lang.ast.NodeStream;
 import net.sourceforge.pmd.lang.ast.impl.javacc.JavaccToken;
 import net.sourceforge.pmd.lang.document.FileLocation;
 import net.sourceforge.pmd.util.DataMap;
 import net.sourceforge.pmd.util.DataMap.SimpleDataKey;
 
+/**
+ * Assigns javadoc comments to the declarations they document. This is
+ * done on demand for each node and each comment, so that files whose
+ * comments are never queried pay nothing for it. The comments of a file
+ * are sorted by position, which allows looking them up by binary search.
+ * {@link #assignCommentsToDeclarations(JavaNode)} assigns all the comments
+ * of a subtree up front.
+ */
 final class CommentAssignmentPass {
 
-    private static final SimpleDataKey<JavadocComment> FORMAL_COMMENT_KEY = DataMap.simpleDataKey("java.comment");
+    private static final SimpleDataKey<Optional<JavadocComment>> FORMAL_COMMENT_KEY = DataMap.simpleDataKey("java.comment");
+    private static final Comparator<JavaComment> COMMENT_POSITION = Comparator.comparing(JavaComment::getReportLocation, FileLocation.COORDS_COMPARATOR);
 
     private CommentAssignmentPass() {
         // utility class
     }
 
     static @Nullable JavadocComment getComment(JavadocCommentOwner commentOwner) {
-        return commentOwner.getUserMap().get(CommentAssignmentPass.FORMAL_COMMENT_KEY);
+        return commentOwner.getUserMap().computeIfAbsent(FORMAL_COMMENT_KEY, () -> Optional.ofNullable(findComment(commentOwner)))
+                           .orElse(null);
     }
 
-    private static void setComment(JavadocCommentOwner commentableNode, JavadocComment comment) {
-        commentableNode.getUserMap().set(FORMAL_COMMENT_KEY, comment);
-        comment.setOwner(commentableNode);
+    private static @Nullable JavadocComment findComment(JavadocCommentOwner commentOwner) {
+        JavaccToken maybeComment = nearestFormalComment(commentOwner.getFirstToken());
+        if (maybeComment == null) {
+            return null;
+        }
+        // deduplicate the comment
+        List<JavaComment> comments = commentOwner.getRoot().getComments();
+        int idx = Collections.binarySearch(comments, new JavadocComment(maybeComment), COMMENT_POSITION);
+        assert idx >= 0 : "Formal comment not found? " + maybeComment;
+        return (JavadocComment) comments.get(idx);
     }
 
-    public static void assignCommentsToDeclarations(ASTCompilationUnit root) {
-        final List<JavaComment> comments = root.getComments();
-        if (comments.isEmpty()) {
-            return;
+    private static @Nullable JavaccToken nearestFormalComment(JavaccToken firstToken) {
+        for (JavaccToken maybeComment : GenericToken.previousSpecials(firstToken)) {
+            if (maybeComment.kind == JavaTokenKinds.FORMAL_COMMENT) {
+                return maybeComment;
+            }
         }
+        return null;
+    }
 
-        outer:
-        for (JavadocCommentOwner commentableNode : javadocOwners(root)) {
-            JavaccToken firstToken = commentableNode.getFirstToken();
+    /**
+     * Finds the declaration documented by the given comment. This descends
+     * the tree from the root, following the children that end after the
+     * comment, until reaching the node that starts right after it.
+     */
+    static @Nullable JavadocCommentOwner findOwner(ASTCompilationUnit root, JavadocComment comment) {
+        JavaccToken commentToken = comment.getToken();
+        int offset = commentToken.getRegion().getEndOffset();
+        JavaNode node = root;
+        while (true) {
+            JavaNode child = firstChildEndingAfter(node, offset);
+            if (child == null) {
+                return null;
+            } else if (child.getTextRegion().getStartOffset() >= offset) {
+                // the comment is before this child
+                return ownerStartingWith(child, commentToken);
+            }
+            node = child;
+        }
+    }
 
-            for (JavaccToken maybeComment : GenericToken.previousSpecials(firstToken)) {
-                if (maybeComment.kind == JavaTokenKinds.FORMAL_COMMENT) {
-                    JavadocComment comment = new JavadocComment(maybeComment);
-                    // deduplicate the comment
-                    int idx = Collections.binarySearch(comments, comment, Comparator.comparing(JavaComment::getReportLocation, FileLocation.COORDS_COMPARATOR));
-                    assert idx >= 0 : "Formal comment not found? " + comment;
-                    comment = (JavadocComment) comments.get(idx);
+    private static @Nullable JavaNode firstChildEndingAfter(JavaNode node, int offset) {
+        int lo = 0;
+        int hi = node.getNumChildren();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (node.getChild(mid).getTextRegion().getEndOffset() > offset) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo < node.getNumChildren() ? node.getChild(lo) : null;
+    }
 
-                    setComment(commentableNode, comment);
-                    continue outer;
-                }
+    // the deepest owner whose first token is the first token of the node
+    private static @Nullable JavadocCommentOwner ownerStartingWith(JavaNode node, JavaccToken commentToken) {
+        JavaccToken firstToken = node.getFirstToken();
+        if (nearestFormalComment(firstToken) != commentToken) { // NOPMD CompareObjectsWithEquals
+            return null;
+        }
+        JavadocCommentOwner owner = null;
+        for (JavaNode n = node; n != null && n.getFirstToken() == firstToken; n = n.getFirstChild()) { // NOPMD CompareObjectsWithEquals
+            if (n instanceof JavadocCommentOwner) {
+                owner = (JavadocCommentOwner) n;
             }
         }
+        return owner;
     }
 
-    private static NodeStream<JavadocCommentOwner> javadocOwners(ASTCompilationUnit root) {
-        return root.descendants().crossFindBoundaries().filterIs(JavadocCommentOwner.class);
+    /**
+     * Assigns the comments of all the declarations of the subtree. This is
+     * only useful when most of them will be queried.
+     */
+    public static void assignCommentsToDeclarations(JavaNode subtree) {
+        if (subtree.getRoot().getComments().isEmpty()) {
+            return;
+        }
+
+        subtree.descendants().crossFindBoundaries().filterIs(JavadocCommentOwner.class).forEach(commentableNode -> {
+            JavadocComment comment = getComment(commentableNode);
+            if (comment != null) {
+                comment.setOwner(commentableNode);
+            }
+        });
     }
 }
@@ -112,6 +112,16 @@ public final class InternalApiBridge {
             });
     }
 
+    /** Defers usage resolution until the usages of a variable are queried. */
+    public static void deferUsageResolution(ASTCompilationUnit root, Runnable pass) {
+        root.usageResolution.defer(pass);
+    }
+
+    /** Defers override resolution until the overridden method of a method is queried. */
+    public static void deferOverrideResolution(ASTCompilationUnit root, Runnable pass) {
+        root.overrideResolution.defer(pass);
+    }
+
     public static void overrideResolution(JavaAstProcessor processor, ASTCompilationUnit root) {
         root.descendants(ASTAnyTypeDeclaration.class)
             .crossFindBoundaries()
@@ -14,6 +14,8 @@ import net.sourceforge.pmd.lang.ast.impl.javacc.JavaccToken;
 public final class JavadocComment extends JavaComment {
 
     private JavadocCommentOwner owner;
+    /** Set until the owner is resolved, see {@link #getOwner()}. */
+    private ASTCompilationUnit root;
 
     JavadocComment(JavaccToken t) {
         super(t);
@@ -22,6 +24,11 @@ public final class JavadocComment extends JavaComment {
 
     void setOwner(JavadocCommentOwner owner) {
         this.owner = owner;
+        this.root = null;
+    }
+
+    void setRoot(ASTCompilationUnit root) {
+        this.root = root;
     }
 
     /**
@@ -29,6 +36,10 @@ public final class JavadocComment extends JavaComment {
      * misplaced.
      */
     public @Nullable JavadocCommentOwner getOwner() {
+        if (root != null) {
+            owner = CommentAssignmentPass.findOwner(root, this);
+            root = null;
+        }
         return owner;
     }
 
@@ -0,0 +1,28 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.ast;
+
+/**
+ * A semantic pass over a compilation unit, that was deferred until one
+ * of its results is queried. The pass is run at most once.
+ */
+final class LazyPass {
+
+    private Runnable pass;
+
+    void defer(Runnable pass) {
+        this.pass = pass;
+    }
+
+    /** Runs the pass if it was deferred and has not been run yet. */
+    void ensureRun() {
+        Runnable toRun = pass;
+        if (toRun != null) {
+            // clear it first, as the pass may query its own results
+            pass = null;
+            toRun.run();
+        }
+    }
+}
@@ -6,15 +6,21 @@ package net.sourceforge.pmd.lang.java.internal;
 
 import static net.sourceforge.pmd.lang.java.symbols.table.internal.JavaSemanticErrors.CANNOT_RESOLVE_SYMBOL;
 
+import java.util.Set;
+import java.util.function.BiConsumer;
+
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import net.sourceforge.pmd.benchmark.TimeTracker;
+import net.sourceforge.pmd.benchmark.TimedOperation;
+import net.sourceforge.pmd.benchmark.TimedOperationCategory;
 import net.sourceforge.pmd.lang.ast.NodeStream;
 import net.sourceforge.pmd.lang.ast.SemanticErrorReporter;
 import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
 import net.sourceforge.pmd.lang.java.ast.InternalApiBridge;
 import net.sourceforge.pmd.lang.java.ast.JavaNode;
+import net.sourceforge.pmd.lang.java.rule.JavaSemanticFacility;
 import net.sourceforge.pmd.lang.java.symbols.JClassSymbol;
 import net.sourceforge.pmd.lang.java.symbols.JTypeDeclSymbol;
 import net.sourceforge.pmd.lang.java.symbols.SymbolResolver;
@@ -131,10 +137,41 @@ public final class JavaAstProcessor {
 
         TimeTracker.bench("Symbol table resolution", () -> SymbolTableResolver.traverse(this, acu));
         TimeTracker.bench("AST disambiguation", () -> InternalApiBridge.disambigWithCtx(NodeStream.of(acu), ReferenceCtx.root(this, acu)));
-        TimeTracker.bench("Force type resolution", () -> InternalApiBridge.forceTypeResolutionPhase(this, acu));
-        TimeTracker.bench("Comment assignment", () -> InternalApiBridge.assignComments(acu));
-        TimeTracker.bench("Usage resolution", () -> InternalApiBridge.usageResolution(this, acu));
-        TimeTracker.bench("Override resolution", () -> InternalApiBridge.overrideResolution(this, acu));
+
+        // The other passes only run eagerly if a rule needs them,
+        // otherwise they run when their results are first queried.
+        Set<JavaSemanticFacility> eager = globalProc.getEagerFacilities();
+        if (eager.contains(JavaSemanticFacility.TYPES)) {
+            // type resolution is lazy anyway, this only resolves all nodes up front
+            TimeTracker.bench("Force type resolution", () -> InternalApiBridge.forceTypeResolutionPhase(this, acu));
+        }
+        if (eager.contains(JavaSemanticFacility.COMMENTS)) {
+            // comments are otherwise assigned on demand, for each node
+            TimeTracker.bench("Comment assignment", () -> InternalApiBridge.assignComments(acu));
+        }
+        runOrDefer(eager, JavaSemanticFacility.USAGES, "Usage resolution",
+                   () -> InternalApiBridge.usageResolution(this, acu), InternalApiBridge::deferUsageResolution);
+        runOrDefer(eager, JavaSemanticFacility.OVERRIDES, "Override resolution",
+                   () -> InternalApiBridge.overrideResolution(this, acu), InternalApiBridge::deferOverrideResolution);
+    }
+
+    private void runOrDefer(Set<JavaSemanticFacility> eager,
+                            JavaSemanticFacility facility,
+                            String label,
+                            Runnable pass,
+                            BiConsumer<ASTCompilationUnit, Runnable> defer) {
+        if (eager.contains(facility)) {
+            TimeTracker.bench(label, pass);
+        } else {
+            defer.accept(acu, () -> benchDeferred(label, pass));
+        }
+    }
+
+    // deferred passes run within a rule, they are timed separately from it
+    private static void benchDeferred(String label, Runnable pass) {
+        try (TimedOperation ignored = TimeTracker.startOperation(TimedOperationCategory.DEFERRED_LANGUAGE_PROCESSING, label)) {
+            pass.run();
+        }
     }
 
     public TypeSystem getTypeSystem() {
@@ -4,28 +4,40 @@
 
 package net.sourceforge.pmd.lang.java.internal;
 
+import java.io.Closeable;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
 
+import net.sourceforge.pmd.Rule;
 import net.sourceforge.pmd.ViolationSuppressor;
 import net.sourceforge.pmd.lang.LanguageVersionHandler;
 import net.sourceforge.pmd.lang.ast.Parser;
 import net.sourceforge.pmd.lang.impl.BatchLanguageProcessor;
 import net.sourceforge.pmd.lang.java.ast.JavaParser;
 import net.sourceforge.pmd.lang.java.internal.JavaLanguageProperties.InferenceLoggingVerbosity;
+import net.sourceforge.pmd.lang.java.rule.AbstractJavaRule;
+import net.sourceforge.pmd.lang.java.rule.JavaSemanticFacility;
 import net.sourceforge.pmd.lang.java.rule.xpath.internal.BaseContextNodeTestFun;
 import net.sourceforge.pmd.lang.java.rule.xpath.internal.GetCommentOnFunction;
 import net.sourceforge.pmd.lang.java.rule.xpath.internal.GetModifiersFun;
 import net.sourceforge.pmd.lang.java.rule.xpath.internal.MatchesSignatureFunction;
 import net.sourceforge.pmd.lang.java.rule.xpath.internal.MetricFunction;
 import net.sourceforge.pmd.lang.java.rule.xpath.internal.NodeIsFunction;
+import net.sourceforge.pmd.lang.java.symbols.internal.asm.AsmSymbolResolver;
+import net.sourceforge.pmd.lang.java.symbols.internal.asm.Classpath;
+import net.sourceforge.pmd.lang.java.symbols.internal.asm.IndexedClasspath;
+import net.sourceforge.pmd.lang.java.symbols.internal.asm.SymbolStubIndex;
 import net.sourceforge.pmd.lang.java.types.TypeSystem;
 import net.sourceforge.pmd.lang.java.types.internal.infer.TypeInferenceLogger;
 import net.sourceforge.pmd.lang.java.types.internal.infer.TypeInferenceLogger.SimpleLogger;
 import net.sourceforge.pmd.lang.java.types.internal.infer.TypeInferenceLogger.VerboseLogger;
 import net.sourceforge.pmd.lang.metrics.LanguageMetricsProvider;
+import net.sourceforge.pmd.lang.rule.AbstractDelegateRule;
+import net.sourceforge.pmd.lang.rule.XPathRule;
 import net.sourceforge.pmd.lang.rule.xpath.impl.XPathHandler;
 import net.sourceforge.pmd.reporting.ViolationDecorator;
 import net.sourceforge.pmd.util.designerbindings.DesignerBindings;
@@ -40,6 +52,8 @@ public class JavaLanguageProcessor extends BatchLanguageProcessor<JavaLanguagePr
     private final JavaParser parser;
     private final JavaParser parserWithoutProcessing;
     private TypeSystem typeSystem;
+    private Classpath classpath;
+    private volatile Set<JavaSemanticFacility> eagerFacilities = JavaSemanticFacility.ALL;
 
     public JavaLanguageProcessor(JavaLanguageProperties properties, TypeSystem typeSystem) {
         super(properties);
@@ -51,7 +65,20 @@ public class JavaLanguageProcessor extends BatchLanguageProcessor<JavaLanguagePr
     }
 
     public JavaLanguageProcessor(JavaLanguageProperties properties) {
-        this(properties, TypeSystem.usingClassLoaderClasspath(properties.getAnalysisClassLoader()));
+        this(properties, IndexedClasspath.forClassLoader(properties.getAnalysisClassLoader()));
+    }
+
+    private JavaLanguageProcessor(JavaLanguageProperties properties, Classpath classpath) {
+        this(properties, newTypeSystem(properties, classpath));
+        this.classpath = classpath;
+    }
+
+    private static TypeSystem newTypeSystem(JavaLanguageProperties properties, Classpath classpath) {
+        SymbolStubIndex stubIndex = SymbolStubIndex.forDirectory(properties.getProperty(JavaLanguageProperties.SYMBOL_STUB_CACHE));
+        if (stubIndex == null) {
+            return TypeSystem.usingClasspath(classpath);
+        }
+        return new TypeSystem(ts -> new AsmSymbolResolver(ts, classpath, stubIndex));
     }
 
     @Override
@@ -83,6 +110,44 @@ public class JavaLanguageProcessor extends BatchLanguageProcessor<JavaLanguagePr
         }
     }
 
+    /**
+     * Returns the semantic facilities that are computed eagerly for each
+     * file. This is all of them, unless an analysis has been launched,
+     * in which case only those needed by its rules are.
+     */
+    public Set<JavaSemanticFacility> getEagerFacilities() {
+        return eagerFacilities;
+    }
+
+    @Override
+    public @NonNull AutoCloseable launchAnalysis(@NonNull AnalysisTask task) {
+        Set<JavaSemanticFacility> required = EnumSet.noneOf(JavaSemanticFacility.class);
+        for (Rule rule : task.getRulesets().getAllRules()) {
+            if (getLanguage().equals(rule.getLanguage())) {
+                required.addAll(requiredFacilities(rule));
+            }
+        }
+        setEagerFacilities(required);
+        return super.launchAnalysis(task);
+    }
+
+    void setEagerFacilities(Set<JavaSemanticFacility> facilities) {
+        this.eagerFacilities = facilities;
+    }
+
+    private static Set<JavaSemanticFacility> requiredFacilities(Rule rule) {
+        while (rule instanceof AbstractDelegateRule) {
+            rule = ((AbstractDelegateRule) rule).getRule();
+        }
+        if (rule instanceof AbstractJavaRule) {
+            return ((AbstractJavaRule) rule).getRequiredFacilities();
+        } else if (rule instanceof XPathRule) {
+            // XPath functions and attributes compute what they need on demand
+            return JavaSemanticFacility.NONE;
+        }
+        return JavaSemanticFacility.ALL;
+    }
+
     @Override
     public DesignerBindings getDesignerBindings() {
         return JavaDesignerBindings.INSTANCE;
@@ -108,6 +173,15 @@ public class JavaLanguageProcessor extends BatchLanguageProcessor<JavaLanguagePr
         return myMetricsProvider;
     }
 
+    @Override
+    public void close() throws Exception {
+        if (classpath instanceof Closeable) {
+            // close the jars opened by the classpath index
+            ((Closeable) classpath).close();
+        }
+        super.close();
+    }
+
     private static final XPathHandler XPATH_HANDLER =
         XPathHandler.getHandlerForFunctionDefs(
             BaseContextNodeTestFun.TYPE_IS_EXACTLY,
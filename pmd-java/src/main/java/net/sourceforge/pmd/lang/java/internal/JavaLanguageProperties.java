@@ -25,9 +25,19 @@ public class JavaLanguageProperties extends JvmLanguagePropertyBundle {
                        .defaultValue(InferenceLoggingVerbosity.DISABLED)
                        .build();
 
+    public static final PropertyDescriptor<String> SYMBOL_STUB_CACHE =
+        PropertyFactory.stringProperty("symbolStubCache")
+                       .desc("Directory where an index of the class files of the jars of the auxclasspath, "
+                                 + "and a snapshot of the classes of the JDK, are stored. "
+                                 + "The index of a jar is built the first time it is used, and is reused by later runs "
+                                 + "as long as the jar doesn't change. If empty, class files are read from the jars.")
+                       .defaultValue("")
+                       .build();
+
     public JavaLanguageProperties() {
         super(JavaLanguageModule.getInstance());
         definePropertyDescriptor(INTERNAL_INFERENCE_LOGGING_VERBOSITY);
+        definePropertyDescriptor(SYMBOL_STUB_CACHE);
         definePropertyDescriptor(CpdLanguageProperties.CPD_IGNORE_METADATA);
         definePropertyDescriptor(CpdLanguageProperties.CPD_ANONYMIZE_IDENTIFIERS);
         definePropertyDescriptor(CpdLanguageProperties.CPD_ANONYMIZE_LITERALS);
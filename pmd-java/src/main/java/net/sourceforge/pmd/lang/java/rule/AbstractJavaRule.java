@@ -4,7 +4,10 @@
 
 package net.sourceforge.pmd.lang.java.rule;
 
+import java.util.Set;
+
 import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.annotation.Experimental;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.java.ast.JavaParserVisitor;
 import net.sourceforge.pmd.lang.rule.AbstractRule;
@@ -24,4 +27,17 @@ public abstract class AbstractJavaRule extends AbstractRule implements JavaParse
         target.acceptVisitor(this, ctx);
     }
 
+    /**
+     * Returns the semantic facilities this rule uses on most files. These
+     * are computed eagerly for each file, the others are computed on demand.
+     * By default, returns all facilities. Rules that only look at the
+     * syntax, or at a few nodes of each file, may return fewer.
+     *
+     * @see JavaSemanticFacility
+     */
+    @Experimental
+    public Set<JavaSemanticFacility> getRequiredFacilities() {
+        return JavaSemanticFacility.ALL;
+    }
+
 }
@@ -0,0 +1,54 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.rule;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+import net.sourceforge.pmd.annotation.Experimental;
+
+/**
+ * A semantic analysis pass that the Java processor runs after parsing.
+ * Rules declare the facilities they use with {@link AbstractJavaRule#getRequiredFacilities()}.
+ * A facility that no rule of the analysis requires is not computed up front
+ * for each file: it is computed the first time one of its results is
+ * queried, if ever. Declaring a facility is therefore never needed for
+ * correctness, only to compute it eagerly for the whole file, which is
+ * cheaper when most of the file will be queried anyway.
+ *
+ * <p>Symbol resolution, the symbol table and disambiguation always run,
+ * as the shape of the tree depends on them. Dataflow analysis is always
+ * computed on demand.
+ *
+ * @since 7.0.0
+ */
+@Experimental
+public enum JavaSemanticFacility {
+    /**
+     * Type resolution of every {@linkplain net.sourceforge.pmd.lang.java.ast.TypeNode type node}.
+     * The up-front pass reports a semantic warning for each node whose
+     * type resolution fails. If no rule requires this facility, there is
+     * no such pass and these warnings are not reported. A failure to resolve
+     * the type of a node that a rule queries is reported as an error of
+     * that rule, as it is when the facility is computed up front.
+     */
+    TYPES,
+    /** {@linkplain net.sourceforge.pmd.lang.java.ast.ASTVariableDeclaratorId#getLocalUsages() Usages} of local variables and fields. */
+    USAGES,
+    /** {@linkplain net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration#getOverriddenMethod() Overridden methods}. */
+    OVERRIDES,
+    /**
+     * Assignment of javadoc comments to declarations. Comments are looked
+     * up for each declaration or comment that is queried otherwise.
+     */
+    COMMENTS;
+
+    /** All facilities. */
+    public static final Set<JavaSemanticFacility> ALL = Collections.unmodifiableSet(EnumSet.allOf(JavaSemanticFacility.class));
+
+    /** No facility. */
+    public static final Set<JavaSemanticFacility> NONE = Collections.unmodifiableSet(EnumSet.noneOf(JavaSemanticFacility.class));
+}
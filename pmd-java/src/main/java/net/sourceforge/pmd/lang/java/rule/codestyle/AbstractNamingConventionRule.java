@@ -4,10 +4,12 @@
 
 package net.sourceforge.pmd.lang.java.rule.codestyle;
 
+import java.util.Set;
 import java.util.regex.Pattern;
 
 import net.sourceforge.pmd.lang.java.ast.JavaNode;
 import net.sourceforge.pmd.lang.java.rule.AbstractJavaRulechainRule;
+import net.sourceforge.pmd.lang.java.rule.JavaSemanticFacility;
 import net.sourceforge.pmd.properties.PropertyBuilder.RegexPropertyBuilder;
 import net.sourceforge.pmd.properties.PropertyDescriptor;
 import net.sourceforge.pmd.properties.PropertyFactory;
@@ -34,6 +36,12 @@ abstract class AbstractNamingConventionRule<T extends JavaNode> extends Abstract
         super(first, visits);
     }
 
+    @Override
+    public Set<JavaSemanticFacility> getRequiredFacilities() {
+        // names are syntactic, the few types and overrides we look at are resolved on demand
+        return JavaSemanticFacility.NONE;
+    }
+
     /** The argument is interpreted as the display name, and is converted to camel case to get the property name. */
     RegexPropertyBuilder defaultProp(String displayName) {
         return defaultProp(CaseConvention.SPACE_SEPARATED.convertTo(CaseConvention.CAMEL_CASE, displayName), displayName);
@@ -4,16 +4,23 @@
 
 package net.sourceforge.pmd.lang.java.rule.internal;
 
+import java.util.AbstractSet;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.IntConsumer;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -108,58 +115,59 @@ public final class DataflowPass {
     //  see also the todo comments in UnusedAssignmentRule
 
     private static final SimpleDataKey<DataflowResult> DATAFLOW_RESULT_K = DataMap.simpleDataKey("java.dataflow.global");
+    // set on a toplevel type, its units share the numbering of assignments and the kill record
+    private static final SimpleDataKey<GlobalAlgoState> ALGO_STATE = DataMap.simpleDataKey("java.dataflow.state");
     private static final SimpleDataKey<ReachingDefinitionSet> REACHING_DEFS = DataMap.simpleDataKey("java.dataflow.reaching.backwards");
     private static final SimpleDataKey<AssignmentEntry> VAR_DEFINITION = DataMap.simpleDataKey("java.dataflow.field.def");
     private static final SimpleDataKey<OptionalBool> SWITCH_BRANCH_FALLS_THROUGH = DataMap.simpleDataKey("java.dataflow.switch.fallthrough");
-    
+    // set on a method, or on a type declaration for its initializers and ctors, once it has been processed
+    static final SimpleDataKey<Boolean> UNIT_PROCESSED = DataMap.simpleDataKey("java.dataflow.unit.processed");
+
     private DataflowPass() {
         // utility class
     }
 
     /**
      * Returns the info computed by the dataflow pass for the given file.
-     * The computation is done at most once.
+     * The result is lazy: each method body, and the initializers and
+     * constructors of each class, are processed separately, and only
+     * the first time that a result about them is queried. Results are
+     * stored in the user map of the nodes they are about, the assignments
+     * and kill record in that of the toplevel type they belong to.
      */
     public static DataflowResult getDataflowResult(ASTCompilationUnit acu) {
-        return acu.getUserMap().computeIfAbsent(DATAFLOW_RESULT_K, () -> process(acu));
+        return acu.getUserMap().computeIfAbsent(DATAFLOW_RESULT_K, () -> new DataflowResult(acu));
     }
 
     /**
      * If the var id is that of a field, returns the assignment entry that
      * corresponds to its definition (either blank or its initializer). From
      * there, using the kill record, we can draw the graph of all assignments.
-     * Returns null if not a field, or the compilation unit has not been processed.
+     * Returns null if not a field. This processes the initializers and
+     * constructors of the class declaring the field, if needed.
      */
     public static @Nullable AssignmentEntry getFieldDefinition(ASTVariableDeclaratorId varId) {
         if (!varId.isField()) {
             return null;
         }
+        getDataflowResult(varId.getRoot()).ensureProcessed(varId);
         return varId.getUserMap().get(VAR_DEFINITION);
     }
 
-    private static DataflowResult process(ASTCompilationUnit node) {
-        DataflowResult dataflowResult = new DataflowResult();
-        for (ASTAnyTypeDeclaration typeDecl : node.getTypeDeclarations()) {
-            GlobalAlgoState subResult = new GlobalAlgoState();
-            typeDecl.acceptVisitor(ReachingDefsVisitor.ONLY_LOCALS, new SpanInfo(subResult));
-            if (subResult.usedAssignments.size() < subResult.allAssignments.size()) {
-                Set<AssignmentEntry> unused = subResult.allAssignments;
-                unused.removeAll(subResult.usedAssignments);
-                unused.removeIf(AssignmentEntry::isUnbound);
-                unused.removeIf(AssignmentEntry::isFieldDefaultValue);
-                dataflowResult.unusedAssignments.addAll(unused);
-            }
-
-            CollectionUtil.mergeMaps(
-                dataflowResult.killRecord,
-                subResult.killRecord,
-                (s1, s2) -> {
-                    s1.addAll(s2);
-                    return s1;
-                });
-        }
-
-        return dataflowResult;
+    /**
+     * Whether the given node starts a separate unit of the analysis.
+     * Methods are processed one by one. All the other body declarations
+     * of a class are processed together, as field initializers and
+     * initializer blocks flow into the constructors. The declarations
+     * of local and anonymous classes belong to the enclosing unit.
+     */
+    private static boolean isUnitRoot(JavaNode node) {
+        return node instanceof ASTMethodDeclaration
+            || node instanceof ASTConstructorDeclaration
+            || node instanceof ASTCompactConstructorDeclaration
+            || node instanceof ASTFieldDeclaration
+            || node instanceof ASTInitializer
+            || node instanceof ASTEnumConstant;
     }
 
     /**
@@ -229,27 +237,45 @@ public final class DataflowPass {
     // this is a façade class
     public static final class DataflowResult {
 
-        final Set<AssignmentEntry> unusedAssignments;
-        final Map<AssignmentEntry, Set<AssignmentEntry>> killRecord;
+        private final ASTCompilationUnit acu;
+        private boolean allProcessed;
+        private Set<AssignmentEntry> unusedAssignments;
 
 
-        DataflowResult() {
-            this.unusedAssignments = new LinkedHashSet<>();
-            this.killRecord = new LinkedHashMap<>();
+        DataflowResult(ASTCompilationUnit acu) {
+            this.acu = acu;
         }
 
         /**
          * To be interpreted by {@link  UnusedAssignmentRule}.
+         * This processes the whole file.
          */
         public Set<AssignmentEntry> getUnusedAssignments() {
-            return Collections.unmodifiableSet(unusedAssignments);
+            if (unusedAssignments == null) {
+                processAll();
+                unusedAssignments = Collections.unmodifiableSet(collectUnused());
+            }
+            return unusedAssignments;
         }
 
         /**
          * May be useful to check for reassignment.
          */
         public @NonNull Set<AssignmentEntry> getKillers(AssignmentEntry assignment) {
-            return killRecord.getOrDefault(assignment, Collections.emptySet());
+            ASTAnyTypeDeclaration toplevel = toplevelType(assignment.rhs);
+            if (assignment.isUnbound()) {
+                // eg the value of a field at the start of a method is killed in all methods,
+                // these are only recorded in the state of the toplevel type
+                processType(toplevel);
+            } else {
+                ensureProcessed(assignment.rhs);
+            }
+            GlobalAlgoState state = toplevel.getUserMap().get(ALGO_STATE);
+            int id = state == null ? -1 : state.idOrNegative(assignment);
+            if (id < 0 || id >= state.killRecord.size() || state.killRecord.get(id) == null) {
+                return Collections.emptySet();
+            }
+            return new AssignmentSetView(state, state.killRecord.get(id));
         }
 
         // These methods are only valid to be called if the dataflow pass has run.
@@ -261,6 +287,7 @@ public final class DataflowPass {
          */
         public @NonNull OptionalBool switchBranchFallsThrough(ASTSwitchBranch b) {
             if (b instanceof ASTSwitchFallthroughBranch) {
+                ensureProcessed(b);
                 return Objects.requireNonNull(b.getUserMap().get(SWITCH_BRANCH_FALLS_THROUGH));
             }
             return OptionalBool.NO;
@@ -268,9 +295,96 @@ public final class DataflowPass {
 
 
         public @NonNull ReachingDefinitionSet getReachingDefinitions(ASTNamedReferenceExpr expr) {
+            ensureProcessed(expr);
             return expr.getUserMap().computeIfAbsent(REACHING_DEFS, () -> reachingFallback(expr));
         }
 
+        /** Processes the unit of code that contains the node, if it has not been processed yet. */
+        void ensureProcessed(JavaNode node) {
+            JavaNode unit = null;
+            for (JavaNode n : node.ancestorsOrSelf()) {
+                if (isUnitRoot(n)) {
+                    unit = n; // keep the outermost one
+                }
+            }
+            if (unit instanceof ASTMethodDeclaration) {
+                processMethod((ASTMethodDeclaration) unit);
+            } else if (unit != null) {
+                processInitializers(unit.ancestors(ASTAnyTypeDeclaration.class).firstOrThrow());
+            }
+        }
+
+        private void processAll() {
+            if (!allProcessed) {
+                allProcessed = true;
+                for (ASTAnyTypeDeclaration typeDecl : acu.getTypeDeclarations()) {
+                    processType(typeDecl);
+                }
+            }
+        }
+
+        private void processType(ASTAnyTypeDeclaration typeDecl) {
+            processInitializers(typeDecl);
+            for (ASTBodyDeclaration decl : typeDecl.getDeclarations()) {
+                if (decl instanceof ASTMethodDeclaration) {
+                    processMethod((ASTMethodDeclaration) decl);
+                } else if (decl instanceof ASTAnyTypeDeclaration) {
+                    processType((ASTAnyTypeDeclaration) decl);
+                }
+            }
+        }
+
+        private void processInitializers(ASTAnyTypeDeclaration typeDecl) {
+            if (markProcessed(typeDecl)) {
+                SpanInfo before = new SpanInfo(stateFor(typeDecl));
+                ReachingDefsVisitor.processInitializers(typeDecl.getDeclarations(), before, typeDecl.getSymbol());
+            }
+        }
+
+        private void processMethod(ASTMethodDeclaration method) {
+            if (method.getBody() != null && markProcessed(method)) {
+                ASTAnyTypeDeclaration owner = method.getEnclosingType();
+                SpanInfo span = new SpanInfo(stateFor(owner));
+                if (!method.isStatic()) {
+                    span.declareSpecialFieldValues(owner.getSymbol());
+                }
+                ReachingDefsVisitor.ONLY_LOCALS.acceptOpt(method, span);
+            }
+        }
+
+        private static boolean markProcessed(JavaNode unit) {
+            return unit.getUserMap().set(UNIT_PROCESSED, true) == null;
+        }
+
+        private GlobalAlgoState stateFor(JavaNode node) {
+            return toplevelType(node).getUserMap().computeIfAbsent(ALGO_STATE, GlobalAlgoState::new);
+        }
+
+        private static ASTAnyTypeDeclaration toplevelType(JavaNode node) {
+            return node.ancestorsOrSelf().filterIs(ASTAnyTypeDeclaration.class).last();
+        }
+
+        private Set<AssignmentEntry> collectUnused() {
+            Set<AssignmentEntry> result = new LinkedHashSet<>();
+            for (ASTAnyTypeDeclaration typeDecl : acu.getTypeDeclarations()) {
+                GlobalAlgoState state = typeDecl.getUserMap().get(ALGO_STATE);
+                if (state == null) {
+                    continue;
+                }
+                List<AssignmentEntry> assignments = state.assignments;
+                BitSet unused = new BitSet(assignments.size());
+                unused.set(0, assignments.size());
+                unused.andNot(state.usedAssignments);
+                for (int id = unused.nextSetBit(0); id >= 0; id = unused.nextSetBit(id + 1)) {
+                    AssignmentEntry entry = assignments.get(id);
+                    if (!entry.isUnbound() && !entry.isFieldDefaultValue()) {
+                        result.add(entry);
+                    }
+                }
+            }
+            return result;
+        }
+
         // Fallback, to compute reaching definitions for some fields
         // that are not tracked by the tree exploration. Final fields
         // indeed have a fully known set of reaching definitions.
@@ -1039,30 +1153,249 @@ public final class DataflowPass {
      */
     private static final class GlobalAlgoState {
 
-        final Set<AssignmentEntry> allAssignments;
-        final Set<AssignmentEntry> usedAssignments;
+        // Assignments are numbered in the order they are found, and sets of
+        // assignments are bitsets of these numbers. Loops are visited twice,
+        // so the same assignment may be created again, it then gets the same number.
+        final List<AssignmentEntry> assignments = new ArrayList<>();
+        private final Map<AssignmentEntry, Integer> ids = new HashMap<>();
+
+        final BitSet usedAssignments = new BitSet();
 
         // track which assignments kill which
-        // assignment -> killers(assignment)
-        final Map<AssignmentEntry, Set<AssignmentEntry>> killRecord;
+        // assignment id -> killers(assignment), or null if it has no killers
+        final List<AssignmentBits> killRecord = new ArrayList<>();
 
         final TargetStack breakTargets = new TargetStack();
         // continue jumps to the condition check, while break jumps to after the loop
         final TargetStack continueTargets = new TargetStack();
 
-        private GlobalAlgoState(Set<AssignmentEntry> allAssignments,
-                                Set<AssignmentEntry> usedAssignments,
-                                Map<AssignmentEntry, Set<AssignmentEntry>> killRecord) {
-            this.allAssignments = allAssignments;
-            this.usedAssignments = usedAssignments;
-            this.killRecord = killRecord;
+        /** Returns the number of the assignment, numbering it if it is new. */
+        int idOf(AssignmentEntry entry) {
+            Integer id = ids.get(entry);
+            if (id == null) {
+                id = assignments.size();
+                assignments.add(entry);
+                ids.put(entry, id);
+            }
+            return id;
+        }
 
+        int idOrNegative(Object entry) {
+            Integer id = ids.get(entry);
+            return id == null ? -1 : id;
         }
 
-        private GlobalAlgoState() {
-            this(new LinkedHashSet<>(),
-                 new LinkedHashSet<>(),
-                 new LinkedHashMap<>());
+        void recordKill(int killed, int killer) {
+            while (killRecord.size() <= killed) {
+                killRecord.add(null);
+            }
+            AssignmentBits killers = killRecord.get(killed);
+            AssignmentBits single = AssignmentBits.singleton(killer);
+            killRecord.set(killed, killers == null ? single : killers.union(single));
+        }
+
+        Set<AssignmentEntry> toSet(AssignmentBits bits) {
+            Set<AssignmentEntry> result = new LinkedHashSet<>(bits.size());
+            bits.forEach(id -> result.add(assignments.get(id)));
+            return result;
+        }
+    }
+
+    /**
+     * An immutable set of assignments, represented by their number in
+     * {@link GlobalAlgoState#assignments}. The assignments of a variable that
+     * reach some point are numbered close to each other, so the bits start
+     * at some word offset instead of zero, which keeps the arrays short.
+     * Joining control flow paths is a word-wise OR.
+     *
+     * <p>The numbers are also kept in insertion order, which is the
+     * iteration order: the elements of the left operand of a union come
+     * first. Rules like LawOfDemeter depend on that order when the dataflow
+     * is cyclic, so it must not change with the representation. The order
+     * is a prefix of an {@link OrderBuffer} that may be shared with the
+     * sets this one was built from, so that adding elements to the last
+     * set built on a buffer does not copy it.
+     */
+    static final class AssignmentBits {
+
+        /** Offset of the first word, in words. */
+        private final int offset;
+        private final long[] words;
+        private final OrderBuffer order;
+        private final int size;
+
+        private AssignmentBits(int offset, long[] words, OrderBuffer order, int size) {
+            this.offset = offset;
+            this.words = words;
+            this.order = order;
+            this.size = size;
+        }
+
+        static AssignmentBits singleton(int id) {
+            return new AssignmentBits(id >>> 6, new long[] {1L << id}, new OrderBuffer(id), 1);
+        }
+
+        AssignmentBits union(AssignmentBits other) {
+            if (other == this || other.isSubsetOf(this)) { // NOPMD CompareObjectsWithEquals
+                return this;
+            } else if (this.isSubsetOf(other) && other.startsWith(this)) {
+                return other;
+            }
+            int start = Math.min(offset, other.offset);
+            int end = Math.max(offset + words.length, other.offset + other.words.length);
+            long[] result = new long[end - start];
+            for (int i = 0; i < words.length; i++) {
+                result[offset - start + i] = words[i];
+            }
+            for (int i = 0; i < other.words.length; i++) {
+                result[other.offset - start + i] |= other.words[i];
+            }
+            OrderBuffer resultOrder = order.forAppend(size, other.size);
+            for (int i = 0; i < other.size; i++) {
+                int id = other.get(i);
+                if (!contains(id)) {
+                    resultOrder.append(id);
+                }
+            }
+            return new AssignmentBits(start, result, resultOrder, resultOrder.length);
+        }
+
+        private boolean startsWith(AssignmentBits prefix) {
+            if (prefix.size > size) {
+                return false;
+            } else if (prefix.order == order) { // NOPMD CompareObjectsWithEquals
+                return true;
+            }
+            for (int i = 0; i < prefix.size; i++) {
+                if (get(i) != prefix.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean contains(int id) {
+            int i = (id >>> 6) - offset;
+            return i >= 0 && i < words.length && (words[i] & 1L << id) != 0;
+        }
+
+        boolean isSubsetOf(AssignmentBits other) {
+            for (int i = 0; i < words.length; i++) {
+                long word = words[i];
+                if (word == 0) {
+                    continue;
+                }
+                int j = offset + i - other.offset;
+                if (j < 0 || j >= other.words.length || (word & ~other.words[j]) != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int get(int index) {
+            return order.ids[index];
+        }
+
+        void forEach(IntConsumer action) {
+            int[] ids = order.ids;
+            for (int i = 0; i < size; i++) {
+                action.accept(ids[i]);
+            }
+        }
+
+        void addTo(BitSet set) {
+            forEach(set::set);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("{");
+            forEach(id -> sb.append(sb.length() > 1 ? ", " : "").append(id));
+            return sb.append('}').toString();
+        }
+    }
+
+    /**
+     * A growable array of assignment numbers. Each {@link AssignmentBits}
+     * uses a prefix of it. Only the set that uses the whole buffer may
+     * append to it, the others copy their prefix first.
+     */
+    private static final class OrderBuffer {
+
+        private int[] ids;
+        private int length;
+
+        OrderBuffer(int id) {
+            this.ids = new int[] {id};
+            this.length = 1;
+        }
+
+        private OrderBuffer(int[] ids, int length) {
+            this.ids = ids;
+            this.length = length;
+        }
+
+        /** Returns a buffer that starts with the given prefix of this one, and to which we may append. */
+        OrderBuffer forAppend(int prefixLength, int maxAdded) {
+            if (prefixLength == length) {
+                return this;
+            }
+            return new OrderBuffer(Arrays.copyOf(ids, prefixLength + maxAdded), prefixLength);
+        }
+
+        void append(int id) {
+            if (length == ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(4, length * 2));
+            }
+            ids[length++] = id;
+        }
+    }
+
+    /** An unmodifiable view of a set of assignment numbers as a set of entries. */
+    private static final class AssignmentSetView extends AbstractSet<AssignmentEntry> {
+
+        private final GlobalAlgoState global;
+        private final AssignmentBits bits;
+
+        AssignmentSetView(GlobalAlgoState global, AssignmentBits bits) {
+            this.global = global;
+            this.bits = bits;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            int id = global.idOrNegative(o);
+            return id >= 0 && bits.contains(id);
+        }
+
+        @Override
+        public Iterator<AssignmentEntry> iterator() {
+            return new Iterator<AssignmentEntry>() {
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return next < bits.size();
+                }
+
+                @Override
+                public AssignmentEntry next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return global.assignments.get(bits.get(next++));
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return bits.size();
         }
     }
 
@@ -1070,9 +1403,9 @@ public final class DataflowPass {
     static class VarLocalInfo {
 
         // this is not modified so can be shared between different SpanInfos.
-        final Set<AssignmentEntry> reachingDefs;
+        final AssignmentBits reachingDefs;
 
-        VarLocalInfo(Set<AssignmentEntry> reachingDefs) {
+        VarLocalInfo(AssignmentBits reachingDefs) {
             this.reachingDefs = reachingDefs;
         }
 
@@ -1081,9 +1414,12 @@ public final class DataflowPass {
             if (other == this) { // NOPMD #3205
                 return this;
             }
-            Set<AssignmentEntry> merged = new LinkedHashSet<>(reachingDefs.size() + other.reachingDefs.size());
-            merged.addAll(reachingDefs);
-            merged.addAll(other.reachingDefs);
+            AssignmentBits merged = reachingDefs.union(other.reachingDefs);
+            if (merged == reachingDefs) { // NOPMD CompareObjectsWithEquals
+                return this;
+            } else if (merged == other.reachingDefs) { // NOPMD CompareObjectsWithEquals
+                return other;
+            }
             return new VarLocalInfo(merged);
         }
 
@@ -1155,19 +1491,16 @@ public final class DataflowPass {
             AssignmentEntry entry = outOfScope || isFieldBeforeMethod
                                     ? new UnboundAssignment(var, node, rhs, isFieldBeforeMethod)
                                     : new AssignmentEntry(var, node, rhs);
-            VarLocalInfo previous = symtable.put(var, new VarLocalInfo(Collections.singleton(entry)));
+            int id = global.idOf(entry);
+            VarLocalInfo previous = symtable.put(var, new VarLocalInfo(AssignmentBits.singleton(id)));
             if (previous != null) {
                 // those assignments were overwritten ("killed")
-                for (AssignmentEntry killed : previous.reachingDefs) {
-                    if (killed.isBlankLocal()) {
-                        continue;
+                previous.reachingDefs.forEach(killed -> {
+                    if (!global.assignments.get(killed).isBlankLocal()) {
+                        global.recordKill(killed, id);
                     }
-
-                    global.killRecord.computeIfAbsent(killed, k -> new LinkedHashSet<>(1))
-                                     .add(entry);
-                }
+                });
             }
-            global.allAssignments.add(entry);
         }
 
         void declareSpecialFieldValues(JClassSymbol sym) {
@@ -1200,9 +1533,9 @@ public final class DataflowPass {
             VarLocalInfo info = symtable.get(var);
             // may be null for implicit assignments, like method parameter
             if (info != null) {
-                global.usedAssignments.addAll(info.reachingDefs);
+                info.reachingDefs.addTo(global.usedAssignments);
                 if (reachingDefSink != null) {
-                    ReachingDefinitionSet reaching = new ReachingDefinitionSet(new LinkedHashSet<>(info.reachingDefs));
+                    ReachingDefinitionSet reaching = new ReachingDefinitionSet(global.toSet(info.reachingDefs));
                     // need to merge into previous to account for cyclic control flow
                     reachingDefSink.getUserMap().compute(REACHING_DEFS, current -> {
                         if (current != null) {
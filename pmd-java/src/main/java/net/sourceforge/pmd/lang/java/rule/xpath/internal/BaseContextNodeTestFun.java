@@ -64,11 +64,18 @@ public class BaseContextNodeTestFun<T extends JavaNode> extends BaseJavaXPathFun
         return new ExtensionFunctionCall() {
             @Override
             public Sequence call(XPathContext context, Sequence[] arguments) throws XPathException {
-                Node contextNode = ((AstElementNode) context.getContextItem()).getUnderlyingNode();
+                AstElementNode contextItem = (AstElementNode) context.getContextItem();
+                Node contextNode = contextItem.getUnderlyingNode();
+                if (!klass.isInstance(contextNode)) {
+                    return BooleanValue.FALSE;
+                }
                 String fullTypeName = arguments[0].head().getStringValue();
 
-
-                return BooleanValue.get(klass.isInstance(contextNode) && checker.test(fullTypeName, (T) contextNode));
+                boolean result = FunctionResultCache.get(contextItem).getOrCompute(
+                    BaseContextNodeTestFun.this, contextNode, fullTypeName,
+                    () -> checker.test(fullTypeName, (T) contextNode)
+                );
+                return BooleanValue.get(result);
             }
         };
     }
@@ -73,6 +73,16 @@ abstract class BaseRewrittenFunction<S, N extends Node> extends BaseJavaXPathFun
      */
     protected abstract boolean matches(N contextNode, String arg, S parsedArg, boolean isConstant) throws XPathException;
 
+    /**
+     * Whether the results of {@link #matches(Node, String, Object, boolean)}
+     * should be memoized for the whole file, so that other rules calling
+     * this function on the same node with the same argument don't recompute
+     * it. This is only worth it if matching is more expensive than a hash lookup.
+     */
+    protected boolean isMemoized() {
+        return false;
+    }
+
 
     @Override
     public ExtensionFunctionCall makeCallExpression() {
@@ -102,17 +112,29 @@ abstract class BaseRewrittenFunction<S, N extends Node> extends BaseJavaXPathFun
 
             @Override
             public Sequence call(XPathContext context, Sequence[] arguments) throws XPathException {
-                Node node = ((AstElementNode) context.getContextItem()).getUnderlyingNode();
+                AstElementNode contextItem = (AstElementNode) context.getContextItem();
+                Node node = contextItem.getUnderlyingNode();
                 if (!contextNodeType.isInstance(node)) {
                     // we could report that as an error
                     return BooleanValue.FALSE;
                 }
 
                 String arg = arguments[0].head().getStringValue();
+                if (isMemoized()) {
+                    boolean result = FunctionResultCache.get(contextItem).getOrCompute(
+                        BaseRewrittenFunction.this, node, arg,
+                        () -> computeMatch(node, arg)
+                    );
+                    return BooleanValue.get(result);
+                }
+                return BooleanValue.get(computeMatch(node, arg));
+            }
+
+            private boolean computeMatch(Node node, String arg) throws XPathException {
                 S parsedArg = isConstant ? constantState
                                          : parseArgument(arg);
 
-                return BooleanValue.get(matches((N) node, arg, parsedArg, isConstant));
+                return matches((N) node, arg, parsedArg, isConstant);
             }
         };
     }
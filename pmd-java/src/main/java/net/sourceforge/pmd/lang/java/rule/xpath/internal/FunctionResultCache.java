@@ -0,0 +1,113 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.rule.xpath.internal;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import net.sourceforge.pmd.benchmark.TimeTracker;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.rule.xpath.impl.AbstractXPathFunctionDef;
+import net.sourceforge.pmd.lang.rule.xpath.internal.AstElementNode;
+import net.sourceforge.pmd.lang.rule.xpath.internal.AstNodeOwner;
+import net.sourceforge.pmd.util.DataMap;
+import net.sourceforge.pmd.util.DataMap.SimpleDataKey;
+
+import net.sf.saxon.trans.XPathException;
+
+/**
+ * Memo table for the results of extension functions, shared by all
+ * rules that run on a file. Many rules call eg {@code typeIs('java.lang.String')}
+ * on the same nodes, which is answered by a lookup after the first call.
+ * The table is stored in the user map of the root node, so that it is
+ * discarded along with the tree.
+ *
+ * <p>This is not thread-safe, like the rest of the AST, as a file is
+ * only processed by a single thread.
+ */
+final class FunctionResultCache {
+
+    private static final SimpleDataKey<FunctionResultCache> CACHE_KEY = DataMap.simpleDataKey("java.xpath.function.results");
+
+    private final Map<CallKey, Object> results = new HashMap<>();
+
+    private FunctionResultCache() {
+        // use get
+    }
+
+    /**
+     * Returns the memoized result of calling the function on the node
+     * with the given argument, or computes and memoizes it. Exceptions
+     * thrown by the computation are not cached.
+     */
+    @SuppressWarnings("unchecked")
+    <T> T getOrCompute(AbstractXPathFunctionDef function, Node node, String arg, ResultComputer<T> computer) throws XPathException {
+        CallKey key = new CallKey(function, node, arg);
+        Object result = results.get(key);
+        boolean hit = result != null;
+        TimeTracker.recordCacheLookup(function.getFunctionQName().getDisplayName(), hit);
+        if (!hit) {
+            result = computer.compute();
+            results.put(key, result);
+        }
+        return (T) result;
+    }
+
+    /**
+     * Returns the cache of the tree the given node is part of.
+     */
+    static FunctionResultCache get(AstElementNode contextNode) {
+        // the root of the saxon tree is reachable in constant time,
+        // whereas Node::getRoot walks up the ancestors
+        AstNodeOwner document = contextNode.getTreeInfo().getRootNode();
+        return document.getUnderlyingNode().getUserMap().computeIfAbsent(CACHE_KEY, FunctionResultCache::new);
+    }
+
+    @FunctionalInterface
+    interface ResultComputer<T> {
+
+        /** Computes the result, which must not be null. */
+        T compute() throws XPathException;
+    }
+
+    private static final class CallKey {
+
+        private final AbstractXPathFunctionDef function;
+        private final Node node;
+        private final String arg;
+
+        CallKey(AbstractXPathFunctionDef function, Node node, String arg) {
+            this.function = function;
+            this.node = node;
+            this.arg = arg;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CallKey)) {
+                return false;
+            }
+            CallKey that = (CallKey) o;
+            return function == that.function
+                && node == that.node
+                && arg.equals(that.arg);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = System.identityHashCode(function);
+            result = 31 * result + System.identityHashCode(node);
+            return 31 * result + arg.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return function.getFunctionQName().getDisplayName() + "(" + arg + ") on " + node;
+        }
+    }
+}
@@ -5,6 +5,7 @@
 package net.sourceforge.pmd.lang.java.rule.xpath.internal;
 
 import java.util.List;
+import java.util.function.ToIntFunction;
 
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
@@ -64,17 +65,32 @@ public class GetCommentOnFunction extends BaseJavaXPathFunction {
                 int codeEndLine = contextNode.getEndLine();
 
                 List<JavaComment> commentList = contextNode.getFirstParentOfType(ASTCompilationUnit.class).getComments();
-                for (JavaComment comment : commentList) {
-                    if (comment.getBeginLine() == codeBeginLine || comment.getEndLine() == codeEndLine) {
-                        return new StringValue(comment.getText());
-                    }
+                // Comments are sorted and don't overlap, so their begin and end
+                // lines are both sorted. Find the first comment that matches either.
+                int byBegin = firstIndexOf(commentList, codeBeginLine, JavaComment::getBeginLine);
+                int byEnd = firstIndexOf(commentList, codeEndLine, JavaComment::getEndLine);
+                int idx = Math.min(byBegin, byEnd);
+                if (idx < commentList.size()) {
+                    return new StringValue(commentList.get(idx).getText());
                 }
                 return EmptyAtomicSequence.INSTANCE;
             }
 
         };
     }
-}
-
-
 
+    // index of the first comment whose line is the given line, or the size of the list
+    private static int firstIndexOf(List<JavaComment> comments, int line, ToIntFunction<JavaComment> getLine) {
+        int lo = 0;
+        int hi = comments.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (getLine.applyAsInt(comments.get(mid)) < line) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo < comments.size() && getLine.applyAsInt(comments.get(lo)) == line ? lo : comments.size();
+    }
+}
@@ -22,6 +22,11 @@ public final class MatchesSignatureFunction extends BaseRewrittenFunction<Invoca
         return parsedArg.matchesCall(contextNode);
     }
 
+    @Override
+    protected boolean isMemoized() {
+        return true;
+    }
+
     @Override
     protected InvocationMatcher parseArgument(String arg) throws XPathException {
         try {
@@ -61,10 +61,14 @@ public final class MetricFunction extends BaseJavaXPathFunction {
 
             @Override
             public Sequence call(XPathContext context, Sequence[] arguments) throws XPathException {
-                Node contextNode = ((AstElementNode) context.getContextItem()).getUnderlyingNode();
+                AstElementNode contextItem = (AstElementNode) context.getContextItem();
+                Node contextNode = contextItem.getUnderlyingNode();
                 String metricKey = arguments[0].head().getStringValue();
 
-                double metric = getMetric(contextNode, metricKey);
+                double metric = FunctionResultCache.get(contextItem).getOrCompute(
+                    MetricFunction.this, contextNode, metricKey,
+                    () -> getMetric(contextNode, metricKey)
+                );
                 return Double.isFinite(metric)
                        ? new BigDecimalValue(metric)
                        : EmptySequence.getInstance();
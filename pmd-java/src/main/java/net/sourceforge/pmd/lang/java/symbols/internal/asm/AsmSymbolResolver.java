@@ -30,6 +30,7 @@ public class AsmSymbolResolver implements SymbolResolver {
     private final TypeSystem ts;
     private final Classpath classLoader;
     private final SignatureParser typeLoader;
+    private final @Nullable SymbolStubIndex stubIndex;
 
     private final ConcurrentMap<String, ClassStub> knownStubs = new ConcurrentHashMap<>();
 
@@ -40,8 +41,17 @@ public class AsmSymbolResolver implements SymbolResolver {
     private final ClassStub failed;
 
     public AsmSymbolResolver(TypeSystem ts, Classpath classLoader) {
+        this(ts, classLoader, null);
+    }
+
+    /**
+     * Create a resolver that loads class files found in jars from the
+     * given stub index, if it is non-null.
+     */
+    public AsmSymbolResolver(TypeSystem ts, Classpath classLoader, @Nullable SymbolStubIndex stubIndex) {
         this.ts = ts;
         this.classLoader = classLoader;
+        this.stubIndex = stubIndex;
         this.typeLoader = new SignatureParser(this);
         this.failed = new ClassStub(this, "/*failed-lookup*/", FailedLoader.INSTANCE, 0);
     }
@@ -58,7 +68,7 @@ public class AsmSymbolResolver implements SymbolResolver {
                 return failed;
             }
 
-            return new ClassStub(this, iname, new UrlLoader(url), ClassStub.UNKNOWN_ARITY);
+            return new ClassStub(this, iname, newLoader(url), ClassStub.UNKNOWN_ARITY);
         });
 
         if (!found.hasCanonicalName()) {
@@ -88,6 +98,10 @@ public class AsmSymbolResolver implements SymbolResolver {
         return classLoader.findResource(internalName + ".class");
     }
 
+    private Loader newLoader(@NonNull URL url) {
+        return stubIndex == null ? new UrlLoader(url) : stubIndex.loaderFor(url);
+    }
+
     /*
        These methods return an unresolved symbol if the url is not found.
      */
@@ -106,7 +120,7 @@ public class AsmSymbolResolver implements SymbolResolver {
                 return prev;
             }
             @Nullable URL url = getUrlOfInternalName(iname);
-            Loader loader = url == null ? FailedLoader.INSTANCE : new UrlLoader(url);
+            Loader loader = url == null ? FailedLoader.INSTANCE : newLoader(url);
             return new ClassStub(this, iname, loader, observedArity);
         });
     }
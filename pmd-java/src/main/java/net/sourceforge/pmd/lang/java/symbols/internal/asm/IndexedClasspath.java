@@ -0,0 +1,417 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.symbols.internal.asm;
+
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sourceforge.pmd.internal.util.ClasspathClassLoader;
+
+/**
+ * A {@link Classpath} that looks up resources in an index, instead of
+ * asking each entry of a {@link java.net.URLClassLoader} in turn. The
+ * index is built once, on the first lookup, by reading the central
+ * directory of each jar, and the list of packages of the JDK runtime
+ * image. The jars are kept open, and resources are read through these
+ * handles, instead of being reopened through a {@link java.net.JarURLConnection}.
+ *
+ * <p>Lookups of names that are not on the classpath, which the disambiguation
+ * pass does a lot, are then mostly a hash table miss. Directories of the
+ * classpath are not indexed up front: the files of a package directory
+ * are listed on the first lookup in that package, and later lookups in
+ * that package, including misses, do not touch the filesystem. The
+ * directories are assumed not to change during the analysis.
+ *
+ * <p>Lookup order is the same as the {@link ClasspathClassLoader} it
+ * replaces: entries of the auxclasspath come first, in order, then
+ * the JDK, then the parent class loader.
+ */
+public final class IndexedClasspath implements Classpath, Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IndexedClasspath.class);
+
+    private final List<Path> entries;
+    private final Classpath fallback;
+    private final boolean indexJdk;
+    private volatile Index index;
+
+    IndexedClasspath(List<Path> entries, Classpath fallback, boolean indexJdk) {
+        this.entries = entries;
+        this.fallback = fallback;
+        this.indexJdk = indexJdk;
+    }
+
+    /**
+     * Returns a classpath equivalent to {@link Classpath#forClassLoader(ClassLoader)},
+     * that uses an index if the class loader is a {@link ClasspathClassLoader}
+     * on local files. Otherwise, returns a classpath that uses the class loader.
+     */
+    public static Classpath forClassLoader(ClassLoader classLoader) {
+        Set<Path> entries = new LinkedHashSet<>();
+        ClassLoader base = classLoader;
+        // nested classpath class loaders are child-first
+        while (base instanceof ClasspathClassLoader) {
+            for (URL url : ((ClasspathClassLoader) base).getURLs()) {
+                if (!"file".equals(url.getProtocol())) {
+                    return Classpath.forClassLoader(classLoader);
+                }
+                try {
+                    entries.add(Paths.get(url.toURI()));
+                } catch (URISyntaxException | IllegalArgumentException e) {
+                    return Classpath.forClassLoader(classLoader);
+                }
+            }
+            base = base.getParent();
+        }
+        if (base == classLoader) { // NOPMD CompareObjectsWithEquals
+            return Classpath.forClassLoader(classLoader);
+        }
+        return new IndexedClasspath(new ArrayList<>(entries), Classpath.forClassLoader(base), true);
+    }
+
+    @Override
+    public @Nullable URL findResource(String resourcePath) {
+        URL url = getIndex().find(resourcePath);
+        return url != null ? url : fallback.findResource(resourcePath);
+    }
+
+    private Index getIndex() {
+        Index result = index;
+        if (result == null) {
+            synchronized (this) {
+                result = index;
+                if (result == null) {
+                    result = new Index(entries, indexJdk);
+                    index = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (index != null) {
+            index.close();
+            index = null;
+        }
+    }
+
+    private static final class Index {
+
+        /** The jar of each resource. If several jars have the resource, the first is kept. */
+        private final Map<String, Jar> jarEntries = new HashMap<>();
+        /** Directories of the classpath, in order. */
+        private final List<Directory> directories = new ArrayList<>();
+        private final List<Jar> jars = new ArrayList<>();
+        private final @Nullable Jdk jdk;
+
+        Index(List<Path> entries, boolean indexJdk) {
+            Set<Path> seen = new LinkedHashSet<>();
+            for (Path entry : entries) {
+                addEntry(entry, seen);
+            }
+            this.jdk = indexJdk ? Jdk.open() : null;
+        }
+
+        private void addEntry(Path entry, Set<Path> seen) {
+            Path normalized = entry.toAbsolutePath().normalize();
+            if (!seen.add(normalized)) {
+                return;
+            }
+            int order = seen.size();
+            if (Files.isDirectory(normalized)) {
+                directories.add(new Directory(normalized, order));
+            } else if (Files.isRegularFile(normalized)) {
+                try {
+                    Jar jar = new Jar(normalized, order);
+                    jars.add(jar);
+                    List<Path> manifestClasspath = jar.indexEntries(jarEntries);
+                    // like URLClassLoader, the Class-Path of the manifest is searched after the jar
+                    for (Path dependency : manifestClasspath) {
+                        addEntry(dependency, seen);
+                    }
+                } catch (IOException e) {
+                    LOG.debug("Cannot read classpath entry {}", normalized, e);
+                }
+            }
+        }
+
+        @Nullable URL find(String resourcePath) {
+            Jar jar = jarEntries.get(resourcePath);
+            int jarOrder = jar == null ? Integer.MAX_VALUE : jar.order;
+            for (Directory dir : directories) {
+                if (dir.order > jarOrder) {
+                    break;
+                }
+                URL url = dir.find(resourcePath);
+                if (url != null) {
+                    return url;
+                }
+            }
+            if (jar != null) {
+                return jar.urlOf(resourcePath);
+            }
+            return jdk == null ? null : jdk.find(resourcePath);
+        }
+
+        void close() throws IOException {
+            IOException ex = null;
+            for (Jar jar : jars) {
+                try {
+                    jar.file.close();
+                } catch (IOException e) {
+                    if (ex == null) {
+                        ex = e;
+                    } else {
+                        ex.addSuppressed(e);
+                    }
+                }
+            }
+            if (ex != null) {
+                throw ex;
+            }
+        }
+    }
+
+    private static final class Directory {
+
+        private final Path root;
+        private final int order;
+        /** Names of the files of each package directory, empty if it does not exist. */
+        private final ConcurrentMap<String, Set<String>> filesByPackage = new ConcurrentHashMap<>();
+
+        Directory(Path root, int order) {
+            this.root = root;
+            this.order = order;
+        }
+
+        @Nullable URL find(String resourcePath) {
+            int lastSlash = resourcePath.lastIndexOf('/');
+            String pack = lastSlash < 0 ? "" : resourcePath.substring(0, lastSlash);
+            if (!filesOf(pack).contains(resourcePath.substring(lastSlash + 1))) {
+                return null;
+            }
+            try {
+                return root.resolve(resourcePath).toUri().toURL();
+            } catch (MalformedURLException e) {
+                return null;
+            }
+        }
+
+        private Set<String> filesOf(String pack) {
+            Set<String> files = filesByPackage.get(pack);
+            if (files == null) {
+                // listed outside of the map, concurrent listings of the same package are equivalent
+                files = listFiles(root.resolve(pack));
+                Set<String> existing = filesByPackage.putIfAbsent(pack, files);
+                if (existing != null) {
+                    files = existing;
+                }
+            }
+            return files;
+        }
+
+        private static Set<String> listFiles(Path packageDir) {
+            if (!Files.isDirectory(packageDir)) {
+                return Collections.emptySet();
+            }
+            Set<String> files = new HashSet<>();
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(packageDir)) {
+                for (Path child : children) {
+                    if (Files.isRegularFile(child)) {
+                        files.add(child.getFileName().toString());
+                    }
+                }
+            } catch (IOException e) {
+                LOG.debug("Cannot list classpath directory {}", packageDir, e);
+            }
+            return files;
+        }
+    }
+
+    private static final class Jar extends EntryHandler {
+
+        private final JarFile file;
+        private final Path path;
+        private final String urlPrefix;
+        private final int order;
+
+        Jar(Path path, int order) throws IOException {
+            this.path = path;
+            this.file = new JarFile(path.toFile());
+            this.urlPrefix = "jar:" + path.toUri().toURL() + "!/";
+            this.order = order;
+        }
+
+        /** Adds the entries of this jar to the map, returns the Class-Path of its manifest. */
+        List<Path> indexEntries(Map<String, Jar> jarEntries) throws IOException {
+            Enumeration<JarEntry> entries = file.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                if (!entry.isDirectory()) {
+                    jarEntries.putIfAbsent(entry.getName(), this);
+                }
+            }
+            Manifest manifest = file.getManifest();
+            String classPath = manifest == null ? null : manifest.getMainAttributes().getValue(Attributes.Name.CLASS_PATH);
+            if (classPath == null) {
+                return Collections.emptyList();
+            }
+            List<Path> result = new ArrayList<>();
+            for (String relative : classPath.trim().split("\\s+")) {
+                try {
+                    URI resolved = path.toUri().resolve(relative);
+                    if ("file".equals(resolved.getScheme())) {
+                        result.add(Paths.get(resolved));
+                    }
+                } catch (IllegalArgumentException e) {
+                    // ignore this entry
+                }
+            }
+            return result;
+        }
+
+        @Nullable URL urlOf(String resourcePath) {
+            return makeUrl(urlPrefix + resourcePath);
+        }
+
+        @Override
+        InputStream open(String url) throws IOException {
+            String entryName = url.substring(urlPrefix.length());
+            ZipEntry entry = file.getEntry(entryName);
+            if (entry == null) {
+                throw new FileNotFoundException(url);
+            }
+            return file.getInputStream(entry);
+        }
+    }
+
+    /** Index of the packages of the modules of the JDK runtime image. */
+    private static final class Jdk extends EntryHandler {
+
+        private static final String URL_PREFIX = "jrt:/";
+
+        private final FileSystem jrt;
+        private final Map<String, List<String>> modulesByPackage;
+
+        private Jdk(FileSystem jrt, Map<String, List<String>> modulesByPackage) {
+            this.jrt = jrt;
+            this.modulesByPackage = modulesByPackage;
+        }
+
+        /** Returns null if there is no runtime image, eg on Java 8. */
+        static @Nullable Jdk open() {
+            try {
+                FileSystem jrt = FileSystems.getFileSystem(URI.create(URL_PREFIX));
+                Map<String, List<String>> modulesByPackage = new HashMap<>();
+                try (DirectoryStream<Path> packages = Files.newDirectoryStream(jrt.getPath("/packages"))) {
+                    for (Path pack : packages) {
+                        List<String> modules = new ArrayList<>(1);
+                        try (DirectoryStream<Path> links = Files.newDirectoryStream(pack)) {
+                            for (Path module : links) {
+                                modules.add(module.getFileName().toString());
+                            }
+                        }
+                        modulesByPackage.put(pack.getFileName().toString().replace('.', '/'), modules);
+                    }
+                }
+                return new Jdk(jrt, modulesByPackage);
+            } catch (IOException | RuntimeException e) {
+                // ProviderNotFoundException, FileSystemNotFoundException...
+                LOG.debug("Cannot index the JDK runtime image", e);
+                return null;
+            }
+        }
+
+        @Nullable URL find(String resourcePath) {
+            int lastSlash = resourcePath.lastIndexOf('/');
+            if (lastSlash < 0) {
+                return null;
+            }
+            List<String> modules = modulesByPackage.get(resourcePath.substring(0, lastSlash));
+            if (modules == null) {
+                return null;
+            }
+            for (String module : modules) {
+                if (Files.isRegularFile(jrt.getPath("/modules", module, resourcePath))) {
+                    return makeUrl(URL_PREFIX + module + "/" + resourcePath);
+                }
+            }
+            return null;
+        }
+
+        @Override
+        InputStream open(String url) throws IOException {
+            return Files.newInputStream(jrt.getPath("/modules", url.substring(URL_PREFIX.length())));
+        }
+    }
+
+    /**
+     * Makes URLs whose streams are opened by this object, instead of
+     * the default handler of the protocol.
+     */
+    private abstract static class EntryHandler extends URLStreamHandler {
+
+        abstract InputStream open(String url) throws IOException;
+
+        @Nullable URL makeUrl(String spec) {
+            try {
+                return new URL(null, spec, this);
+            } catch (MalformedURLException e) {
+                return null;
+            }
+        }
+
+        @Override
+        protected URLConnection openConnection(URL u) {
+            return new URLConnection(u) {
+                @Override
+                public void connect() {
+                    // nothing to do
+                }
+
+                @Override
+                public InputStream getInputStream() throws IOException {
+                    return open(getURL().toString());
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,423 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.symbols.internal.asm;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.apache.commons.lang3.StringUtils;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sourceforge.pmd.lang.java.symbols.internal.asm.Loader.UrlLoader;
+
+/**
+ * A persistent index of class stubs, built once per jar file and stored
+ * in a cache directory. A stub is a class file from which the code, the
+ * debug information and the stack map frames have been removed, which is
+ * all that {@link ClassStub} needs. The stubs of a jar are stored in a single
+ * file, whose name contains the SHA-256 digest of the jar, so that it is
+ * rebuilt when the jar changes. The file is memory-mapped, so loading a
+ * class from the index does not open the jar nor inflate anything.
+ *
+ * <p>The index of a jar is built by the first thread that needs it,
+ * outside of any lock. Other threads load the classes of the jar from
+ * their URL in the meantime, instead of waiting for the index.
+ *
+ * <p>Classes of the JDK runtime image (Java 9 and later) are stored in
+ * a snapshot file, whose name contains the version and location of the
+ * JDK. It is built the first time a class of the JDK is loaded, and only
+ * contains the classes of the java.base module. While one thread builds
+ * it, the others read the classes of the JDK from the runtime image. Classes that are not found
+ * in a jar or in the snapshot, eg directories of the classpath or other
+ * modules of the JDK, are loaded from their URL as usual.
+ */
+public final class SymbolStubIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SymbolStubIndex.class);
+
+    private static final int MAGIC = 0x504d4453; // "PMDS"
+    private static final int FORMAT_VERSION = 1;
+    private static final String CLASS_SUFFIX = ".class";
+    private static final String JRT_PREFIX = "jrt:/";
+    /**
+     * Modules of the JDK whose classes are in the snapshot. Most classes
+     * referenced by the analysed code, and the ones the type system
+     * itself needs, are in java.base. Other modules are read from the
+     * runtime image.
+     */
+    private static final List<String> JDK_SNAPSHOT_MODULES = Collections.singletonList("java.base");
+
+    private final Path directory;
+    /** Index of each jar file, or empty if the index could not be built. */
+    private final ConcurrentMap<Path, CompletableFuture<Optional<JarStubs>>> byJar = new ConcurrentHashMap<>();
+    /** Snapshot of the JDK runtime image, null until it is first needed. */
+    private final AtomicReference<CompletableFuture<Optional<JarStubs>>> jdkSnapshot = new AtomicReference<>();
+
+    public SymbolStubIndex(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns a loader for the class file at the given URL. This reads
+     * the stub from the index if the URL points into a jar file, otherwise
+     * the loader reads the URL.
+     */
+    Loader loaderFor(@NonNull URL url) {
+        if ("jar".equals(url.getProtocol())) {
+            // the url looks like jar:file:/path/to.jar!/entry
+            String file = url.getFile();
+            int separator = file.indexOf("!/");
+            try {
+                if (separator > 0 && file.startsWith("file:")) {
+                    Path jar = Paths.get(new URL(file.substring(0, separator)).toURI());
+                    String entryName = file.substring(separator + 2);
+                    JarStubs stubs = getJarStubs(jar).orElse(null);
+                    if (stubs != null && stubs.contains(entryName)) {
+                        return new StubLoader(stubs, entryName);
+                    }
+                }
+            } catch (IOException | URISyntaxException | IllegalArgumentException e) {
+                // use the url
+            }
+        } else if ("jrt".equals(url.getProtocol())) {
+            // the url looks like jrt:/java.base/java/lang/Object.class
+            String entryName = StringUtils.removeStart(url.getPath(), "/");
+            JarStubs stubs = getJdkSnapshot().orElse(null);
+            if (stubs != null && stubs.contains(entryName)) {
+                return new StubLoader(stubs, entryName);
+            }
+        }
+        return new UrlLoader(url);
+    }
+
+    /**
+     * Returns the index of the jar. If no thread has built it yet, this
+     * thread builds it. If another thread is building it, returns empty.
+     */
+    private Optional<JarStubs> getJarStubs(Path jar) {
+        CompletableFuture<Optional<JarStubs>> future = byJar.get(jar);
+        if (future == null) {
+            CompletableFuture<Optional<JarStubs>> created = new CompletableFuture<>();
+            future = byJar.putIfAbsent(jar, created);
+            if (future == null) {
+                return build(created, () -> openIndex(jar));
+            }
+        }
+        return future.getNow(Optional.empty());
+    }
+
+    /** Completes the future with the result of the builder, also if it fails. */
+    static Optional<JarStubs> build(CompletableFuture<Optional<JarStubs>> future, Supplier<Optional<JarStubs>> builder) {
+        Optional<JarStubs> result = Optional.empty();
+        try {
+            result = builder.get();
+        } finally {
+            future.complete(result);
+        }
+        return result;
+    }
+
+    private Optional<JarStubs> openIndex(Path jar) {
+        try {
+            Path indexFile = directory.resolve(indexFileName(jar));
+            if (!Files.isRegularFile(indexFile)) {
+                buildIndex(jar, indexFile);
+            }
+            return Optional.of(JarStubs.read(indexFile));
+        } catch (IOException | RuntimeException e) {
+            LOG.debug("Cannot index class stubs of {}, classes will be loaded from the jar", jar, e);
+            return Optional.empty();
+        }
+    }
+
+    /** The fingerprint of a jar is the SHA-256 digest of its content. */
+    static String indexFileName(Path jar) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every JVM supports SHA-256
+            throw new IllegalStateException(e);
+        }
+        try (InputStream in = Files.newInputStream(jar)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        StringBuilder name = new StringBuilder().append(jar.getFileName()).append('-');
+        for (byte b : digest.digest()) {
+            name.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return name.append(".stubs").toString();
+    }
+
+    private void buildIndex(Path jar, Path indexFile) throws IOException {
+        StubsBuilder builder = new StubsBuilder();
+        try (ZipFile zip = new ZipFile(jar.toFile())) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (entry.isDirectory() || !entry.getName().endsWith(CLASS_SUFFIX)) {
+                    continue;
+                }
+                try (InputStream in = zip.getInputStream(entry)) {
+                    builder.add(entry.getName(), in);
+                }
+            }
+        }
+        builder.write(directory, indexFile);
+    }
+
+    /**
+     * Returns the snapshot of the JDK. Like for jars, the first thread that
+     * needs it builds it, and other threads get empty until it is ready.
+     */
+    private Optional<JarStubs> getJdkSnapshot() {
+        CompletableFuture<Optional<JarStubs>> future = jdkSnapshot.get();
+        if (future == null) {
+            CompletableFuture<Optional<JarStubs>> created = new CompletableFuture<>();
+            if (jdkSnapshot.compareAndSet(null, created)) {
+                return build(created, this::openJdkSnapshot);
+            }
+            future = jdkSnapshot.get();
+        }
+        return future.getNow(Optional.empty());
+    }
+
+    private Optional<JarStubs> openJdkSnapshot() {
+        try {
+            FileSystem jrt = FileSystems.getFileSystem(URI.create(JRT_PREFIX));
+            Path snapshotFile = directory.resolve(jdkSnapshotFileName());
+            if (!Files.isRegularFile(snapshotFile)) {
+                buildJdkSnapshot(jrt, snapshotFile);
+            }
+            return Optional.of(JarStubs.read(snapshotFile));
+        } catch (IOException | RuntimeException e) {
+            // ProviderNotFoundException, FileSystemNotFoundException...
+            LOG.debug("Cannot snapshot the JDK class stubs, classes will be loaded from the runtime image", e);
+            return Optional.empty();
+        }
+    }
+
+    /** The JDK snapshot depends on the version of the JDK, its location, and the last modification of its image. */
+    static String jdkSnapshotFileName() throws IOException {
+        String version = System.getProperty("java.runtime.version", "unknown").replaceAll("[^\\w.+-]", "_");
+        Path javaHome = Paths.get(System.getProperty("java.home")).toAbsolutePath().normalize();
+        long hash = javaHome.toString().hashCode();
+        Path modules = javaHome.resolve("lib").resolve("modules");
+        if (Files.isRegularFile(modules)) {
+            hash = 31 * hash + Files.getLastModifiedTime(modules).toMillis();
+        }
+        return "jdk-" + version + "-" + Long.toHexString(hash) + ".stubs";
+    }
+
+    private void buildJdkSnapshot(FileSystem jrt, Path snapshotFile) throws IOException {
+        StubsBuilder builder = new StubsBuilder();
+        for (String module : JDK_SNAPSHOT_MODULES) {
+            Path root = jrt.getPath("/modules", module);
+            if (!Files.isDirectory(root)) {
+                continue;
+            }
+            List<Path> classFiles;
+            try (Stream<Path> files = Files.walk(root)) {
+                classFiles = files.filter(it -> it.toString().endsWith(CLASS_SUFFIX))
+                                  .collect(Collectors.toList());
+            }
+            for (Path classFile : classFiles) {
+                // entries are named like the path of jrt urls, eg java.base/java/lang/Object.class
+                String name = module + "/" + root.relativize(classFile);
+                try (InputStream in = Files.newInputStream(classFile)) {
+                    builder.add(name, in);
+                }
+            }
+        }
+        builder.write(directory, snapshotFile);
+    }
+
+    /** Accumulates stubs, then writes them into an index file. */
+    private static final class StubsBuilder {
+
+        private final List<String> names = new ArrayList<>();
+        private final ByteArrayOutputStream data = new ByteArrayOutputStream();
+        private final List<int[]> extents = new ArrayList<>();
+
+        void add(String name, InputStream classFile) throws IOException {
+            byte[] stub;
+            try {
+                stub = stripClassFile(new ClassReader(classFile));
+            } catch (RuntimeException e) {
+                // malformed class file, it will be read from its url
+                return;
+            }
+            names.add(name);
+            extents.add(new int[] {data.size(), stub.length});
+            data.write(stub);
+        }
+
+        void write(Path directory, Path indexFile) throws IOException {
+            Files.createDirectories(directory);
+            // write to a temp file and move it, in case several runs build it concurrently
+            Path tmp = Files.createTempFile(directory, indexFile.getFileName().toString(), ".tmp");
+            try (OutputStream fileOut = Files.newOutputStream(tmp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(names.size());
+                for (int i = 0; i < names.size(); i++) {
+                    byte[] name = names.get(i).getBytes(StandardCharsets.UTF_8);
+                    out.writeShort(name.length);
+                    out.write(name);
+                    out.writeInt(extents.get(i)[0]);
+                    out.writeInt(extents.get(i)[1]);
+                }
+                data.writeTo(out);
+            }
+            try {
+                Files.move(tmp, indexFile, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                Files.deleteIfExists(tmp);
+                if (!Files.isRegularFile(indexFile)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /** Removes everything {@link ClassStub} does not read from a class file. */
+    static byte[] stripClassFile(ClassReader reader) {
+        ClassWriter writer = new ClassWriter(0);
+        reader.accept(writer, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        return writer.toByteArray();
+    }
+
+    /** The stubs of a jar, read from a memory-mapped index file. */
+    static final class JarStubs {
+
+        private final Map<String, Long> extentsByName;
+        private final ByteBuffer data;
+
+        private JarStubs(Map<String, Long> extentsByName, ByteBuffer data) {
+            this.extentsByName = extentsByName;
+            this.data = data;
+        }
+
+        static JarStubs read(Path indexFile) throws IOException {
+            MappedByteBuffer buf;
+            try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+                buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            if (buf.getInt() != MAGIC || buf.getInt() != FORMAT_VERSION) {
+                throw new IOException("Not a stub index " + indexFile);
+            }
+            int size = buf.getInt();
+            Map<String, Long> extents = new HashMap<>(size * 4 / 3 + 1);
+            for (int i = 0; i < size; i++) {
+                byte[] name = new byte[buf.getShort() & 0xffff];
+                buf.get(name);
+                long offset = buf.getInt();
+                long length = buf.getInt();
+                extents.put(new String(name, StandardCharsets.UTF_8), offset << 32 | length);
+            }
+            ByteBuffer data = buf.slice();
+            return new JarStubs(Collections.unmodifiableMap(extents), data);
+        }
+
+        boolean contains(String entryName) {
+            return extentsByName.containsKey(entryName);
+        }
+
+        byte @Nullable [] getStub(String entryName) {
+            Long extent = extentsByName.get(entryName);
+            if (extent == null) {
+                return null;
+            }
+            int offset = (int) (extent >>> 32);
+            byte[] stub = new byte[(int) extent.longValue()];
+            // duplicate the buffer, as several threads may read it
+            ByteBuffer view = data.duplicate();
+            view.position(offset);
+            view.get(stub);
+            return stub;
+        }
+    }
+
+    static final class StubLoader extends Loader {
+
+        private final JarStubs stubs;
+        private final String entryName;
+
+        StubLoader(JarStubs stubs, String entryName) {
+            this.stubs = stubs;
+            this.entryName = entryName;
+        }
+
+        @Override
+        @Nullable InputStream getInputStream() {
+            byte[] stub = stubs.getStub(entryName);
+            return stub == null ? null : new ByteArrayInputStream(stub);
+        }
+
+        @Override
+        public String toString() {
+            return "(stub index loader)";
+        }
+    }
+
+    /** Creates an index in the given directory, or returns null if the parameter is empty. */
+    public static @Nullable SymbolStubIndex forDirectory(@Nullable String directory) {
+        if (directory == null || directory.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return new SymbolStubIndex(Paths.get(directory));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid symbol stub cache directory " + directory, e);
+        }
+    }
+}
@@ -293,10 +293,12 @@ public final class TypeOps {
      * @see JTypeMirror#getSuperTypeSet()
      */
     public static Set<JTypeMirror> getSuperTypeSet(@NonNull JTypeMirror t) {
-        Set<JTypeMirror> result = new LinkedHashSet<>();
-        t.acceptVisitor(SuperTypesVisitor.INSTANCE, result);
-        assert !result.isEmpty() : "Empty supertype set for " + t;
-        return result;
+        return t.getTypeSystem().getOpsCache().getSuperTypeSet(t, () -> {
+            Set<JTypeMirror> result = new LinkedHashSet<>();
+            t.acceptVisitor(SuperTypesVisitor.INSTANCE, result);
+            assert !result.isEmpty() : "Empty supertype set for " + t;
+            return Collections.unmodifiableSet(result);
+        });
     }
 
     private static final class SuperTypesVisitor implements JTypeVisitor<Void, Set<JTypeMirror>> {
@@ -458,10 +460,12 @@ public final class TypeOps {
             return Convertibility.subtypesAll(t, asList(s));
         }
 
-        if (capture) {
-            t = capture(t);
-        }
-        return t.acceptVisitor(SubtypeVisitor.INSTANCE, s);
+        // the result of ground types does not depend on the file, so is cached
+        JTypeMirror tf = t;
+        return t.getTypeSystem().getOpsCache().isConvertible(t, s, capture, () -> {
+            JTypeMirror captured = capture ? capture(tf) : tf;
+            return captured.acceptVisitor(SubtypeVisitor.INSTANCE, s);
+        });
     }
 
     // does not perform side effects on inference vars
@@ -1866,32 +1870,52 @@ public final class TypeOps {
 
 
     public static List<JMethodSig> getMethodsOf(JTypeMirror type, String name, boolean staticOnly, @NonNull JClassSymbol enclosing) {
+        TypeOpsCache cache = type.getTypeSystem().getOpsCache();
+        List<JMethodSig> cached = cache.getMethods(type, name, staticOnly);
+        if (cached != null) {
+            return cached;
+        }
+
+        // If all methods with this name are public, the result does not
+        // depend on the access site and can be shared with other files.
+        boolean[] allPublic = {true};
+        Predicate<JMethodSymbol> accessible = m -> {
+            if (m.nameEquals(name) && !Modifier.isPublic(m.getModifiers())) {
+                allPublic[0] = false;
+            }
+            return isAccessible(m, enclosing);
+        };
+
+        List<JMethodSig> result;
         if (staticOnly && type.isInterface()) {
             // static methods, start on interface
             // static interface methods are not inherited
-            return type.streamDeclaredMethods(staticMethodFilter(name, true, enclosing)).collect(Collectors.toList());
+            result = type.streamDeclaredMethods(staticMethodFilter(name, true, accessible)).collect(Collectors.toList());
         } else if (staticOnly) {
             // static methods, doesn't start on interface
             // -> ignore non-static, ignore any that are interfaces
-            return type.streamMethods(staticMethodFilter(name, false, enclosing)).collect(OverloadSet.collectMostSpecific(type));
+            result = type.streamMethods(staticMethodFilter(name, false, accessible)).collect(OverloadSet.collectMostSpecific(type));
         } else {
-            return type.streamMethods(methodFilter(name, enclosing))
-                       .collect(OverloadSet.collectMostSpecific(type));
+            result = type.streamMethods(methodFilter(name, accessible))
+                         .collect(OverloadSet.collectMostSpecific(type));
         }
+
+        if (allPublic[0]) {
+            result = Collections.unmodifiableList(result);
+            cache.rememberMethods(type, name, staticOnly, result);
+        }
+        return result;
     }
 
-    private static @NonNull Predicate<JMethodSymbol> methodFilter(String name, @NonNull JClassSymbol enclosing) {
-        return it -> isAccessibleWithName(name, enclosing, it);
+    private static @NonNull Predicate<JMethodSymbol> methodFilter(String name, Predicate<JMethodSymbol> accessible) {
+        return it -> it.nameEquals(name) && accessible.test(it);
     }
 
-    private static @NonNull Predicate<JMethodSymbol> staticMethodFilter(String name, boolean acceptItfs, @NonNull JClassSymbol enclosing) {
+    private static @NonNull Predicate<JMethodSymbol> staticMethodFilter(String name, boolean acceptItfs, Predicate<JMethodSymbol> accessible) {
         return it -> Modifier.isStatic(it.getModifiers())
             && (acceptItfs || !it.getEnclosingClass().isInterface())
-            && isAccessibleWithName(name, enclosing, it);
-    }
-
-    private static boolean isAccessibleWithName(String name, @NonNull JClassSymbol enclosing, JMethodSymbol m) {
-        return m.nameEquals(name) && isAccessible(m, enclosing);
+            && it.nameEquals(name)
+            && accessible.test(it);
     }
 
 
@@ -0,0 +1,207 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.types;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import net.sourceforge.pmd.benchmark.TimeTracker;
+import net.sourceforge.pmd.lang.java.symbols.JTypeDeclSymbol;
+import net.sourceforge.pmd.lang.java.types.TypeOps.Convertibility;
+
+/**
+ * Caches results of type operations that are asked again and again
+ * for the same library types, in every file of an analysis, eg the
+ * supertypes of {@code java.util.List}, or the overloads of
+ * {@code String#valueOf}. The cache is owned by the {@link TypeSystem},
+ * and is thread-safe.
+ *
+ * <p>Only ground types whose symbols were loaded from the classpath are
+ * cached. Types that mention inference variables or type variables are
+ * specific to an inference session or a declaration, and types that
+ * mention symbols declared in a source file, or unresolved symbols, are
+ * specific to a file. Caching them would also keep the tree of the file
+ * alive.
+ *
+ * <p>Each table is bounded, and is cleared when it is full. Lookups
+ * are reported to {@link TimeTracker#recordCacheLookup(String, boolean)}.
+ */
+final class TypeOpsCache {
+
+    private static final int MAX_ENTRIES = 20_000;
+
+    private final Table<JTypeMirror, Set<JTypeMirror>> superTypes = new Table<>("Type system: supertype sets");
+    private final Table<SubtypeKey, Convertibility> subtyping = new Table<>("Type system: subtype checks");
+    private final Table<MethodsKey, List<JMethodSig>> methods = new Table<>("Type system: method overloads");
+
+    Set<JTypeMirror> getSuperTypeSet(JTypeMirror t, Supplier<Set<JTypeMirror>> compute) {
+        if (!isCacheable(t)) {
+            return compute.get();
+        }
+        return superTypes.getOrCompute(t, compute);
+    }
+
+    Convertibility isConvertible(JTypeMirror t, JTypeMirror s, boolean capture, Supplier<Convertibility> compute) {
+        if (!isCacheable(t) || !isCacheable(s)) {
+            return compute.get();
+        }
+        return subtyping.getOrCompute(new SubtypeKey(t, s, capture), compute);
+    }
+
+    /**
+     * Returns the cached methods with the given name, or null if they
+     * must be computed. The methods are only cached if they do not depend
+     * on the access site, see {@link #rememberMethods(JTypeMirror, String, boolean, List)}.
+     */
+    @Nullable List<JMethodSig> getMethods(JTypeMirror t, String name, boolean staticOnly) {
+        if (!isCacheable(t)) {
+            return null;
+        }
+        return methods.get(new MethodsKey(t, name, staticOnly));
+    }
+
+    /** Remembers methods that are all public, so are visible from any access site. */
+    void rememberMethods(JTypeMirror t, String name, boolean staticOnly, List<JMethodSig> result) {
+        if (isCacheable(t)) {
+            methods.put(new MethodsKey(t, name, staticOnly), result);
+        }
+    }
+
+    /**
+     * Whether the type only mentions symbols from the classpath, and
+     * no type variables, inference variables, or type annotations.
+     */
+    static boolean isCacheable(JTypeMirror t) {
+        if (t instanceof JPrimitiveType) {
+            return true;
+        } else if (!t.getTypeAnnotations().isEmpty()) {
+            return false;
+        } else if (t instanceof JClassType) {
+            JClassType classType = (JClassType) t;
+            if (!isCacheable(classType.getSymbol())) {
+                return false;
+            }
+            JClassType enclosing = classType.getEnclosingType();
+            if (enclosing != null && !isCacheable(enclosing)) {
+                return false;
+            }
+            for (JTypeMirror arg : classType.getTypeArgs()) {
+                if (!isCacheable(arg)) {
+                    return false;
+                }
+            }
+            return true;
+        } else if (t instanceof JArrayType) {
+            return isCacheable(((JArrayType) t).getComponentType());
+        } else if (t instanceof JWildcardType) {
+            return isCacheable(((JWildcardType) t).getBound());
+        }
+        // type variables, inference variables, intersections, sentinels
+        return false;
+    }
+
+    private static boolean isCacheable(JTypeDeclSymbol sym) {
+        return !sym.isUnresolved() && sym.tryGetNode() == null;
+    }
+
+    private static final class Table<K, V> {
+
+        private final String name;
+        private final ConcurrentMap<K, V> map = new ConcurrentHashMap<>();
+
+        Table(String name) {
+            this.name = name;
+        }
+
+        @Nullable V get(K key) {
+            V value = map.get(key);
+            TimeTracker.recordCacheLookup(name, value != null);
+            return value;
+        }
+
+        void put(K key, V value) {
+            if (map.size() >= MAX_ENTRIES) {
+                map.clear();
+            }
+            map.putIfAbsent(key, value);
+        }
+
+        V getOrCompute(K key, Supplier<V> compute) {
+            V value = get(key);
+            if (value == null) {
+                // not computeIfAbsent, the computation may use this table
+                value = compute.get();
+                put(key, value);
+            }
+            return value;
+        }
+    }
+
+    private static final class SubtypeKey {
+
+        private final JTypeMirror t;
+        private final JTypeMirror s;
+        private final boolean capture;
+
+        SubtypeKey(JTypeMirror t, JTypeMirror s, boolean capture) {
+            this.t = t;
+            this.s = s;
+            this.capture = capture;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            SubtypeKey that = (SubtypeKey) o;
+            return capture == that.capture && t.equals(that.t) && s.equals(that.s);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(t, s, capture);
+        }
+    }
+
+    private static final class MethodsKey {
+
+        private final JTypeMirror t;
+        private final String name;
+        private final boolean staticOnly;
+
+        MethodsKey(JTypeMirror t, String name, boolean staticOnly) {
+            this.t = t;
+            this.name = name;
+            this.staticOnly = staticOnly;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            MethodsKey that = (MethodsKey) o;
+            return staticOnly == that.staticOnly && t.equals(that.t) && name.equals(that.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(t, name, staticOnly);
+        }
+    }
+}
@@ -172,6 +172,8 @@ public final class TypeSystem {
 
     /** Contains special types, that must be shared to be comparable by reference. */
     private final Map<JTypeDeclSymbol, JTypeMirror> sharedTypes;
+    /** Results of type operations on library types, shared by all files. */
+    private final TypeOpsCache opsCache = new TypeOpsCache();
     // test only
     final SymbolResolver resolver;
 
@@ -292,6 +294,10 @@ public final class TypeSystem {
         UNBOUNDED_WILD = new WildcardTypeImpl(this, true, OBJECT, HashTreePSet.empty());
     }
 
+    TypeOpsCache getOpsCache() {
+        return opsCache;
+    }
+
     /**
      * Returns the bootstrap symbol resolver. Concrete analysis passes
      * may decorate this with different resolvers.
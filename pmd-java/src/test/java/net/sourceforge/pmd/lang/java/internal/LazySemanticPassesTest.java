@@ -0,0 +1,111 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.pmd.lang.ast.SemanticErrorReporter;
+import net.sourceforge.pmd.lang.java.JavaParsingHelper;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.java.ast.ASTFieldDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTVariableDeclaratorId;
+import net.sourceforge.pmd.lang.java.ast.JavaComment;
+import net.sourceforge.pmd.lang.java.ast.JavadocComment;
+import net.sourceforge.pmd.lang.java.ast.JavadocCommentOwner;
+import net.sourceforge.pmd.lang.java.rule.JavaSemanticFacility;
+
+class LazySemanticPassesTest {
+
+    private static final String CODE =
+        "class Sup { void m() {} }\n"
+            + "class Foo extends Sup {\n"
+            + "    /** doc */\n"
+            + "    int f;\n"
+            + "    @Override void m() { f = 1; this.f++; }\n"
+            + "    void n() {}\n"
+            + "}";
+
+    private ASTCompilationUnit parse(Set<JavaSemanticFacility> eager) {
+        return parse(CODE, eager);
+    }
+
+    private ASTCompilationUnit parse(String code, Set<JavaSemanticFacility> eager) {
+        JavaLanguageProcessor proc = new JavaLanguageProcessor(new JavaLanguageProperties(), JavaParsingHelper.TEST_TYPE_SYSTEM);
+        proc.setEagerFacilities(eager);
+        ASTCompilationUnit acu = JavaParsingHelper.DEFAULT.withProcessing(false).parse(code);
+        JavaAstProcessor.process(proc, SemanticErrorReporter.noop(), acu);
+        return acu;
+    }
+
+    @Test
+    void testDeferredPassesHaveSameResults() {
+        for (Set<JavaSemanticFacility> eager : Arrays.asList(JavaSemanticFacility.ALL, JavaSemanticFacility.NONE)) {
+            ASTCompilationUnit acu = parse(eager);
+
+            ASTVariableDeclaratorId f = acu.descendants(ASTVariableDeclaratorId.class).firstOrThrow();
+            List<String> usages = f.getLocalUsages().stream().map(it -> it.getText().toString()).collect(Collectors.toList());
+            assertEquals(Arrays.asList("f", "this.f"), usages, "with " + eager);
+
+            List<ASTMethodDeclaration> methods = acu.descendants(ASTMethodDeclaration.class).toList();
+            assertFalse(methods.get(0).isOverridden(), "with " + eager);
+            assertTrue(methods.get(1).isOverridden(), "with " + eager);
+            assertFalse(methods.get(2).isOverridden(), "with " + eager);
+
+            ASTFieldDeclaration field = acu.descendants(ASTFieldDeclaration.class).firstOrThrow();
+            JavadocComment doc = field.getJavadocComment();
+            assertNotNull(doc, "with " + eager);
+            assertSame(field, doc.getOwner(), "with " + eager);
+        }
+    }
+
+    @Test
+    void testCommentOwnerTriggersAssignment() {
+        ASTCompilationUnit acu = parse(JavaSemanticFacility.NONE);
+        JavaComment comment = acu.getComments().get(0);
+        assertSame(acu.descendants(ASTFieldDeclaration.class).firstOrThrow(), ((JavadocComment) comment).getOwner());
+    }
+
+    @Test
+    void testCommentOwnersAreFoundOnDemand() {
+        String code = "/** outer */\n"
+            + "class Foo {\n"
+            + "    int /** inside */ f;\n"
+            + "    /** first */ /** m */ @Deprecated\n"
+            + "    void m() {\n"
+            + "        /** local */ class Local {}\n"
+            + "    }\n"
+            + "    enum E { /** A */ A }\n"
+            + "}";
+        List<String> expected = Arrays.asList(
+            "ASTClassOrInterfaceDeclaration@2",
+            "null",
+            "null",
+            "ASTMethodDeclaration@5",
+            "ASTClassOrInterfaceDeclaration@6",
+            "ASTEnumConstant@8"
+        );
+
+        for (Set<JavaSemanticFacility> eager : Arrays.asList(JavaSemanticFacility.ALL, JavaSemanticFacility.NONE)) {
+            ASTCompilationUnit acu = parse(code, eager);
+            List<String> owners = acu.getComments().stream().map(comment -> {
+                JavadocCommentOwner owner = ((JavadocComment) comment).getOwner();
+                return owner == null ? "null" : owner.getClass().getSimpleName() + "@" + owner.getBeginLine();
+            }).collect(Collectors.toList());
+            assertEquals(expected, owners, "with " + eager);
+        }
+    }
+}
@@ -5,12 +5,29 @@
 package net.sourceforge.pmd.lang.java.rule.internal;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
 
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
 
 import net.sourceforge.pmd.lang.java.BaseParserTest;
+import net.sourceforge.pmd.lang.java.ast.ASTClassOrInterfaceDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.java.ast.ASTFieldDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTVariableAccess;
+import net.sourceforge.pmd.lang.java.ast.ASTVariableDeclaratorId;
+import net.sourceforge.pmd.lang.java.rule.internal.DataflowPass.AssignmentBits;
+import net.sourceforge.pmd.lang.java.rule.internal.DataflowPass.AssignmentEntry;
 import net.sourceforge.pmd.lang.java.rule.internal.DataflowPass.DataflowResult;
 
 /**
@@ -32,4 +49,88 @@ class DataflowPassTest extends BaseParserTest {
 
     }
 
+    @Test
+    void testKillRecord() {
+        ASTCompilationUnit ast = java.parse(
+            "class Foo { int foo(boolean c) {\n"
+                + "  int i = 0;\n"
+                + "  if (c) i = 1; else i = 2;\n"
+                + "  i = 3;\n"
+                + "  return i;\n"
+                + "} }");
+
+        DataflowResult dataflow = DataflowPass.getDataflowResult(ast);
+        ASTVariableDeclaratorId i = ast.descendants(ASTVariableDeclaratorId.class).filter(it -> "i".equals(it.getName())).firstOrThrow();
+        AssignmentEntry init = new ArrayList<>(dataflow.getUnusedAssignments()).get(0);
+        assertSame(i, init.getVarId());
+        assertEquals(3, dataflow.getUnusedAssignments().size());
+
+        Set<AssignmentEntry> killers = dataflow.getKillers(init);
+        assertEquals(2, killers.size());
+        for (AssignmentEntry killer : killers) {
+            assertTrue(killers.contains(killer));
+            assertEquals(1, dataflow.getKillers(killer).size());
+        }
+    }
+
+    @Test
+    void testAssignmentBits() {
+        AssignmentBits low = AssignmentBits.singleton(3);
+        AssignmentBits high = AssignmentBits.singleton(200);
+        AssignmentBits both = low.union(high);
+
+        assertEquals(Arrays.asList(3, 200), idsOf(both));
+        assertEquals(2, both.size());
+        assertTrue(low.isSubsetOf(both));
+        assertTrue(high.isSubsetOf(both));
+        // no new set if nothing is added
+        assertSame(both, both.union(low));
+        assertSame(both, low.union(both));
+
+        // iteration order is insertion order, like a LinkedHashSet
+        assertEquals(Arrays.asList(200, 3), idsOf(high.union(both)));
+        AssignmentBits three = both.union(AssignmentBits.singleton(64));
+        assertEquals(Arrays.asList(3, 200, 64), idsOf(three));
+        assertEquals("{3, 200, 64}", three.toString());
+        assertTrue(three.contains(64));
+        assertFalse(three.contains(65));
+    }
+
+    @Test
+    void testUnitsAreProcessedLazily() {
+        ASTCompilationUnit ast = java.parse(
+            "class Foo {\n"
+                + "  private int f = 1;\n"
+                + "  Foo() { f = 2; }\n"
+                + "  int a() { int i = 0; return i; }\n"
+                + "  int b() { int j = f; return j; }\n"
+                + "}");
+
+        DataflowResult dataflow = DataflowPass.getDataflowResult(ast);
+        List<ASTMethodDeclaration> methods = ast.descendants(ASTMethodDeclaration.class).toList();
+        ASTClassOrInterfaceDeclaration foo = ast.descendants(ASTClassOrInterfaceDeclaration.class).firstOrThrow();
+
+        ASTVariableAccess i = methods.get(0).descendants(ASTVariableAccess.class).firstOrThrow();
+        assertEquals(1, dataflow.getReachingDefinitions(i).getReaching().size());
+        assertTrue(methods.get(0).getUserMap().isSet(DataflowPass.UNIT_PROCESSED));
+        assertFalse(methods.get(1).getUserMap().isSet(DataflowPass.UNIT_PROCESSED));
+        assertFalse(foo.getUserMap().isSet(DataflowPass.UNIT_PROCESSED));
+
+        // field tracking only processes the initializers and ctors
+        ASTVariableDeclaratorId f = foo.getDeclarations(ASTFieldDeclaration.class).firstOrThrow().getVarIds().firstOrThrow();
+        AssignmentEntry fieldDef = DataflowPass.getFieldDefinition(f);
+        assertNotNull(fieldDef);
+        assertTrue(foo.getUserMap().isSet(DataflowPass.UNIT_PROCESSED));
+        assertFalse(methods.get(1).getUserMap().isSet(DataflowPass.UNIT_PROCESSED));
+        assertEquals(1, dataflow.getKillers(fieldDef).size());
+
+        assertEquals(1, dataflow.getUnusedAssignments().size());
+        assertTrue(methods.get(1).getUserMap().isSet(DataflowPass.UNIT_PROCESSED));
+    }
+
+    private static List<Integer> idsOf(AssignmentBits bits) {
+        List<Integer> ids = new ArrayList<>();
+        bits.forEach(ids::add);
+        return ids;
+    }
 }
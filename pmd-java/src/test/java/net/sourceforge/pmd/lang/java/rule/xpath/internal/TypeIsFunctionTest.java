@@ -45,4 +45,13 @@ class TypeIsFunctionTest extends BaseXPathFunctionTest {
         assertFinds(rule, 0, "interface O { @Override void foo(); }");
     }
 
+    @Test
+    void testMemoizedResultsDependOnFunction() {
+        // both functions are called on the same node with the same
+        // argument, their results must be memoized separately
+        Rule rule = makeXpathRuleFromXPath("//ClassOrInterfaceType[pmd-java:typeIs('java.lang.CharSequence') and not(pmd-java:typeIsExactly('java.lang.CharSequence'))]");
+
+        assertFinds(rule, 1, "class K { String s; CharSequence c; }");
+    }
+
 }
@@ -0,0 +1,96 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.symbols.internal.asm
+
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.engine.spec.tempdir
+import io.kotest.matchers.nulls.shouldBeNull
+import io.kotest.matchers.nulls.shouldNotBeNull
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.types.shouldBeInstanceOf
+import io.kotest.matchers.types.shouldNotBeInstanceOf
+import net.sourceforge.pmd.internal.util.ClasspathClassLoader
+import java.nio.file.Files
+import java.nio.file.Paths
+import java.util.jar.JarOutputStream
+import java.util.zip.ZipEntry
+
+class IndexedClasspathTest : FunSpec({
+
+    val inJar = "javasymbols/testdata/impls/GenericClass.class"
+    val inDir = "javasymbols/testdata/Enums.class"
+    val inBoth = "javasymbols/testdata/Statics.class"
+
+    fun bytesOf(resource: String): ByteArray =
+        javaClass.classLoader.getResourceAsStream(resource)!!.use { it.readBytes() }
+
+    fun makeLoader(): ClasspathClassLoader {
+        val tmp = tempdir().toPath()
+        val dir = Files.createDirectories(tmp.resolve("classes"))
+        for (resource in listOf(inDir, inBoth)) {
+            val file = dir.resolve(resource)
+            Files.createDirectories(file.parent)
+            Files.write(file, bytesOf(resource))
+        }
+        val jar = tmp.resolve("lib.jar")
+        JarOutputStream(Files.newOutputStream(jar)).use { out ->
+            for (resource in listOf(inJar, inBoth)) {
+                out.putNextEntry(ZipEntry(resource))
+                out.write(bytesOf(resource))
+            }
+        }
+        return ClasspathClassLoader(listOf(dir.toFile(), jar.toFile()), javaClass.classLoader)
+    }
+
+    test("Index finds the same resources as the class loader") {
+        val loader = makeLoader()
+        val cp = IndexedClasspath.forClassLoader(loader)
+        cp.shouldBeInstanceOf<IndexedClasspath>()
+
+        for (resource in listOf(inJar, inDir, inBoth, "java/lang/String.class", "javasymbols/testdata/SuperItf.class")) {
+            val expected = loader.getResource(resource).shouldNotBeNull()
+            val actual = cp.findResource(resource).shouldNotBeNull()
+            actual.toString() shouldBe expected.toString()
+            actual.openStream().use { it.readBytes() } shouldBe expected.openStream().use { it.readBytes() }
+        }
+
+        cp.findResource("does/not/Exist.class").shouldBeNull()
+        cp.findResource("java/lang/DoesNotExist.class").shouldBeNull()
+
+        (cp as IndexedClasspath).close()
+        loader.close()
+    }
+
+    test("Directory that comes first has precedence") {
+        val loader = makeLoader()
+        val cp = IndexedClasspath.forClassLoader(loader)
+
+        cp.findResource(inBoth)!!.protocol shouldBe "file"
+        cp.findResource(inJar)!!.protocol shouldBe "jar"
+
+        (cp as IndexedClasspath).close()
+        loader.close()
+    }
+
+    test("Package directories are listed once") {
+        val loader = makeLoader()
+        val cp = IndexedClasspath.forClassLoader(loader)
+        val added = "javasymbols/testdata/Added.class"
+
+        cp.findResource(added).shouldBeNull()
+        // the listing of the package is reused, the new file is not seen
+        val dir = Paths.get(loader.urLs.first { it.path.endsWith("/classes/") }.toURI())
+        Files.write(dir.resolve(added), bytesOf(inDir))
+        cp.findResource(added).shouldBeNull()
+        cp.findResource(inDir).shouldNotBeNull()
+
+        (cp as IndexedClasspath).close()
+        loader.close()
+    }
+
+    test("Other class loaders are not indexed") {
+        IndexedClasspath.forClassLoader(javaClass.classLoader).shouldNotBeInstanceOf<IndexedClasspath>()
+    }
+})
@@ -0,0 +1,123 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.symbols.internal.asm
+
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.engine.spec.tempdir
+import io.kotest.matchers.collections.shouldHaveSize
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.shouldNotBe
+import io.kotest.matchers.types.shouldBeInstanceOf
+import net.sourceforge.pmd.lang.java.types.testTypeSystem
+import java.net.URLClassLoader
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.attribute.FileTime
+import java.util.Optional
+import java.util.concurrent.CompletableFuture
+import java.util.jar.JarOutputStream
+import java.util.stream.Collectors
+import java.util.zip.ZipEntry
+
+class SymbolStubIndexTest : FunSpec({
+
+    val entry = "javasymbols/testdata/impls/GenericClass.class"
+
+    fun makeJar(dir: Path): Path {
+        val jar = dir.resolve("testdata.jar")
+        JarOutputStream(Files.newOutputStream(jar)).use { out ->
+            out.putNextEntry(ZipEntry(entry))
+            javaClass.classLoader.getResourceAsStream(entry)!!.use { it.copyTo(out) }
+        }
+        return jar
+    }
+
+    fun listStubFiles(dir: Path): List<Path> =
+        Files.list(dir).use { files -> files.filter { it.toString().endsWith(".stubs") }.collect(Collectors.toList()) }
+
+    // the resolver also loads the JDK classes that the test class references
+    fun listJarStubFiles(dir: Path): List<Path> =
+        listStubFiles(dir).filter { it.fileName.toString().startsWith("testdata.jar") }
+
+    test("Classes in jars are loaded from the index") {
+        val tmp = tempdir().toPath()
+        val jar = makeJar(tmp)
+        val cacheDir = tmp.resolve("cache")
+        val classpath = Classpath.forClassLoader(URLClassLoader(arrayOf(jar.toUri().toURL()), null))
+
+        val index = SymbolStubIndex(cacheDir)
+        index.loaderFor(classpath.findResource(entry)!!).shouldBeInstanceOf<SymbolStubIndex.StubLoader>()
+        listJarStubFiles(cacheDir) shouldHaveSize 1
+
+        val fromIndex = AsmSymbolResolver(testTypeSystem, classpath, index)
+            .resolveClassFromBinaryName("javasymbols.testdata.impls.GenericClass")!!
+        val fromJar = AsmSymbolResolver(testTypeSystem, classpath)
+            .resolveClassFromBinaryName("javasymbols.testdata.impls.GenericClass")!!
+
+        fromIndex.typeParameterCount shouldBe 2
+        fromIndex.declaredMethods.map { it.simpleName to it.arity } shouldBe
+            fromJar.declaredMethods.map { it.simpleName to it.arity }
+        fromIndex.constructors shouldHaveSize fromJar.constructors.size
+
+        // a new index reuses the file
+        val reopened = SymbolStubIndex(cacheDir)
+        reopened.loaderFor(classpath.findResource(entry)!!).shouldBeInstanceOf<SymbolStubIndex.StubLoader>()
+        listJarStubFiles(cacheDir) shouldHaveSize 1
+    }
+
+    test("Index file depends on the jar content") {
+        val tmp = tempdir().toPath()
+        val jar = makeJar(tmp)
+
+        val before = SymbolStubIndex.indexFileName(jar)
+        Files.setLastModifiedTime(jar, FileTime.fromMillis(Files.getLastModifiedTime(jar).toMillis() - 10_000))
+        SymbolStubIndex.indexFileName(jar) shouldBe before
+
+        JarOutputStream(Files.newOutputStream(jar)).use { out ->
+            out.putNextEntry(ZipEntry("Other.class"))
+        }
+        SymbolStubIndex.indexFileName(jar) shouldNotBe before
+    }
+
+    test("Classes outside of jars are loaded from their url") {
+        val tmp = tempdir().toPath()
+        val url = javaClass.classLoader.getResource(entry)!!
+        url.protocol shouldBe "file"
+
+        SymbolStubIndex(tmp).loaderFor(url).shouldBeInstanceOf<Loader.UrlLoader>()
+    }
+
+    test("Classes of java.base are loaded from the JDK snapshot") {
+        val tmp = tempdir().toPath()
+        val url = javaClass.classLoader.getResource("java/lang/String.class")!!
+        url.protocol shouldBe "jrt"
+
+        val index = SymbolStubIndex(tmp)
+        index.loaderFor(url).shouldBeInstanceOf<SymbolStubIndex.StubLoader>()
+        listStubFiles(tmp).map { it.fileName.toString() } shouldBe listOf(SymbolStubIndex.jdkSnapshotFileName())
+
+        val classpath = Classpath.forClassLoader(javaClass.classLoader)
+        val fromSnapshot = AsmSymbolResolver(testTypeSystem, classpath, index)
+            .resolveClassFromBinaryName("java.util.ArrayList")!!
+        val fromJdk = AsmSymbolResolver(testTypeSystem, classpath)
+            .resolveClassFromBinaryName("java.util.ArrayList")!!
+        fromSnapshot.typeParameterCount shouldBe 1
+        fromSnapshot.declaredMethods.map { it.simpleName to it.arity } shouldBe
+            fromJdk.declaredMethods.map { it.simpleName to it.arity }
+
+        // other modules are read from the runtime image
+        val sql = javaClass.classLoader.getResource("java/sql/Connection.class")!!
+        index.loaderFor(sql).shouldBeInstanceOf<Loader.UrlLoader>()
+    }
+
+    test("Threads waiting for an index are released if it cannot be built") {
+        val future = CompletableFuture<Optional<SymbolStubIndex.JarStubs>>()
+        shouldThrow<IllegalStateException> {
+            SymbolStubIndex.build(future) { throw IllegalStateException("failure") }
+        }
+        future.getNow(null) shouldBe Optional.empty()
+    }
+})
@@ -0,0 +1,60 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.types
+
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.types.shouldBeSameInstanceAs
+import io.kotest.matchers.types.shouldNotBeSameInstanceAs
+import net.sourceforge.pmd.lang.java.JavaParsingHelper
+import net.sourceforge.pmd.lang.java.ast.ASTClassOrInterfaceDeclaration
+
+class TypeOpsCacheTest : FunSpec({
+
+    // a fresh type system, so that the cache is empty
+    val ts = TypeSystem.usingClassLoaderClasspath(TypeOpsCacheTest::class.java.classLoader)
+
+    with(TypeDslOf(ts)) {
+
+        test("Only ground types from the classpath are cacheable") {
+            TypeOpsCache.isCacheable(List::class[String::class]) shouldBe true
+            TypeOpsCache.isCacheable(List::class[`?` extends Number::class]) shouldBe true
+            TypeOpsCache.isCacheable(ts.arrayType(ts.INT)) shouldBe true
+            TypeOpsCache.isCacheable(List::class.raw) shouldBe true
+
+            // mentions the type variable E
+            TypeOpsCache.isCacheable(List::class.decl) shouldBe false
+            TypeOpsCache.isCacheable(List::class[List::class.decl.typeArgs[0]]) shouldBe false
+
+            val acu = JavaParsingHelper.DEFAULT.withTypeSystem(ts).parse("class Foo {}")
+            val foo = acu.descendants(ASTClassOrInterfaceDeclaration::class.java).firstOrThrow().typeMirror
+            TypeOpsCache.isCacheable(foo) shouldBe false
+            TypeOpsCache.isCacheable(List::class[foo]) shouldBe false
+        }
+
+        test("Supertype sets are shared") {
+            val t = ArrayList::class[String::class]
+            TypeOps.getSuperTypeSet(t) shouldBeSameInstanceAs TypeOps.getSuperTypeSet(ArrayList::class[String::class])
+        }
+
+        test("Subtyping results are the same when cached") {
+            for (i in 0..1) {
+                ArrayList::class[String::class].isSubtypeOf(List::class[String::class]) shouldBe true
+                ArrayList::class[String::class].isSubtypeOf(List::class[Number::class]) shouldBe false
+                ArrayList::class[String::class].isSubtypeOf(List::class[`?` extends CharSequence::class]) shouldBe true
+            }
+        }
+
+        test("Only public overloads are shared between access sites") {
+            val site = ts.getClassSymbol(String::class.java)!!
+            val valueOf = TypeOps.getMethodsOf(String::class.raw, "valueOf", true, site)
+            TypeOps.getMethodsOf(String::class.raw, "valueOf", true, site) shouldBeSameInstanceAs valueOf
+
+            // protected, accessibility depends on the site
+            val clone = TypeOps.getMethodsOf(ts.OBJECT, "clone", false, site)
+            TypeOps.getMethodsOf(ts.OBJECT, "clone", false, site) shouldNotBeSameInstanceAs clone
+        }
+    }
+})